@@ -0,0 +1,104 @@
+package com.taskboard.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.taskboard.api.ApiServer;
+import com.taskboard.benchmarks.BenchmarkDatabase.SeededBoard;
+import com.taskboard.db.DB;
+import com.taskboard.metrics.LatencyHistogram;
+
+/**
+ * Teste de carga da API HTTP: N clientes concorrentes (um por virtual
+ * thread, 1000 por padrão) fazendo, por uma duração fixa, uma mistura de
+ * leituras de página de coluna (70%), leituras de card (20%) e
+ * bloqueio/desbloqueio do próprio card (10%). Ao final mostra a vazão, a
+ * distribuição de latência vista pelo cliente e as métricas do pool.
+ *
+ * Uso: ApiLoadTest [clientes] [segundos] [cards] [conexões no pool]
+ */
+public class ApiLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int cardCount = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        int poolSize = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        BenchmarkDatabase.configure(poolSize);
+        SeededBoard seeded = BenchmarkDatabase.seedBoard(Math.max(cardCount, clients * 3));
+        ApiServer server = new ApiServer(0, clients);
+        server.start();
+        String base = "http://localhost:" + server.getPort() + "/api/boards/" + seeded.board.getId();
+        String pageUrl = base + "/columns/" + seeded.doing.getId() + "/cards?limit=20";
+        List<Integer> cardIds = seeded.doingCardIds;
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        System.out.println("Carga: " + clients + " clientes, " + seconds + " s, " + cardIds.size()
+                + " cards na coluna, pool de " + poolSize + " conexões.");
+        long start = System.nanoTime();
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int ownCard = cardIds.get(c % cardIds.size());
+                clientThreads.submit(() -> {
+                    boolean blocked = false;
+                    while (System.nanoTime() < deadline) {
+                        int dice = ThreadLocalRandom.current().nextInt(10);
+                        HttpRequest request;
+                        if (dice < 7) {
+                            request = HttpRequest.newBuilder(URI.create(pageUrl)).build();
+                        } else if (dice < 9) {
+                            int cardId = cardIds.get(ThreadLocalRandom.current().nextInt(cardIds.size()));
+                            request = HttpRequest.newBuilder(URI.create(base + "/cards/" + cardId)).build();
+                        } else {
+                            request = HttpRequest.newBuilder(URI.create(base + "/cards/" + ownCard
+                                            + (blocked ? "/unblock" : "/block")))
+                                    .POST(HttpRequest.BodyPublishers.ofString("{\"reason\": \"teste de carga\"}"))
+                                    .build();
+                            blocked = !blocked;
+                        }
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 300) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        latency.record(System.nanoTime() - begin);
+                    }
+                    return null;
+                });
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("Requisições: %d em %.1f s = %.0f req/s, erros: %d%n",
+                latency.getCount(), elapsed, latency.getCount() / elapsed, errors.sum());
+        System.out.println("Latência no cliente: " + latency.summary());
+        System.out.println(DB.getPoolStats());
+        System.out.println(DB.getMetricsReport());
+
+        server.stop(0);
+        DB.closeConnection();
+    }
+}
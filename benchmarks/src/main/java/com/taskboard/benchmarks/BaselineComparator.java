@@ -0,0 +1,97 @@
+package com.taskboard.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.taskboard.json.Json;
+
+/**
+ * Compara um resultado do JMH (-rf json) com o baseline versionado e aponta
+ * regressões acima do limite: queda de ops/s no modo Throughput ou aumento do
+ * p99 no modo SampleTime.
+ *
+ * Uso: BaselineComparator baseline/results.json target/results.json [limite%]
+ */
+public class BaselineComparator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: BaselineComparator <baseline.json> <atual.json> [limite%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, double[]> baseline = load(Paths.get(args[0]));
+        Map<String, double[]> current = load(Paths.get(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "atual", "variação");
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            double[] now = entry.getValue();
+            double[] before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.1f %9s%n", entry.getKey(), "-", now[0], "novo");
+                continue;
+            }
+            double change = (now[0] - before[0]) / before[0] * 100.0;
+            // now[1] = 1 quando maior é melhor (ops/s), 0 quando menor é melhor (p99).
+            boolean regression = now[1] == 1 ? change < -threshold : change > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.1f %14.1f %+8.1f%%%s%n", entry.getKey(), before[0], now[0], change,
+                    regression ? "  <-- REGRESSÃO" : "");
+        }
+        System.out.println(regressions == 0 ? "Nenhuma regressão acima de " + threshold + "%."
+                : regressions + " regressão(ões) acima de " + threshold + "%.");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    // Chave: benchmark + modo + parâmetros. Valor: {ops/s ou p99 em µs, 1 se maior é melhor}.
+    @SuppressWarnings("unchecked")
+    private static Map<String, double[]> load(Path path) throws IOException {
+        Map<String, double[]> results = new LinkedHashMap<>();
+        List<Object> runs = (List<Object>) Json.parse(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        for (Object item : runs) {
+            Map<String, Object> run = (Map<String, Object>) item;
+            String mode = (String) run.get("mode");
+            Map<String, Object> params = (Map<String, Object>) run.get("params");
+            Map<String, Object> metric = (Map<String, Object>) run.get("primaryMetric");
+            String unit = (String) metric.get("scoreUnit");
+            String key = run.get("benchmark") + " [" + mode + "]" + (params == null ? "" : " " + params);
+
+            if ("thrpt".equals(mode)) {
+                double score = ((Number) metric.get("score")).doubleValue();
+                results.put(key + " ops/s", new double[] { score * perSecond(unit), 1 });
+            } else if ("sample".equals(mode)) {
+                Map<String, Object> percentiles = (Map<String, Object>) metric.get("scorePercentiles");
+                double p99 = ((Number) percentiles.get("99.0")).doubleValue();
+                results.put(key + " p99 µs", new double[] { p99 * microsPerUnit(unit), 0 });
+            }
+        }
+        return results;
+    }
+
+    private static double perSecond(String unit) {
+        switch (unit) {
+            case "ops/us": return 1_000_000;
+            case "ops/ms": return 1_000;
+            case "ops/min": return 1.0 / 60;
+            default: return 1;
+        }
+    }
+
+    private static double microsPerUnit(String unit) {
+        switch (unit) {
+            case "ns/op": return 0.001;
+            case "ms/op": return 1_000;
+            case "s/op": return 1_000_000;
+            default: return 1;
+        }
+    }
+}
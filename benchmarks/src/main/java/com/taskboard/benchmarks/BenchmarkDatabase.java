@@ -0,0 +1,116 @@
+package com.taskboard.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.taskboard.dao.BoardDAO;
+import com.taskboard.dao.CardDAO;
+import com.taskboard.dao.ColumnDAO;
+import com.taskboard.db.DB;
+import com.taskboard.model.Board;
+import com.taskboard.model.Card;
+import com.taskboard.model.Column;
+import com.taskboard.model.ColumnType;
+
+/**
+ * Banco usado pelos benchmarks. Por padrão é o backend embutido em memória;
+ * com -Dbench.dburl=jdbc:mysql://... (mais bench.user e bench.password) os
+ * mesmos benchmarks rodam contra um mysqld local. As métricas dos DAOs ficam
+ * desligadas, como no padrão da aplicação, salvo com -Dbench.metrics=true.
+ */
+public final class BenchmarkDatabase {
+
+    private static final AtomicInteger BOARD_SEQUENCE = new AtomicInteger();
+
+    private BenchmarkDatabase() {
+    }
+
+    public static void configure(int poolSize) {
+        Properties props = new Properties();
+        String url = System.getProperty("bench.dburl");
+        if (url == null) {
+            props.setProperty("db.backend", "embedded");
+            props.setProperty("embedded.path", "mem:taskboard_bench");
+        } else {
+            props.setProperty("db.backend", "mysql");
+            props.setProperty("dburl", url);
+            props.setProperty("user", System.getProperty("bench.user", "sa"));
+            props.setProperty("password", System.getProperty("bench.password", ""));
+        }
+        props.setProperty("pool.minSize", "1");
+        props.setProperty("pool.maxSize", String.valueOf(poolSize));
+        props.setProperty("pool.leakThresholdMs", "0");
+        props.setProperty("db.explainCheck", "false");
+        // -Dbench.metrics=true liga a instrumentação JDBC (e o custo dela) para ver as métricas por DAO.
+        props.setProperty("metrics.enabled", System.getProperty("bench.metrics", "false"));
+        DB.configure(props);
+    }
+
+    /**
+     * Cria um board com as colunas obrigatórias mais duas pendentes e
+     * distribui {@code cardCount} cards entre a inicial e as pendentes.
+     */
+    public static SeededBoard seedBoard(int cardCount) {
+        Board board = new Board();
+        board.setName("bench-" + System.nanoTime() + "-" + BOARD_SEQUENCE.incrementAndGet());
+        new BoardDAO().create(board);
+
+        ColumnDAO columnDAO = new ColumnDAO();
+        Column initial = newColumn(columnDAO, board, "Backlog", ColumnType.INICIAL);
+        Column doing = newColumn(columnDAO, board, "Fazendo", ColumnType.PENDENTE);
+        Column review = newColumn(columnDAO, board, "Revisão", ColumnType.PENDENTE);
+        newColumn(columnDAO, board, "Concluído", ColumnType.FINAL);
+        Column canceled = newColumn(columnDAO, board, "Cancelado", ColumnType.CANCELAMENTO);
+
+        CardDAO cardDAO = new CardDAO();
+        int[] targets = { initial.getId(), doing.getId(), review.getId() };
+        List<Card> batch = new ArrayList<>(1000);
+        List<Integer> doingCards = new ArrayList<>();
+        for (int i = 0; i < cardCount; i++) {
+            Card card = new Card();
+            card.setTitle("Card " + i);
+            card.setDescription("Descrição do card " + i + " usada nos benchmarks.");
+            card.setColumnId(targets[i % targets.length]);
+            batch.add(card);
+            if (batch.size() == 1000 || i == cardCount - 1) {
+                cardDAO.createAll(batch);
+                for (Card created : batch) {
+                    if (created.getColumnId() == doing.getId()) {
+                        doingCards.add(created.getId());
+                    }
+                }
+                batch.clear();
+            }
+        }
+        return new SeededBoard(board, initial, doing, review, canceled, doingCards);
+    }
+
+    private static Column newColumn(ColumnDAO columnDAO, Board board, String name, ColumnType type) {
+        Column column = new Column();
+        column.setName(name);
+        column.setBoardId(board.getId());
+        column.setType(type);
+        columnDAO.create(column);
+        return column;
+    }
+
+    public static final class SeededBoard {
+        public final Board board;
+        public final Column initial;
+        public final Column doing;
+        public final Column review;
+        public final Column canceled;
+        public final List<Integer> doingCardIds;
+
+        SeededBoard(Board board, Column initial, Column doing, Column review, Column canceled, List<Integer> doingCardIds) {
+            this.board = board;
+            this.initial = initial;
+            this.doing = doing;
+            this.review = review;
+            this.canceled = canceled;
+            this.doingCardIds = doingCardIds;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.taskboard.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.taskboard.model.Card;
+import com.taskboard.store.CardTable;
+
+/**
+ * Memória ocupada por N cards como objetos {@link Card} (o que os DAOs
+ * devolvem) e no {@link CardTable} do {@code cards.store=memory}, medida pelo
+ * heap usado depois de GC. Não usa o banco.
+ *
+ * Cada título e descrição é uma String nova, como as que vêm do JDBC; os
+ * títulos se repetem entre {@code distinctTitles} valores e as descrições têm
+ * {@code descriptionWords} palavras (0 = sem descrição, para ver só o custo fixo
+ * por card).
+ */
+public final class CardFootprint {
+
+    private static final String[] WORDS = { "corrigir", "erro", "login", "revisão", "pagamento", "relatório",
+            "cliente", "integração", "tela", "cadastro", "ajustar", "validação", "migração", "deploy", "teste" };
+
+    private CardFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int cards = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int distinctTitles = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int descriptionWords = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+        int columns = 5;
+
+        long baseline = usedHeap();
+        List<Card> objects = new ArrayList<>(cards);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int id = 1; id <= cards; id++) {
+            objects.add(newCard(id, random, distinctTitles, descriptionWords, columns));
+        }
+        long objectBytes = usedHeap() - baseline;
+        System.out.println("Cards: " + objects.size());
+        objects = null;
+
+        baseline = usedHeap();
+        CardTable table = new CardTable();
+        random = new SplittableRandom(7);
+        for (int id = 1; id <= cards; id++) {
+            table.put(newCard(id, random, distinctTitles, descriptionWords, columns));
+        }
+        long tableBytes = usedHeap() - baseline;
+
+        System.out.printf("List<Card>: %,d bytes (%d por card)%n", objectBytes, objectBytes / cards);
+        System.out.printf("CardTable:  %,d bytes (%d por card), %d títulos distintos%n",
+                tableBytes, tableBytes / cards, table.getTitleCount());
+        System.out.printf("Redução:    %.1fx%n", (double) objectBytes / tableBytes);
+    }
+
+    private static Card newCard(int id, SplittableRandom random, int distinctTitles, int descriptionWords, int columns) {
+        Card card = new Card();
+        card.setID(id);
+        int title = random.nextInt(distinctTitles);
+        card.setTitle(new StringBuilder().append(WORDS[title % WORDS.length]).append(' ')
+                .append(WORDS[(title / WORDS.length) % WORDS.length]).append(" #").append(title).toString());
+        if (descriptionWords > 0) {
+            StringBuilder description = new StringBuilder();
+            for (int i = 0; i < descriptionWords; i++) {
+                description.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            card.setDescription(description.toString());
+        }
+        card.setCreationDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(id * 30L));
+        card.setBlock(random.nextInt(20) == 0);
+        card.setColumnId(1 + random.nextInt(columns));
+        card.setVersion(random.nextInt(5));
+        return card;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,105 @@
+package com.taskboard.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.taskboard.benchmarks.BenchmarkDatabase.SeededBoard;
+import com.taskboard.dao.CardDAO;
+import com.taskboard.db.DB;
+import com.taskboard.metrics.LatencyHistogram;
+import com.taskboard.model.Card;
+import com.taskboard.model.MoveResult;
+
+/**
+ * Teste de concorrência das movimentações: N threads leem o mesmo card e
+ * tentam movê-lo entre "Fazendo" e "Revisão" ao mesmo tempo. Ao final confere
+ * que o controle otimista não deixou estado inconsistente: exatamente um
+ * intervalo aberto no histórico, uma linha de histórico por movimentação
+ * aceita e versão igual ao número de movimentações. Sai com código 1 se
+ * alguma verificação falhar.
+ *
+ * Uso: CardMoveContention [threads] [segundos]
+ */
+public class CardMoveContention {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        BenchmarkDatabase.configure(Math.min(threads, 32));
+        SeededBoard seeded = BenchmarkDatabase.seedBoard(3);
+        int cardId = seeded.doingCardIds.get(0);
+        CardDAO cardDAO = new CardDAO();
+        int initialVersion = cardDAO.findById(cardId).getVersion();
+        long initialHistory = count("SELECT COUNT(*) FROM card_movement_history WHERE card_id = ?", cardId);
+
+        LongAdder moved = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        LatencyHistogram latency = new LatencyHistogram();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        System.out.println("Contenção: " + threads + " threads movendo o card " + cardId + " por " + seconds + " s.");
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    long begin = System.nanoTime();
+                    Card card = cardDAO.findById(cardId);
+                    int target = card.getColumnId() == seeded.doing.getId() ? seeded.review.getId() : seeded.doing.getId();
+                    if (cardDAO.updateColumn(card, target) == MoveResult.MOVED) {
+                        moved.increment();
+                    } else {
+                        conflicts.increment();
+                    }
+                    latency.record(System.nanoTime() - begin);
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long openIntervals = count("SELECT COUNT(*) FROM card_movement_history WHERE card_id = ? AND exit_time IS NULL", cardId);
+        long historyRows = count("SELECT COUNT(*) FROM card_movement_history WHERE card_id = ?", cardId) - initialHistory;
+        int version = cardDAO.findById(cardId).getVersion() - initialVersion;
+
+        System.out.printf("Movimentações aceitas: %d (%.0f/s), conflitos: %d (%.1f%% das tentativas)%n",
+                moved.sum(), moved.sum() / elapsed, conflicts.sum(),
+                100.0 * conflicts.sum() / Math.max(1, moved.sum() + conflicts.sum()));
+        System.out.println("Latência por tentativa (leitura + movimentação): " + latency.summary());
+
+        boolean ok = true;
+        ok &= check("um único intervalo aberto no histórico", openIntervals, 1);
+        ok &= check("uma linha de histórico por movimentação aceita", historyRows, moved.sum());
+        ok &= check("versão igual ao número de movimentações", version, moved.sum());
+        DB.closeConnection();
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean check(String description, long actual, long expected) {
+        boolean ok = actual == expected;
+        System.out.println((ok ? "OK    " : "FALHA ") + description + " (esperado " + expected + ", obtido " + actual + ")");
+        return ok;
+    }
+
+    private static long count(String sql, int cardId) throws SQLException {
+        Connection conn = DB.getConnection();
+        try (PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setInt(1, cardId);
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        } finally {
+            DB.closeConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.taskboard.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.taskboard.dao.BoardDAO;
+import com.taskboard.dao.ColumnDAO;
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+import com.taskboard.metrics.LatencyHistogram;
+import com.taskboard.model.Board;
+import com.taskboard.model.Column;
+import com.taskboard.model.ColumnType;
+
+/**
+ * Teste de concorrência da reordenação de colunas: N threads movem colunas
+ * pendentes sorteadas do mesmo board para posições sorteadas (metade das vezes
+ * para a primeira posição, o que esgota os intervalos e força
+ * rebalanceamentos). Ao final confere que nenhuma movimentação falhou, que o
+ * board tem as mesmas colunas, com ordens distintas e crescentes, e que as
+ * pendentes continuam entre a inicial e a final. Sai com código 1 se alguma
+ * verificação falhar.
+ *
+ * Uso: ColumnReorderContention [threads] [segundos] [colunas pendentes]
+ */
+public class ColumnReorderContention {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int pendingCount = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        BenchmarkDatabase.configure(Math.min(threads, 32));
+        ColumnDAO columnDAO = new ColumnDAO();
+        Board board = new Board();
+        board.setName("reorder-" + System.nanoTime());
+        new BoardDAO().create(board);
+        List<Integer> expectedIds = new ArrayList<>();
+        expectedIds.add(newColumn(columnDAO, board, "Backlog", ColumnType.INICIAL));
+        List<Integer> pendingIds = new ArrayList<>();
+        for (int i = 0; i < pendingCount; i++) {
+            pendingIds.add(newColumn(columnDAO, board, "Etapa " + i, ColumnType.PENDENTE));
+        }
+        expectedIds.addAll(pendingIds);
+        expectedIds.add(newColumn(columnDAO, board, "Concluído", ColumnType.FINAL));
+        expectedIds.add(newColumn(columnDAO, board, "Cancelado", ColumnType.CANCELAMENTO));
+
+        LongAdder moves = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        LatencyHistogram latency = new LatencyHistogram();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        System.out.println("Contenção: " + threads + " threads reordenando " + pendingCount
+                + " colunas pendentes do board " + board.getId() + " por " + seconds + " s.");
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int columnId = pendingIds.get(random.nextInt(pendingCount));
+                    int position = random.nextBoolean() ? 0 : random.nextInt(pendingCount);
+                    long begin = System.nanoTime();
+                    try {
+                        columnDAO.moveColumn(board.getId(), columnId, position);
+                        moves.increment();
+                    } catch (DBException e) {
+                        errors.increment();
+                        firstError.compareAndSet(null, e.getMessage());
+                    }
+                    latency.record(System.nanoTime() - begin);
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        List<Column> columns = columnDAO.findByBoardId(board.getId());
+        System.out.printf("Movimentações: %d (%.0f/s), erros: %d%n", moves.sum(), moves.sum() / elapsed, errors.sum());
+        if (firstError.get() != null) {
+            System.out.println("Primeiro erro: " + firstError.get());
+        }
+        System.out.println("Latência por movimentação: " + latency.summary());
+        StringBuilder order = new StringBuilder();
+        for (Column column : columns) {
+            order.append(order.length() == 0 ? "" : ", ").append(column.getName()).append('=').append(column.getColumnOrder());
+        }
+        System.out.println("Ordem final: " + order);
+
+        boolean ok = true;
+        ok &= check("nenhuma movimentação falhou", errors.sum(), 0);
+        ok &= check("mesmo número de colunas", columns.size(), expectedIds.size());
+        Set<Integer> ids = new HashSet<>();
+        long increasing = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            ids.add(columns.get(i).getId());
+            if (i > 0 && columns.get(i).getColumnOrder() > columns.get(i - 1).getColumnOrder()) {
+                increasing++;
+            }
+        }
+        ok &= check("mesmas colunas", ids.equals(new HashSet<>(expectedIds)) ? 1 : 0, 1);
+        ok &= check("ordens distintas e crescentes", increasing, columns.size() - 1);
+        ok &= check("pendentes entre a inicial e a final", typesInPlace(columns) ? 1 : 0, 1);
+        DB.closeConnection();
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean typesInPlace(List<Column> columns) {
+        int last = columns.size() - 1;
+        for (int i = 0; i <= last; i++) {
+            ColumnType expected = i == 0 ? ColumnType.INICIAL
+                    : i == last - 1 ? ColumnType.FINAL
+                    : i == last ? ColumnType.CANCELAMENTO
+                    : ColumnType.PENDENTE;
+            if (columns.get(i).getType() != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int newColumn(ColumnDAO columnDAO, Board board, String name, ColumnType type) {
+        Column column = new Column();
+        column.setName(name);
+        column.setBoardId(board.getId());
+        column.setType(type);
+        columnDAO.create(column);
+        return column.getId();
+    }
+
+    private static boolean check(String description, long actual, long expected) {
+        boolean ok = actual == expected;
+        System.out.println((ok ? "OK    " : "FALHA ") + description + " (esperado " + expected + ", obtido " + actual + ")");
+        return ok;
+    }
+}
@@ -0,0 +1,106 @@
+package com.taskboard.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.taskboard.benchmarks.BenchmarkDatabase.SeededBoard;
+import com.taskboard.cache.BoardCache;
+import com.taskboard.dao.CardDAO;
+import com.taskboard.dao.ColumnDAO;
+import com.taskboard.db.DB;
+import com.taskboard.model.BoardColumns;
+import com.taskboard.model.Card;
+import com.taskboard.model.CardPage;
+import com.taskboard.model.MoveResult;
+
+/**
+ * Caminhos quentes dos DAOs contra um board com {@code cardCount} cards.
+ * Throughput dá ops/ms; SampleTime dá a distribuição de latência (p99 etc.).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class DAOBenchmark {
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int cardCount;
+
+    private final CardDAO cardDAO = new CardDAO();
+    private final ColumnDAO columnDAO = new ColumnDAO();
+    private SeededBoard seeded;
+    private List<Card> movableCards;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure(4);
+        seeded = BenchmarkDatabase.seedBoard(cardCount);
+        movableCards = new ArrayList<>();
+        for (int cardId : seeded.doingCardIds) {
+            movableCards.add(cardDAO.findById(cardId));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DB.closeConnection();
+    }
+
+    @Benchmark
+    public Card cardCreate() {
+        Card card = new Card();
+        card.setTitle("Novo card");
+        card.setDescription("Criado pelo benchmark.");
+        card.setColumnId(seeded.initial.getId());
+        cardDAO.create(card);
+        return card;
+    }
+
+    // Alterna cards entre "Fazendo" e "Revisão", fechando e abrindo intervalos de histórico.
+    @Benchmark
+    public MoveResult cardUpdateColumn() {
+        Card card = movableCards.get(next++ % movableCards.size());
+        int target = card.getColumnId() == seeded.review.getId() ? seeded.doing.getId() : seeded.review.getId();
+        return cardDAO.updateColumn(card, target);
+    }
+
+    @Benchmark
+    public List<Card> cardFindByColumnId() {
+        return cardDAO.findByColumnId(seeded.initial.getId());
+    }
+
+    @Benchmark
+    public CardPage cardFindFirstPage() {
+        return cardDAO.findPageByColumnId(seeded.initial.getId(), null, 20);
+    }
+
+    @Benchmark
+    public BoardColumns columnFindByBoardId() {
+        return columnDAO.findBoardColumns(seeded.board.getId());
+    }
+
+    // Mesmo caminho sem o BoardCache: mede a consulta ao banco.
+    @Benchmark
+    public BoardColumns columnFindByBoardIdUncached() {
+        BoardCache.getInstance().invalidate(seeded.board.getId());
+        return columnDAO.findBoardColumns(seeded.board.getId());
+    }
+}
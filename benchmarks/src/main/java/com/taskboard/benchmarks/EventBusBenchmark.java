@@ -0,0 +1,64 @@
+package com.taskboard.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.taskboard.events.CardMoved;
+import com.taskboard.events.EventBus;
+import com.taskboard.events.Subscription;
+
+/**
+ * Custo de publicar um evento com várias threads publicando ao mesmo tempo
+ * (como os DAOs depois do commit), sem banco. Os inscritos só contam os eventos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Threads(4)
+@Fork(1)
+public class EventBusBenchmark {
+
+    @Param({ "0", "1", "4" })
+    public int subscribers;
+
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < subscribers; i++) {
+            subscriptions.add(EventBus.getInstance().subscribe("bench-" + i, 65536, event -> { }));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Subscription subscription : subscriptions) {
+            System.out.println(subscription);
+            subscription.close();
+        }
+        subscriptions.clear();
+    }
+
+    @Benchmark
+    public void publish() {
+        EventBus.getInstance().publish(new CardMoved(1, 2, 3, 4));
+    }
+}
@@ -0,0 +1,125 @@
+package com.taskboard.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.taskboard.benchmarks.BenchmarkDatabase.SeededBoard;
+import com.taskboard.dao.CardDAO;
+import com.taskboard.db.DB;
+import com.taskboard.metrics.LatencyHistogram;
+import com.taskboard.model.Card;
+import com.taskboard.model.MoveResult;
+
+/**
+ * Latência de {@code CardDAO.updateColumn} conforme card_movement_history
+ * cresce. Para cada tamanho pedido, o histórico é completado com intervalos já
+ * fechados distribuídos entre os cards do board (cada card medido também
+ * acumula milhares de linhas próprias) e são feitas N movimentações de uma
+ * thread, em duas rodadas: fechando o intervalo pelo ponteiro
+ * cards.open_movement_id e, para comparação, com o ponteiro apagado antes de
+ * cada movimentação, o que força a busca pelo intervalo aberto do card.
+ *
+ * Uso: MoveLatencyVsHistory [tamanhos separados por vírgula] [movimentações] [cards]
+ */
+public class MoveLatencyVsHistory {
+
+    private static final int INSERT_BATCH = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        String[] sizes = (args.length > 0 ? args[0] : "1000,100000,1000000,10000000").split(",");
+        int moves = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int cards = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        BenchmarkDatabase.configure(2);
+        SeededBoard seeded = BenchmarkDatabase.seedBoard(cards * 3);
+        CardDAO cardDAO = new CardDAO();
+        List<Card> measured = cardDAO.findByIds(seeded.doingCardIds);
+
+        System.out.printf("%12s  %-13s  %s%n", "histórico", "fechamento", "latência de updateColumn");
+        for (String size : sizes) {
+            long target = Long.parseLong(size.trim().replace("_", ""));
+            long rows = count();
+            if (rows < target) {
+                long begin = System.nanoTime();
+                grow(seeded, target - rows);
+                System.out.printf("(histórico completado até %,d linhas em %.1f s)%n", target,
+                        (System.nanoTime() - begin) / 1_000_000_000.0);
+            }
+            rows = count();
+            System.out.printf("%,12d  %-13s  %s%n", rows, "ponteiro", run(cardDAO, measured, seeded, moves, false).summary());
+            System.out.printf("%,12d  %-13s  %s%n", rows, "busca do card", run(cardDAO, measured, seeded, moves, true).summary());
+        }
+        DB.closeConnection();
+    }
+
+    private static LatencyHistogram run(CardDAO cardDAO, List<Card> measured, SeededBoard seeded, int moves,
+            boolean clearPointer) throws SQLException {
+        LatencyHistogram latency = new LatencyHistogram();
+        for (int i = 0; i < moves; i++) {
+            Card card = measured.get(i % measured.size());
+            if (clearPointer) {
+                clearPointer(card.getId());
+            }
+            int columnId = card.getColumnId() == seeded.doing.getId() ? seeded.review.getId() : seeded.doing.getId();
+            long begin = System.nanoTime();
+            MoveResult result = cardDAO.updateColumn(card, columnId);
+            latency.record(System.nanoTime() - begin);
+            if (result != MoveResult.MOVED) {
+                throw new IllegalStateException("Movimentação do card " + card.getId() + " não aplicada: " + result);
+            }
+        }
+        return latency;
+    }
+
+    // Intervalos fechados em 2020, alternando entre as colunas pendentes, distribuídos entre os cards do board.
+    private static void grow(SeededBoard seeded, long rows) throws SQLException {
+        List<Integer> cardIds = new ArrayList<>(seeded.doingCardIds);
+        int[] columns = { seeded.doing.getId(), seeded.review.getId() };
+        long base = Timestamp.valueOf("2020-01-01 00:00:00").getTime();
+        Connection conn = DB.getConnection();
+        try (PreparedStatement st = conn.prepareStatement("INSERT INTO card_movement_history "
+                + "(card_id, column_id, entry_time, exit_time) VALUES (?, ?, ?, ?)")) {
+            conn.setAutoCommit(false);
+            for (long i = 0; i < rows; i++) {
+                long entry = base + (i % 10_000_000L) * 1000L;
+                st.setInt(1, cardIds.get((int) (i % cardIds.size())));
+                st.setInt(2, columns[(int) (i / cardIds.size() % 2)]);
+                st.setTimestamp(3, new Timestamp(entry));
+                st.setTimestamp(4, new Timestamp(entry + 500L));
+                st.addBatch();
+                if ((i + 1) % INSERT_BATCH == 0 || i == rows - 1) {
+                    st.executeBatch();
+                    conn.commit();
+                }
+            }
+        } finally {
+            DB.closeConnection(conn);
+        }
+    }
+
+    private static void clearPointer(int cardId) throws SQLException {
+        Connection conn = DB.getConnection();
+        try (PreparedStatement st = conn.prepareStatement("UPDATE cards SET open_movement_id = NULL WHERE id = ?")) {
+            st.setInt(1, cardId);
+            st.executeUpdate();
+        } finally {
+            DB.closeConnection(conn);
+        }
+    }
+
+    private static long count() throws SQLException {
+        Connection conn = DB.getConnection();
+        try (PreparedStatement st = conn.prepareStatement("SELECT COUNT(*) FROM card_movement_history");
+                ResultSet rs = st.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            DB.closeConnection(conn);
+        }
+    }
+}
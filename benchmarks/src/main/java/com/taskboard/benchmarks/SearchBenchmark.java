@@ -0,0 +1,128 @@
+package com.taskboard.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.taskboard.dao.CardDAO;
+import com.taskboard.model.Card;
+import com.taskboard.model.SearchHit;
+import com.taskboard.search.CardSearch;
+
+/**
+ * Latência da busca textual ({@code search.engine=memory}) com o índice já
+ * montado. Os textos dos cards sorteiam palavras de um vocabulário com
+ * distribuição de Zipf, então há termos presentes em quase todos os cards e
+ * termos raros, como em boards reais.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class SearchBenchmark {
+
+    private static final String[] COMMON = { "erro", "login", "pagamento", "relatorio", "revisao", "cliente",
+            "tela", "cadastro", "integracao", "deploy" };
+    private static final int VOCABULARY = 5000;
+
+    @Param({ "100000", "1000000" })
+    public int cardCount;
+
+    private BenchmarkDatabase.SeededBoard seeded;
+    private CardSearch search;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure(4);
+        seeded = BenchmarkDatabase.seedBoard(0);
+        int[] columns = { seeded.initial.getId(), seeded.doing.getId(), seeded.review.getId() };
+        SplittableRandom random = new SplittableRandom(42);
+        double[] cumulative = zipf(VOCABULARY);
+
+        CardDAO cardDAO = new CardDAO();
+        List<Card> batch = new ArrayList<>(1000);
+        for (int i = 0; i < cardCount; i++) {
+            Card card = new Card();
+            card.setTitle(text(random, cumulative, 4));
+            card.setDescription(text(random, cumulative, 20));
+            card.setColumnId(columns[i % columns.length]);
+            batch.add(card);
+            if (batch.size() == 1000 || i == cardCount - 1) {
+                cardDAO.createAll(batch);
+                batch.clear();
+            }
+        }
+        search = CardSearch.getInstance();
+        long start = System.nanoTime();
+        search.rebuild();
+        System.out.println("Índice montado em " + (System.nanoTime() - start) / 1_000_000 + " ms: " + search);
+    }
+
+    @Benchmark
+    public List<SearchHit> commonTerm() {
+        return search.search("erro", null, null, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> commonTerms() {
+        return search.search("erro login", null, null, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> commonTermsInBoard() {
+        return search.search("erro login", seeded.board.getId(), null, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> commonTermsInColumn() {
+        return search.search("erro login", seeded.board.getId(), seeded.doing.getId(), 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> rareTerm() {
+        return search.search("termo2500", null, null, 20);
+    }
+
+    private static double[] zipf(int size) {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static String text(SplittableRandom random, double[] cumulative, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            rank = rank >= 0 ? rank : Math.min(-rank - 1, cumulative.length - 1);
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(rank < COMMON.length ? COMMON[rank] : "termo" + rank);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.taskboard.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.taskboard.benchmarks.BenchmarkDatabase.SeededBoard;
+import com.taskboard.dao.CardDAO;
+import com.taskboard.dao.ColumnDAO;
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+import com.taskboard.metrics.LatencyHistogram;
+import com.taskboard.model.Card;
+import com.taskboard.model.MoveResult;
+
+/**
+ * Teste de concorrência do limite WIP: a coluna "Revisão" recebe um limite
+ * com poucas vagas livres e N threads tentam, ao mesmo tempo, mover para ela
+ * cards diferentes de "Fazendo". Ao final confere que exatamente as vagas
+ * livres foram ocupadas, que as demais tentativas voltaram como
+ * WIP_LIMIT_REACHED, que uma movimentação em lote em seguida só ocupa as vagas
+ * que sobraram e que card_count continua igual à contagem real das duas colunas.
+ * Nenhuma tentativa pode terminar em DBException: contra o MySQL
+ * (-Dbench.dburl), um deadlock nos locks da chave estrangeira de columns
+ * aparece aqui. Sai com código 1 se alguma verificação falhar.
+ *
+ * Uso: WipLimitContention [threads] [vagas livres]
+ */
+public class WipLimitContention {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int room = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        BenchmarkDatabase.configure(Math.min(threads, 32));
+        SeededBoard seeded = BenchmarkDatabase.seedBoard(threads * 6);
+        CardDAO cardDAO = new CardDAO();
+        int reviewId = seeded.review.getId();
+        int limit = (int) count("SELECT COUNT(*) FROM cards WHERE column_id = ?", reviewId) + room;
+        new ColumnDAO().setWipLimit(seeded.board.getId(), reviewId, limit);
+        List<Card> candidates = cardDAO.findByIds(seeded.doingCardIds);
+
+        LongAdder moved = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LatencyHistogram latency = new LatencyHistogram();
+        CountDownLatch start = new CountDownLatch(1);
+
+        System.out.println("Limite WIP: " + threads + " threads disputando " + room + " vagas (limite " + limit + ").");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            Card card = candidates.get(t % candidates.size());
+            pool.submit(() -> {
+                start.await();
+                long begin = System.nanoTime();
+                MoveResult result;
+                try {
+                    result = cardDAO.updateColumn(card, reviewId);
+                } catch (DBException e) {
+                    System.out.println("ERRO: " + e.getMessage());
+                    errors.increment();
+                    return null;
+                }
+                latency.record(System.nanoTime() - begin);
+                if (result == MoveResult.MOVED) {
+                    moved.increment();
+                } else if (result == MoveResult.WIP_LIMIT_REACHED) {
+                    rejected.increment();
+                } else {
+                    conflicts.increment();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(60, TimeUnit.SECONDS);
+
+        int bulkMoved = cardDAO.moveColumnCards(seeded.doing.getId(), reviewId);
+
+        System.out.printf("Movimentações aceitas: %d, recusadas pelo limite: %d, conflitos: %d, erros: %d%n",
+                moved.sum(), rejected.sum(), conflicts.sum(), errors.sum());
+        System.out.println("Latência por tentativa: " + latency.summary());
+
+        long expected = Math.min(room, threads - conflicts.sum());
+        boolean ok = true;
+        ok &= check("nenhuma tentativa terminou em erro", errors.sum(), 0);
+        ok &= check("vagas livres ocupadas", moved.sum(), expected);
+        ok &= check("demais tentativas recusadas pelo limite", rejected.sum(), threads - conflicts.sum() - expected);
+        ok &= check("lote limitado às vagas que sobraram", bulkMoved, Math.max(0, room - moved.sum()));
+        ok &= check("card_count da coluna limitada", count("SELECT card_count FROM columns WHERE id = ?", reviewId),
+                count("SELECT COUNT(*) FROM cards WHERE column_id = ?", reviewId));
+        ok &= check("card_count da coluna de origem", count("SELECT card_count FROM columns WHERE id = ?", seeded.doing.getId()),
+                count("SELECT COUNT(*) FROM cards WHERE column_id = ?", seeded.doing.getId()));
+        long stored = count("SELECT card_count FROM columns WHERE id = ?", reviewId);
+        ok &= check("coluna dentro do limite", stored, Math.min(stored, limit));
+        DB.closeConnection();
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean check(String description, long actual, long expected) {
+        boolean ok = actual == expected;
+        System.out.println((ok ? "OK    " : "FALHA ") + description + " (esperado " + expected + ", obtido " + actual + ")");
+        return ok;
+    }
+
+    private static long count(String sql, int columnId) throws SQLException {
+        Connection conn = DB.getConnection();
+        try (PreparedStatement st = conn.prepareStatement(sql)) {
+            st.setInt(1, columnId);
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        } finally {
+            DB.closeConnection(conn);
+        }
+    }
+}
@@ -1,27 +1,49 @@
 package com.taskboard;
 
-import java.sql.Connection;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 import com.taskboard.dao.BoardDAO;
-import com.taskboard.dao.CardDAO;
+import com.taskboard.dao.BoardPurger;
+import com.taskboard.dao.CardRepository;
 import com.taskboard.dao.ColumnDAO;
+import com.taskboard.dao.HistoryArchiver;
+import com.taskboard.dao.ReportDAO;
 import com.taskboard.db.DB;
 import com.taskboard.db.DBException;
+import com.taskboard.events.BoardProjection;
+import com.taskboard.importer.CardImporter;
+import com.taskboard.model.BlockReport;
 import com.taskboard.model.Board;
+import com.taskboard.model.BoardCardCounts;
+import com.taskboard.model.BoardColumns;
+import com.taskboard.model.BoardSnapshot;
 import com.taskboard.model.Card;
+import com.taskboard.model.CardPage;
 import com.taskboard.model.Column;
 import com.taskboard.model.ColumnType;
+import com.taskboard.model.CreateResult;
+import com.taskboard.model.FlowReport;
+import com.taskboard.model.MoveResult;
+import com.taskboard.model.SearchHit;
+import com.taskboard.model.TimeReport;
+import com.taskboard.search.CardSearch;
 
 public class Main {
 
     public static void main(String[] args) {
         Scanner sc = new Scanner(System.in);
-        Connection conn = DB.getConnection();
-        BoardDAO boardDAO = new BoardDAO(conn);
-        CardDAO cardDAO = new CardDAO(conn);
-        ColumnDAO columnDAO = new ColumnDAO(conn);
+        BoardDAO boardDAO = new BoardDAO();
+        CardRepository cardDAO = CardRepository.getInstance();
+        ColumnDAO columnDAO = new ColumnDAO();
+        BoardPurger.start();
+        HistoryArchiver.start();
 
         int choice;
         do {
@@ -34,20 +56,38 @@ public class Main {
                     createNewBoard(sc, boardDAO, columnDAO);
                     break;
                 case 2:
-                    selectBoard(sc, boardDAO, columnDAO, cardDAO);
+                    selectBoard(sc, boardDAO, cardDAO);
                     break;
                 case 3:
                     deleteBoard(sc, boardDAO);
                     break;
                 case 4:
+                    System.out.println(DB.getMetricsReport());
+                    System.out.println(DB.getPoolStats());
+                    System.out.println(BoardPurger.getStatus());
+                    System.out.println(HistoryArchiver.getStatus());
+                    break;
+                case 5:
+                    searchCards(sc);
+                    break;
+                case 6:
+                    rebuildSearchIndex();
+                    break;
+                case 7:
+                    repairCardCounts(boardDAO, columnDAO);
+                    break;
+                case 8:
                     System.out.println("Obrigado por usar o Task Board!");
                     break;
                 default:
                     System.out.println("Opção inválida! Tente novamente.");
             }
-        } while (choice != 4);
+        } while (choice != 8);
 
         sc.close();
+        BoardPurger.stop();
+        HistoryArchiver.stop();
+        cardDAO.flush();
         DB.closeConnection();
     }
 
@@ -56,7 +96,11 @@ public class Main {
         System.out.println("1 - Criar novo board");
         System.out.println("2 - Selecionar board");
         System.out.println("3 - Excluir board");
-        System.out.println("4 - Sair");
+        System.out.println("4 - Ver métricas do banco de dados");
+        System.out.println("5 - Buscar cards");
+        System.out.println("6 - Reconstruir índice de busca");
+        System.out.println("7 - Recalcular contadores de cards");
+        System.out.println("8 - Sair");
         System.out.print("Escolha uma opção: ");
     }
 
@@ -85,7 +129,7 @@ public class Main {
         }
     }
 
-    private static void selectBoard(Scanner sc, BoardDAO boardDAO, ColumnDAO columnDAO, CardDAO cardDAO) {
+    private static void selectBoard(Scanner sc, BoardDAO boardDAO, CardRepository cardDAO) {
         List<Board> boards = boardDAO.findAll();
         if (boards.isEmpty()) {
             System.out.println("Nenhum board para selecionar. Crie um primeiro.");
@@ -101,29 +145,52 @@ public class Main {
         Board selectedBoard = boards.stream().filter(b -> b.getId() == boardId).findFirst().orElse(null);
 
         if (selectedBoard != null) {
-            showBoardMenu(sc, selectedBoard, columnDAO, cardDAO);
+            showBoardMenu(sc, selectedBoard, cardDAO);
         } else {
             System.out.println("ERRO: ID do board inválido");
         }
     }
 
-    private static void showBoardMenu (Scanner sc, Board selectedBoard, ColumnDAO columnDAO, CardDAO cardDAO) {
+    // A tela é montada a partir de uma BoardProjection: depois da primeira carga, as alterações
+    // (deste usuário ou de outros no mesmo processo, como a API) chegam por eventos.
+    private static void showBoardMenu (Scanner sc, Board selectedBoard, CardRepository cardDAO) {
+        try (BoardProjection projection = BoardProjection.open(selectedBoard)) {
+            showBoardMenu(sc, selectedBoard, projection, cardDAO);
+        }
+    }
+
+    private static void showBoardMenu (Scanner sc, Board selectedBoard, BoardProjection projection, CardRepository cardDAO) {
         int choice;
+        long seenEvents = projection.getAppliedEventCount();
         do {
             System.out.println("\n===================");
             System.out.println("      BOARD: "  + selectedBoard.getName());
             System.out.println("====================");
 
-            List<Column> columns = columnDAO.findByBoardId(selectedBoard.getId());
-            for (Column column : columns) {
-                System.out.println("\n--- Coluna: " + column.getName() + "(ID: " + column.getId() + ") ---");
-                List<Card> cards = cardDAO.findByColumnId(column.getId());
-                if (cards.isEmpty()){
+            BoardSnapshot snapshot = projection.snapshot();
+            long appliedEvents = projection.getAppliedEventCount();
+            if (appliedEvents > seenEvents) {
+                System.out.println("(" + (appliedEvents - seenEvents) + " alterações recebidas desde a última exibição)");
+            }
+            seenEvents = appliedEvents;
+            // Os cabeçalhos vêm dos contadores das colunas; só as páginas de cards vêm da projeção.
+            BoardCardCounts counts = cardDAO.loadCardCounts(selectedBoard.getId());
+            System.out.println(counts.getTotal() + " cards: " + counts.getTotal(ColumnType.INICIAL) + " a fazer, "
+                    + counts.getTotal(ColumnType.PENDENTE) + " em andamento, " + counts.getTotal(ColumnType.FINAL) + " concluídos, "
+                    + counts.getTotal(ColumnType.CANCELAMENTO) + " cancelados (" + counts.getBlocked() + " bloqueados)");
+            for (Column column : snapshot.getColumns()) {
+                int total = counts.getTotal(column.getId());
+                int blocked = counts.getBlocked(column.getId());
+                String limit = column.getWipLimit() != null ? "/" + column.getWipLimit() : "";
+                System.out.println("\n--- Coluna: " + column.getName() + "(ID: " + column.getId() + ") - " + total + limit + " cards"
+                        + (blocked > 0 ? ", " + blocked + " bloqueados" : "") + " ---");
+                List<Card> cards = snapshot.getCards(column.getId());
+                if (total == 0 && cards.isEmpty()) {
                     System.out.println("Nenhum card com ID: " + column.getId());
                 } else {
-                    for (Card card : cards) {
-                        String blockedStatus = card.getIsBlocked() ? "[X]" : "[ ]";
-                        System.out.printf("%s Card ID: %d - %s\n", blockedStatus, card.getId(), card.getTitle());
+                    printCards(cards);
+                    if (total > cards.size()) {
+                        System.out.println("... e mais " + (total - cards.size()) + " cards (use a opção 9 para listar todos).");
                     }
                 }
             }
@@ -134,7 +201,13 @@ public class Main {
             System.out.println("3 - Cancelar card");
             System.out.println("4 - Bloquear card");
             System.out.println("5 - Desbloquear card");
-            System.out.println("6 - Voltar ao menu principal");
+            System.out.println("6 - Importar cards (CSV/JSONL)");
+            System.out.println("7 - Mover/cancelar cards em lote");
+            System.out.println("8 - Bloquear/desbloquear cards em lote");
+            System.out.println("9 - Listar todos os cards de uma coluna");
+            System.out.println("10 - Relatórios");
+            System.out.println("11 - Definir limite WIP de uma coluna");
+            System.out.println("12 - Voltar ao menu principal");
             System.out.println("Escolha uma opção ---");
 
             choice = sc.nextInt();
@@ -142,13 +215,13 @@ public class Main {
 
             switch (choice) {
                 case 1:
-                    createNewCard(sc, selectedBoard.getId(), cardDAO, columns);
+                    createNewCard(sc, cardDAO, snapshot.getBoardColumns());
                     break;
                 case 2:
-                    moveCard(sc, cardDAO, columns);
+                    moveCard(sc, cardDAO, snapshot);
                     break;
                 case 3:
-                    cancelCard(sc, cardDAO, columns);
+                    cancelCard(sc, cardDAO, snapshot);
                     break;
                 case 4:
                     blockCard(sc, cardDAO);
@@ -157,12 +230,243 @@ public class Main {
                     unblockCard(sc, cardDAO);
                     break;
                 case 6:
+                    importCards(sc, cardDAO, snapshot.getBoardColumns());
+                    break;
+                case 7:
+                    bulkMoveCards(sc, cardDAO, snapshot);
+                    break;
+                case 8:
+                    bulkBlockCards(sc, cardDAO, snapshot);
+                    break;
+                case 9:
+                    listColumnCards(sc, cardDAO, snapshot.getBoardColumns());
+                    break;
+                case 10:
+                    showReportsMenu(sc, selectedBoard);
+                    break;
+                case 11:
+                    setWipLimit(sc, selectedBoard.getId(), snapshot.getBoardColumns());
+                    break;
+                case 12:
                     System.out.println("Fechando o board e voltando ao menu principal...");
                     break;
                 default:
                     System.out.println("Opção inválida.");
             }
-        } while (choice != 6);
+        } while (choice != 12);
+    }
+
+    private static void printCards(List<Card> cards) {
+        for (Card card : cards) {
+            String blockedStatus = card.getIsBlocked() ? "[X]" : "[ ]";
+            System.out.printf("%s Card ID: %d - %s\n", blockedStatus, card.getId(), card.getTitle());
+        }
+    }
+
+    private static void listColumnCards(Scanner sc, CardRepository cardDAO, BoardColumns columns) {
+        System.out.print("Digite o ID da coluna: ");
+        int columnId = sc.nextInt();
+        sc.nextLine();
+        Column column = columns.findById(columnId);
+        if (column == null) {
+            System.out.println("ERRO: Coluna não encontrada neste board.");
+            return;
+        }
+
+        int pageSize = Math.max(1, DB.getIntProperty("board.pageSize", 20));
+        Card after = null;
+        int pageNumber = 1;
+        while (true) {
+            CardPage page = cardDAO.findPageByColumnId(column.getId(), after, pageSize);
+            System.out.println("\n--- " + column.getName() + " - página " + pageNumber + " ---");
+            if (page.getCards().isEmpty()) {
+                System.out.println("Nenhum card nesta página.");
+            }
+            printCards(page.getCards());
+            if (!page.hasMore()) {
+                return;
+            }
+            System.out.print("Enter para a próxima página, 'q' para sair: ");
+            if (sc.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            after = page.getLastCard();
+            pageNumber++;
+        }
+    }
+
+    private static void showReportsMenu(Scanner sc, Board board) {
+        System.out.println("\n--- Relatórios ---");
+        System.out.println("1 - Relatório de tempo");
+        System.out.println("2 - Relatório de bloqueios");
+        System.out.println("3 - Relatório de fluxo");
+        System.out.print("Escolha uma opção: ");
+        int option = sc.nextInt();
+        sc.nextLine();
+
+        try {
+            switch (option) {
+                case 1:
+                    printTimeReport(new ReportDAO().timeReport(board.getId(), 10));
+                    break;
+                case 2:
+                    System.out.print("Considerar os últimos quantos dias? (0 = todo o período): ");
+                    int days = sc.nextInt();
+                    sc.nextLine();
+                    // Janela alinhada ao minuto para que consultas repetidas aproveitem o cache.
+                    LocalDateTime to = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+                    LocalDateTime from = days > 0 ? to.minusDays(days) : LocalDateTime.of(1970, 1, 2, 0, 0);
+                    printBlockReport(new ReportDAO().blockReport(board.getId(), from, to, 10, true));
+                    break;
+                case 3: {
+                    System.out.print("Considerar os últimos quantos dias? ");
+                    int flowDays = sc.nextInt();
+                    sc.nextLine();
+                    LocalDateTime flowTo = LocalDateTime.now();
+                    printFlowReport(new ReportDAO().flowReport(board.getId(), flowTo.minusDays(Math.max(1, flowDays)), flowTo));
+                    break;
+                }
+                default:
+                    System.out.println("Opção inválida.");
+            }
+        } catch (DBException e) {
+            System.out.println("ERRO: " + e.getMessage());
+        }
+    }
+
+    private static void printTimeReport(TimeReport report) {
+        System.out.println("\n--- Tempo por Coluna ---");
+        for (TimeReport.ColumnTime ct : report.getColumnTimes()) {
+            System.out.printf("%-25s total: %-12s média por passagem: %-12s passagens: %d, cards atuais: %d\n",
+                    ct.getColumn().getName(), formatDuration(ct.getTotalSeconds()),
+                    formatDuration((long) ct.getAverageSeconds()), ct.getVisits(), ct.getCurrentCards());
+        }
+
+        System.out.println("\n--- Cards Concluídos ---");
+        System.out.println("Concluídos: " + report.getCompletedCount());
+        if (report.getCompletedCount() == 0) {
+            return;
+        }
+        System.out.println("Lead time médio: " + formatDuration((long) report.getAverageLeadSeconds()));
+        System.out.println("Cycle time médio: " + formatDuration((long) report.getAverageCycleSeconds()));
+        System.out.println("\nCards mais demorados:");
+        for (TimeReport.CardTime card : report.getCompletedCards()) {
+            System.out.printf("Card ID: %d - %s | lead: %s | cycle: %s\n", card.getCardId(), card.getTitle(),
+                    formatDuration(card.getLeadSeconds()), formatDuration(card.getCycleSeconds()));
+        }
+    }
+
+    private static void printFlowReport(FlowReport report) {
+        System.out.println("\n--- Fluxo de " + report.getFrom().truncatedTo(ChronoUnit.MINUTES)
+                + " a " + report.getTo().truncatedTo(ChronoUnit.MINUTES) + " ---");
+        for (FlowReport.ColumnFlow flow : report.getColumns()) {
+            System.out.printf("%-25s entradas: %-8d saídas: %-8d tempo no período: %s\n",
+                    flow.getColumn().getName(), flow.getEntries(), flow.getExits(), formatDuration(flow.getSeconds()));
+        }
+        if (report.isArchiveRead()) {
+            System.out.println("(inclui o histórico arquivado)");
+        }
+    }
+
+    private static void printBlockReport(BlockReport report) {
+        System.out.println("\n--- Relatório de Bloqueios ---");
+        System.out.println("Bloqueios no período: " + report.getBlockCount());
+        System.out.println("Tempo total bloqueado: " + formatDuration(report.getTotalBlockedSeconds()));
+        System.out.println("Bloqueios em aberto: " + report.getOpenBlocks());
+        if (report.getBlockCount() == 0) {
+            return;
+        }
+
+        System.out.println("\nCards mais tempo bloqueados:");
+        for (BlockReport.CardBlockTime card : report.getCards()) {
+            System.out.printf("%s Card ID: %d - %s (%s) | bloqueado por %s em %d bloqueio(s)\n",
+                    card.isCurrentlyBlocked() ? "[X]" : "[ ]", card.getCardId(), card.getTitle(), card.getColumnName(),
+                    formatDuration(card.getBlockedSeconds()), card.getBlocks());
+        }
+
+        System.out.println("\nMotivos mais comuns:");
+        for (BlockReport.ReasonCount reason : report.getTopReasons()) {
+            System.out.printf("%dx - %s\n", reason.getCount(), reason.getReason());
+        }
+    }
+
+    private static String formatDuration(long seconds) {
+        long days = seconds / 86400;
+        long hours = (seconds % 86400) / 3600;
+        long minutes = (seconds % 3600) / 60;
+        if (days > 0) {
+            return days + "d " + hours + "h";
+        }
+        if (hours > 0) {
+            return hours + "h " + minutes + "min";
+        }
+        return minutes + "min " + (seconds % 60) + "s";
+    }
+
+    private static void searchCards(Scanner sc) {
+        System.out.print("Digite as palavras da busca: ");
+        String query = sc.nextLine();
+        System.out.print("ID do board (Enter para todos): ");
+        Integer boardId = readOptionalId(sc);
+        System.out.print("ID da coluna (Enter para todas): ");
+        Integer columnId = readOptionalId(sc);
+
+        try {
+            long start = System.nanoTime();
+            List<SearchHit> hits = CardSearch.getInstance().search(query, boardId, columnId, DB.getIntProperty("board.pageSize", 20));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (hits.isEmpty()) {
+                System.out.println("Nenhum card encontrado.");
+                return;
+            }
+            System.out.println("\n--- Resultados (" + elapsedMillis + " ms) ---");
+            for (SearchHit hit : hits) {
+                Card card = hit.getCard();
+                System.out.printf("[%.2f] Card ID: %d (coluna %d) - %s\n", hit.getScore(), card.getId(), card.getColumnId(), card.getTitle());
+            }
+        } catch (DBException e) {
+            System.out.println("ERRO na busca: " + e.getMessage());
+        }
+    }
+
+    private static Integer readOptionalId(Scanner sc) {
+        String line = sc.nextLine().trim();
+        if (line.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(line);
+        } catch (NumberFormatException e) {
+            System.out.println("ID inválido; o filtro será ignorado.");
+            return null;
+        }
+    }
+
+    private static void rebuildSearchIndex() {
+        try {
+            long start = System.nanoTime();
+            CardSearch search = CardSearch.getInstance();
+            search.rebuild();
+            System.out.println("Índice de busca reconstruído em " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+            System.out.println(search);
+        } catch (DBException e) {
+            System.out.println("ERRO ao reconstruir o índice: " + e.getMessage());
+        }
+    }
+
+    private static void repairCardCounts(BoardDAO boardDAO, ColumnDAO columnDAO) {
+        try {
+            long start = System.nanoTime();
+            List<Board> boards = boardDAO.findAll();
+            int repaired = 0;
+            for (Board board : boards) {
+                repaired += columnDAO.repairCardCounts(board.getId());
+            }
+            System.out.println("Contadores de " + boards.size() + " boards conferidos em " + (System.nanoTime() - start) / 1_000_000
+                    + " ms; " + repaired + " colunas corrigidas.");
+        } catch (DBException e) {
+            System.out.println("ERRO ao recalcular os contadores: " + e.getMessage());
+        }
     }
 
     private static void deleteBoard(Scanner sc, BoardDAO boardDAO) {
@@ -179,7 +483,7 @@ public class Main {
         sc.nextLine();
         
         boardDAO.deleteById(boardId);
-        System.out.println("Board com ID " + boardId + " e seus dados foram excluídos (se existirem).");
+        System.out.println("Board com ID " + boardId + " excluído (se existir); seus dados serão removidos em segundo plano.");
     }
 
     private static void reorderColumns(Scanner sc, int boardId, ColumnDAO columnDAO) {
@@ -213,7 +517,7 @@ public class Main {
     pendentColumns.add(toIndex, columnToMove);
 
     try {
-        columnDAO.updateOrder(pendentColumns);
+        columnDAO.moveColumn(boardId, columnToMove.getId(), toIndex);
         System.out.println("Colunas reordenadas com sucesso!");
     } catch (DBException e) {
         System.out.println("ERRO: Não foi possível reordenar as colunas.");
@@ -226,6 +530,29 @@ public class Main {
     }
 }
 
+private static void setWipLimit(Scanner sc, int boardId, BoardColumns columns) {
+        System.out.println("\n--- Limite WIP ---");
+        System.out.print("Digite o ID da coluna: ");
+        int columnId = sc.nextInt();
+        sc.nextLine();
+        Column column = columns.findById(columnId);
+        if (column == null) {
+            System.out.println("ERRO: A coluna " + columnId + " não pertence a este board.");
+            return;
+        }
+        System.out.print("Digite o limite de cards (0 para remover o limite): ");
+        int limit = sc.nextInt();
+        sc.nextLine();
+
+        try {
+            new ColumnDAO().setWipLimit(boardId, columnId, limit > 0 ? limit : null);
+            System.out.println(limit > 0 ? "Coluna '" + column.getName() + "' limitada a " + limit + " cards."
+                    : "Limite WIP da coluna '" + column.getName() + "' removido.");
+        } catch (DBException e) {
+            System.out.println("ERRO: " + e.getMessage());
+        }
+}
+
 private static void createMandatoryColumns(Scanner sc, Board board, ColumnDAO columnDAO) {
         System.out.println("\n--- Configuração das Colunas Obrigatórias ---");
 
@@ -235,7 +562,6 @@ private static void createMandatoryColumns(Scanner sc, Board board, ColumnDAO co
             Column initialColumn = new Column();
             initialColumn.setName(initialColumnName);
             initialColumn.setBoardId(board.getId());
-            initialColumn.setColumnOrder(1);
             initialColumn.setType(ColumnType.INICIAL);
             columnDAO.create(initialColumn);
 
@@ -244,7 +570,6 @@ private static void createMandatoryColumns(Scanner sc, Board board, ColumnDAO co
             Column finalColumn = new Column();
             finalColumn.setName(finalColumnName);
             finalColumn.setBoardId(board.getId());
-            finalColumn.setColumnOrder(2);
             finalColumn.setType(ColumnType.FINAL);
             columnDAO.create(finalColumn);
 
@@ -253,7 +578,6 @@ private static void createMandatoryColumns(Scanner sc, Board board, ColumnDAO co
             Column canceledColumn = new Column();
             canceledColumn.setName(canceledColumnName);
             canceledColumn.setBoardId(board.getId());
-            canceledColumn.setColumnOrder(3);
             canceledColumn.setType(ColumnType.CANCELAMENTO);
             columnDAO.create(canceledColumn);
 
@@ -262,11 +586,8 @@ private static void createMandatoryColumns(Scanner sc, Board board, ColumnDAO co
             System.out.println("Ocorreu um erro ao criar as colunas obrigatórias: " + e.getMessage());
         }
 }
-private static void createNewCard(Scanner sc, int boardId, CardDAO cardDAO, List<Column> columns) {
-        Column initialColumn = columns.stream()
-                .filter(c -> c.getType() == ColumnType.INICIAL)
-                .findFirst()
-                .orElse(null);
+private static void createNewCard(Scanner sc, CardRepository cardDAO, BoardColumns columns) {
+        Column initialColumn = columns.findFirstByType(ColumnType.INICIAL);
 
         if (initialColumn == null) {
             System.out.println("ERRO: Não foi possível encontrar a coluna inicial desse board.");
@@ -284,16 +605,40 @@ private static void createNewCard(Scanner sc, int boardId, CardDAO cardDAO, List
         newCard.setDescription(description);
         newCard.setColumnId(initialColumn.getId());
 
-        cardDAO.create(newCard);
+        if (cardDAO.create(newCard) == CreateResult.WIP_LIMIT_REACHED) {
+            System.out.println("ERRO: A coluna '" + initialColumn.getName() + "' atingiu o limite WIP ("
+                    + initialColumn.getWipLimit() + " cards). Mova algum card antes de criar outro.");
+            return;
+        }
         System.out.println("Card '" + title + "'criado com sucesso!");
 }
-private static void moveCard(Scanner sc, CardDAO cardDAO, List<Column> columns) {
+private static void importCards(Scanner sc, CardRepository cardDAO, BoardColumns columns) {
+        Column initialColumn = columns.findFirstByType(ColumnType.INICIAL);
+        if (initialColumn == null) {
+            System.out.println("ERRO: Não foi possível encontrar a coluna inicial desse board.");
+            return;
+        }
+
+        System.out.println("\n--- Importar Cards ---");
+        System.out.print("Digite o caminho do arquivo (.csv ou .jsonl): ");
+        String path = sc.nextLine().trim();
+
+        try {
+            long start = System.currentTimeMillis();
+            int imported = new CardImporter(cardDAO).importFile(Paths.get(path), initialColumn.getId());
+            System.out.println(imported + " cards importados em " + (System.currentTimeMillis() - start) + " ms.");
+        } catch (DBException e) {
+            System.out.println("ERRO: " + e.getMessage());
+        }
+}
+
+private static void moveCard(Scanner sc, CardRepository cardDAO, BoardSnapshot snapshot) {
         System.out.println("\n--- Mover Card para próxima Coluna ---");
         System.out.print("Digite o ID do card que deseja mover: ");
         int cardId = sc.nextInt();
         sc.nextLine();
 
-        Card card = cardDAO.findById(cardId);
+        Card card = findBoardCard(cardId, snapshot, cardDAO);
         if (card == null) {
             System.out.println("ERRO: O card com ID " + cardId + "não foi encontrado.");
             return;
@@ -303,63 +648,186 @@ private static void moveCard(Scanner sc, CardDAO cardDAO, List<Column> columns)
             return;
         }
 
-        Column currentColumn = columns.stream()
-                .filter(c -> c.getId() == card.getColumnId())
-                .findFirst()
-                .get();
+        BoardColumns columns = snapshot.getBoardColumns();
+        Column currentColumn = columns.findById(card.getColumnId());
 
         if (currentColumn.getType() == ColumnType.FINAL || currentColumn.getType() == ColumnType.CANCELAMENTO) {
             System.out.println("ERRO: O card já está em uma coluna final e não pode ser movido.");
             return;
         }
 
-        int currentOrder = currentColumn.getColumnOrder();
-        Column nextColumn = columns.stream()
-                .filter(c -> c.getColumnOrder() > currentOrder && c.getType() != ColumnType.CANCELAMENTO)
-                .findFirst()
-                .orElse(null);
+        Column nextColumn = columns.findNext(currentColumn.getId());
 
         if(nextColumn == null) {
             System.out.println("ERRO: Não há uma próxima coluna para mover o card.");
             return;
         }
 
-        cardDAO.updateColumn(card.getId(), currentColumn.getId(), nextColumn.getId());
+        MoveResult result = cardDAO.updateColumn(card, nextColumn.getId());
+        if (result == MoveResult.CONFLICT) {
+            System.out.println("ERRO: O card foi alterado por outro usuário. Atualize o board e tente novamente.");
+            return;
+        }
+        if (result == MoveResult.WIP_LIMIT_REACHED) {
+            System.out.println("ERRO: A coluna '" + nextColumn.getName() + "' atingiu o limite WIP (" + nextColumn.getWipLimit() + " cards).");
+            return;
+        }
         System.out.println("Card ID " + cardId + " movido de '" + currentColumn.getName() + "' para '" + nextColumn.getName() + "'.");
 }
 
-private static void cancelCard(Scanner sc, CardDAO cardDAO, List<Column> columns) {
+private static void cancelCard(Scanner sc, CardRepository cardDAO, BoardSnapshot snapshot) {
         System.out.println("\n--- Cancelar Card ---");
         System.out.print("Digite o ID do card que deseja cancelar: ");
         int cardId = sc.nextInt();
         sc.nextLine();
 
-        Card card = cardDAO.findById(cardId);
+        Card card = findBoardCard(cardId, snapshot, cardDAO);
         if (card == null) {
             System.out.println("ERRO: Card não encontrado.");
             return;
         }
 
-        Column currentColumn = columns.stream()
-                .filter(c -> c.getId() == card.getColumnId())
-                .findFirst()
-                .get();
+        BoardColumns columns = snapshot.getBoardColumns();
+        Column currentColumn = columns.findById(card.getColumnId());
 
         if (currentColumn.getType() == ColumnType.CANCELAMENTO) {
             System.out.println("Erro: Este card já está cancelado.");
             return;
         }
 
-        Column cancelColumn = columns.stream()
-                .filter(c -> c.getType() == ColumnType.CANCELAMENTO)
-                .findFirst()
-                .get();
+        Column cancelColumn = columns.findFirstByType(ColumnType.CANCELAMENTO);
 
-        cardDAO.updateColumn(card.getId(), currentColumn.getId(), cancelColumn.getId());
+        if (cardDAO.updateColumn(card, cancelColumn.getId()) == MoveResult.CONFLICT) {
+            System.out.println("ERRO: O card foi alterado por outro usuário. Atualize o board e tente novamente.");
+            return;
+        }
         System.out.println("Card ID " + cardId + " movido para a coluna de cancelamento.");
 }
 
-private static void blockCard(Scanner sc, CardDAO cardDAO) {
+private static void bulkMoveCards(Scanner sc, CardRepository cardDAO, BoardSnapshot snapshot) {
+        System.out.println("\n--- Mover Cards em Lote ---");
+        System.out.println("1 - Todos os cards de uma coluna para a próxima coluna");
+        System.out.println("2 - Lista de cards para a próxima coluna");
+        System.out.println("3 - Lista de cards para a coluna de cancelamento");
+        System.out.print("Escolha uma opção: ");
+        int option = sc.nextInt();
+        sc.nextLine();
+
+        BoardColumns columns = snapshot.getBoardColumns();
+        int moved = 0;
+        try {
+            switch (option) {
+                case 1:
+                    System.out.print("Digite o ID da coluna de origem: ");
+                    int columnId = sc.nextInt();
+                    sc.nextLine();
+                    Column fromColumn = columns.findById(columnId);
+                    if (fromColumn == null || fromColumn.getType() == ColumnType.FINAL || fromColumn.getType() == ColumnType.CANCELAMENTO) {
+                        System.out.println("ERRO: Coluna inválida para mover cards.");
+                        return;
+                    }
+                    Column nextColumn = columns.findNext(fromColumn.getId());
+                    if (nextColumn == null) {
+                        System.out.println("ERRO: Não há uma próxima coluna para mover os cards.");
+                        return;
+                    }
+                    moved = cardDAO.moveColumnCards(fromColumn.getId(), nextColumn.getId());
+                    break;
+                case 2:
+                    Map<Integer, List<Integer>> byTarget = new LinkedHashMap<>();
+                    for (Card card : readBoardCards(sc, snapshot, cardDAO)) {
+                        Column current = columns.findById(card.getColumnId());
+                        Column next = columns.findNext(current.getId());
+                        if (current.getType() != ColumnType.FINAL && current.getType() != ColumnType.CANCELAMENTO && next != null) {
+                            byTarget.computeIfAbsent(next.getId(), k -> new ArrayList<>()).add(card.getId());
+                        }
+                    }
+                    for (Map.Entry<Integer, List<Integer>> entry : byTarget.entrySet()) {
+                        moved += cardDAO.moveCards(entry.getValue(), entry.getKey());
+                    }
+                    break;
+                case 3:
+                    Column cancelColumn = columns.findFirstByType(ColumnType.CANCELAMENTO);
+                    moved = cardDAO.moveCards(cardIds(readBoardCards(sc, snapshot, cardDAO)), cancelColumn.getId());
+                    break;
+                default:
+                    System.out.println("Opção inválida.");
+                    return;
+            }
+            System.out.println(moved + " cards movidos (cards bloqueados ou além do limite WIP da coluna de destino são ignorados).");
+        } catch (DBException e) {
+            System.out.println("ERRO: " + e.getMessage());
+        }
+}
+
+private static void bulkBlockCards(Scanner sc, CardRepository cardDAO, BoardSnapshot snapshot) {
+        System.out.println("\n--- Bloquear/Desbloquear Cards em Lote ---");
+        System.out.println("1 - Bloquear");
+        System.out.println("2 - Desbloquear");
+        System.out.print("Escolha uma opção: ");
+        int option = sc.nextInt();
+        sc.nextLine();
+        if (option != 1 && option != 2) {
+            System.out.println("Opção inválida.");
+            return;
+        }
+
+        List<Integer> cardIds = cardIds(readBoardCards(sc, snapshot, cardDAO));
+        System.out.print("Digite o motivo: ");
+        String reason = sc.nextLine();
+
+        try {
+            int updated = cardDAO.updateBlockStatus(cardIds, option == 1, reason);
+            System.out.println(updated + " cards " + (option == 1 ? "bloqueados." : "desbloqueados."));
+        } catch (DBException e) {
+            System.out.println("ERRO: " + e.getMessage());
+        }
+}
+
+// Lê uma lista de IDs separados por vírgula, mantendo apenas os cards deste board.
+private static List<Card> readBoardCards(Scanner sc, BoardSnapshot snapshot, CardRepository cardDAO) {
+        System.out.print("Digite os IDs dos cards separados por vírgula: ");
+        String line = sc.nextLine();
+        List<Card> cards = new ArrayList<>();
+        for (String part : line.split(",")) {
+            try {
+                int cardId = Integer.parseInt(part.trim());
+                Card card = findBoardCard(cardId, snapshot, cardDAO);
+                if (card != null) {
+                    cards.add(card);
+                } else {
+                    System.out.println("Card ID " + cardId + " não pertence a este board e será ignorado.");
+                }
+            } catch (NumberFormatException e) {
+                if (!part.isBlank()) {
+                    System.out.println("'" + part.trim() + "' não é um ID válido e será ignorado.");
+                }
+            }
+        }
+        return cards;
+}
+
+private static List<Integer> cardIds(List<Card> cards) {
+        List<Integer> ids = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            ids.add(card.getId());
+        }
+        return ids;
+}
+
+// O snapshot só tem a primeira página de cada coluna; fora dela o card é buscado no banco.
+private static Card findBoardCard(int cardId, BoardSnapshot snapshot, CardRepository cardDAO) {
+        Card card = snapshot.findCard(cardId);
+        if (card == null) {
+            card = cardDAO.findById(cardId);
+        }
+        if (card == null || snapshot.getBoardColumns().findById(card.getColumnId()) == null) {
+            return null;
+        }
+        return card;
+}
+
+private static void blockCard(Scanner sc, CardRepository cardDAO) {
         System.out.println("\n--- Bloquear Card ---");
         System.out.print("Digite o ID do card a ser bloqueado: ");
         int cardId = sc.nextInt();
@@ -367,6 +835,10 @@ private static void blockCard(Scanner sc, CardDAO cardDAO) {
 
         Card card = cardDAO.findById(cardId);
         if (card == null) {
+            System.out.println("ERRO: Card não encontrado.");
+            return;
+        }
+        if (card.getIsBlocked()) {
             System.out.println("ERRO: O card já está bloqueado.");
             return;
         }
@@ -378,7 +850,7 @@ private static void blockCard(Scanner sc, CardDAO cardDAO) {
         System.out.println("Card ID " + cardId + " bloqueado com sucesso.");
 }
 
-private static void unblockCard(Scanner sc, CardDAO cardDAO) {
+private static void unblockCard(Scanner sc, CardRepository cardDAO) {
         System.out.println("\n--- Desbloquear Card ---");
         System.out.print("Digite o ID do card a ser desbloqueado: ");
         int cardId = sc.nextInt();
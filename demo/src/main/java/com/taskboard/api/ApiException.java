@@ -0,0 +1,18 @@
+package com.taskboard.api;
+
+/**
+ * Erro de uma requisição da API, com o status HTTP que deve ser devolvido.
+ */
+public class ApiException extends RuntimeException {
+
+    private final int status;
+
+    public ApiException(int status, String msg) {
+        super(msg);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
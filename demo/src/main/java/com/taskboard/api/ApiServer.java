@@ -0,0 +1,60 @@
+package com.taskboard.api;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpServer;
+import com.taskboard.dao.BoardPurger;
+import com.taskboard.dao.CardRepository;
+import com.taskboard.dao.HistoryArchiver;
+import com.taskboard.db.DB;
+
+/**
+ * Servidor HTTP/JSON embutido na frente dos DAOs. Cada requisição roda em
+ * uma virtual thread própria; o paralelismo real no banco é limitado pelo
+ * pool de conexões, e as demais requisições esperam por uma conexão sem
+ * ocupar threads do sistema.
+ */
+public class ApiServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ApiServer(int port, int backlog) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), backlog);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.createContext("/api/", new TaskBoardHandler());
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DB.getIntProperty("api.port", 8080);
+        ApiServer api = new ApiServer(port, DB.getIntProperty("api.backlog", 1024));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop(1);
+            BoardPurger.stop();
+            HistoryArchiver.stop();
+            CardRepository.getInstance().flush();
+            DB.closeConnection();
+        }));
+        BoardPurger.start();
+        HistoryArchiver.start();
+        api.start();
+        System.out.println("API do Task Board ouvindo em http://localhost:" + api.getPort() + "/api/boards");
+    }
+}
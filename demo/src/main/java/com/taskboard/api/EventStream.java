@@ -0,0 +1,146 @@
+package com.taskboard.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.taskboard.dao.ColumnDAO;
+import com.taskboard.events.BoardEvent;
+import com.taskboard.events.CardBlocked;
+import com.taskboard.events.CardCreated;
+import com.taskboard.events.CardDeleted;
+import com.taskboard.events.CardEvent;
+import com.taskboard.events.CardMoved;
+import com.taskboard.events.CardUnblocked;
+import com.taskboard.events.ColumnCreated;
+import com.taskboard.events.ColumnEvent;
+import com.taskboard.events.ColumnLimitChanged;
+import com.taskboard.events.ColumnsDeleted;
+import com.taskboard.events.EventBus;
+import com.taskboard.events.EventListener;
+import com.taskboard.events.Subscription;
+import com.taskboard.json.Json;
+import com.taskboard.model.BoardColumns;
+
+/**
+ * GET /api/boards/{id}/events: envia os eventos do board como Server-Sent Events.
+ * Cada conexão tem sua própria inscrição no {@link EventBus}; se o cliente não
+ * acompanhar e a fila encher, recebe um evento "resync" e deve recarregar o board.
+ */
+class EventStream implements EventListener {
+
+    private final ColumnDAO columnDAO = new ColumnDAO();
+    private final OutputStream out;
+    private BoardColumns columns;
+    private Subscription subscription;
+
+    private EventStream(OutputStream out, BoardColumns columns) {
+        this.out = out;
+        this.columns = columns;
+    }
+
+    static void serve(HttpExchange exchange, BoardColumns columns) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            EventStream stream = new EventStream(exchange.getResponseBody(), columns);
+            stream.subscription = EventBus.getInstance().subscribe("api-board-" + columns.getBoardId(), stream);
+            stream.send("ready", Map.of("boardId", columns.getBoardId()));
+            try {
+                stream.subscription.awaitClose();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stream.subscription.close();
+            }
+        }
+    }
+
+    @Override
+    public void onEvent(BoardEvent event) {
+        if (event instanceof ColumnEvent columnEvent) {
+            if (columnEvent.getBoardId() != columns.getBoardId()) {
+                return;
+            }
+            if (event instanceof ColumnsDeleted) {
+                send(event.getName(), eventJson(event));
+                subscription.close(); // board excluído
+                return;
+            }
+            columns = columnDAO.findBoardColumns(columns.getBoardId());
+        } else if (!belongsToBoard(event)) {
+            return;
+        }
+        send(event.getName(), eventJson(event));
+    }
+
+    @Override
+    public void onOverflow(long droppedEvents) {
+        send("resync", Map.of("dropped", droppedEvents));
+    }
+
+    private boolean belongsToBoard(BoardEvent event) {
+        if (event instanceof CardMoved moved) {
+            return columns.findById(moved.getFromColumnId()) != null || columns.findById(moved.getToColumnId()) != null;
+        }
+        if (event instanceof CardCreated created) {
+            return columns.findById(created.getColumnId()) != null;
+        }
+        if (event instanceof CardBlocked blocked) {
+            return columns.findById(blocked.getColumnId()) != null;
+        }
+        if (event instanceof CardUnblocked unblocked) {
+            return columns.findById(unblocked.getColumnId()) != null;
+        }
+        // CardDeleted não diz a coluna; o id sozinho não expõe nada de outro board.
+        return event instanceof CardDeleted;
+    }
+
+    private void send(String name, Object data) {
+        String frame = "event: " + name + "\ndata: " + Json.write(data) + "\n\n";
+        try {
+            out.write(frame.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            subscription.close(); // cliente desconectou
+        }
+    }
+
+    private static Map<String, Object> eventJson(BoardEvent event) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        if (event instanceof CardEvent cardEvent) {
+            json.put("cardId", cardEvent.getCardId());
+            json.put("version", cardEvent.getVersion());
+        }
+        if (event instanceof CardCreated created) {
+            json.put("columnId", created.getColumnId());
+            json.put("title", created.getTitle());
+            json.put("description", created.getDescription());
+        } else if (event instanceof CardMoved moved) {
+            json.put("fromColumnId", moved.getFromColumnId());
+            json.put("toColumnId", moved.getToColumnId());
+        } else if (event instanceof CardBlocked blocked) {
+            json.put("columnId", blocked.getColumnId());
+            json.put("reason", blocked.getReason());
+        } else if (event instanceof CardUnblocked unblocked) {
+            json.put("columnId", unblocked.getColumnId());
+            json.put("reason", unblocked.getReason());
+        } else if (event instanceof CardDeleted deleted) {
+            json.put("cardId", deleted.getCardId());
+        } else if (event instanceof ColumnEvent columnEvent) {
+            json.put("boardId", columnEvent.getBoardId());
+            if (event instanceof ColumnCreated created) {
+                json.put("columnId", created.getColumnId());
+            } else if (event instanceof ColumnLimitChanged limit) {
+                json.put("columnId", limit.getColumnId());
+                json.put("wipLimit", limit.getWipLimit());
+            }
+        }
+        json.put("time", event.getTimeMillis());
+        return json;
+    }
+}
@@ -0,0 +1,549 @@
+package com.taskboard.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.taskboard.dao.BoardDAO;
+import com.taskboard.dao.CardRepository;
+import com.taskboard.dao.ColumnDAO;
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+import com.taskboard.json.Json;
+import com.taskboard.json.JsonException;
+import com.taskboard.model.Board;
+import com.taskboard.model.BoardCardCounts;
+import com.taskboard.model.BoardColumns;
+import com.taskboard.model.BoardSnapshot;
+import com.taskboard.model.Card;
+import com.taskboard.model.CardPage;
+import com.taskboard.model.Column;
+import com.taskboard.model.ColumnType;
+import com.taskboard.model.CreateResult;
+import com.taskboard.model.MoveResult;
+import com.taskboard.model.SearchHit;
+import com.taskboard.search.CardSearch;
+
+/**
+ * Rotas da API. As regras de movimentação são as mesmas do menu do console:
+ *
+ * <pre>
+ * GET    /api/boards
+ * POST   /api/boards                                  {"name", "columns": [{"name", "type"}]}
+ * GET    /api/boards/{id}                             board, colunas e primeira página de cada coluna
+ * DELETE /api/boards/{id}
+ * GET    /api/boards/{id}/columns
+ * GET    /api/boards/{id}/columns/{col}/cards         ?after={cardId}&amp;limit=
+ * POST   /api/boards/{id}/cards                       {"title", "description"}
+ * GET    /api/boards/{id}/cards/{card}
+ * POST   /api/boards/{id}/cards/{card}/move
+ * POST   /api/boards/{id}/cards/{card}/cancel
+ * POST   /api/boards/{id}/cards/{card}/block          {"reason"}
+ * POST   /api/boards/{id}/cards/{card}/unblock        {"reason"}
+ * GET    /api/boards/{id}/events                      Server-Sent Events com as alterações do board
+ * GET    /api/boards/{id}/search                      ?q=&amp;column=&amp;limit= busca textual nos cards do board
+ * </pre>
+ */
+class TaskBoardHandler implements HttpHandler {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_PAGE_SIZE = 500;
+    // A resposta já foi escrita (e a troca fechada) pela própria rota.
+    private static final Response STREAMED = new Response(200, null);
+
+    private final BoardDAO boardDAO = new BoardDAO();
+    private final ColumnDAO columnDAO = new ColumnDAO();
+    private final CardRepository cardDAO = CardRepository.getInstance();
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        int status;
+        Object body;
+        try {
+            Response response = route(exchange);
+            if (response == STREAMED) {
+                return;
+            }
+            status = response.status;
+            body = response.body;
+        } catch (ApiException e) {
+            status = e.getStatus();
+            body = error(e.getMessage());
+        } catch (JsonException | NumberFormatException | ClassCastException e) {
+            status = 400;
+            body = error("Requisição inválida: " + e.getMessage());
+        } catch (DBException e) {
+            status = 500;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("ERRO inesperado em " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e);
+            status = 500;
+            body = error("Erro interno.");
+        }
+        send(exchange, status, body);
+    }
+
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+        // path[0] é sempre "api".
+        if (path.length < 2 || !path[1].equals("boards")) {
+            throw new ApiException(404, "Recurso não encontrado.");
+        }
+        if (path.length == 2) {
+            if (method.equals("GET")) {
+                return ok(listBoards());
+            }
+            if (method.equals("POST")) {
+                return new Response(201, createBoard(readBody(exchange)));
+            }
+            throw notAllowed();
+        }
+
+        int boardId = pathId(path[2]);
+        if (path.length == 3) {
+            if (method.equals("GET")) {
+                return ok(boardJson(findBoard(boardId)));
+            }
+            if (method.equals("DELETE")) {
+                findBoard(boardId);
+                boardDAO.deleteById(boardId);
+                return new Response(204, null);
+            }
+            throw notAllowed();
+        }
+
+        BoardColumns columns = findColumns(boardId);
+        switch (path[3]) {
+            case "columns":
+                if (path.length == 4 && method.equals("GET")) {
+                    List<Object> list = new ArrayList<>();
+                    for (Column column : columns.getColumns()) {
+                        list.add(columnJson(column));
+                    }
+                    return ok(list);
+                }
+                if (path.length == 5) {
+                    if (method.equals("PUT")) {
+                        return ok(setWipLimit(boardId, columns, pathId(path[4]), readBody(exchange)));
+                    }
+                    throw notAllowed();
+                }
+                if (path.length == 6 && path[5].equals("cards") && method.equals("GET")) {
+                    return ok(columnCards(columns, pathId(path[4]), exchange.getRequestURI()));
+                }
+                break;
+            case "cards":
+                if (path.length == 4) {
+                    if (method.equals("POST")) {
+                        return new Response(201, createCard(columns, readBody(exchange)));
+                    }
+                    throw notAllowed();
+                }
+                Card card = findCard(columns, pathId(path[4]));
+                if (path.length == 5) {
+                    if (method.equals("GET")) {
+                        return ok(cardJson(card));
+                    }
+                    throw notAllowed();
+                }
+                if (path.length == 6) {
+                    if (!method.equals("POST")) {
+                        throw notAllowed();
+                    }
+                    switch (path[5]) {
+                        case "move":
+                            return ok(moveCard(columns, card));
+                        case "cancel":
+                            return ok(cancelCard(columns, card));
+                        case "block":
+                            return ok(setBlocked(card, true, readBody(exchange)));
+                        case "unblock":
+                            return ok(setBlocked(card, false, readBody(exchange)));
+                        default:
+                            break;
+                    }
+                }
+                break;
+            case "events":
+                if (path.length == 4) {
+                    if (!method.equals("GET")) {
+                        throw notAllowed();
+                    }
+                    EventStream.serve(exchange, columns);
+                    return STREAMED;
+                }
+                break;
+            case "search":
+                if (path.length == 4) {
+                    if (!method.equals("GET")) {
+                        throw notAllowed();
+                    }
+                    return ok(search(boardId, columns, exchange.getRequestURI()));
+                }
+                break;
+            default:
+                break;
+        }
+        throw new ApiException(404, "Recurso não encontrado.");
+    }
+
+    private List<Object> listBoards() {
+        List<Object> list = new ArrayList<>();
+        for (Board board : boardDAO.findAll()) {
+            list.add(boardSummary(board));
+        }
+        return list;
+    }
+
+    private Map<String, Object> createBoard(Map<String, Object> body) {
+        String name = requiredString(body, "name");
+        Object rawColumns = body.get("columns");
+        if (!(rawColumns instanceof List)) {
+            throw new ApiException(400, "Informe as colunas do board em 'columns'.");
+        }
+        List<Column> newColumns = new ArrayList<>();
+        for (Object item : (List<?>) rawColumns) {
+            if (!(item instanceof Map)) {
+                throw new ApiException(400, "Cada coluna deve ser um objeto com 'name' e 'type'.");
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> fields = (Map<String, Object>) item;
+            Column column = new Column();
+            column.setName(requiredString(fields, "name"));
+            try {
+                column.setType(ColumnType.valueOf(requiredString(fields, "type").toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, "Tipo de coluna inválido: " + fields.get("type"));
+            }
+            column.setWipLimit(wipLimit(column, fields));
+            newColumns.add(column);
+        }
+        for (ColumnType required : new ColumnType[] { ColumnType.INICIAL, ColumnType.FINAL, ColumnType.CANCELAMENTO }) {
+            long count = newColumns.stream().filter(c -> c.getType() == required).count();
+            if (count != 1) {
+                throw new ApiException(400, "O board deve ter exatamente uma coluna do tipo " + required + ".");
+            }
+        }
+        if (boardDAO.findByName(name) != null) {
+            throw new ApiException(409, "Um board com o nome '" + name + "' já existe.");
+        }
+
+        Board board = new Board();
+        board.setName(name);
+        boardDAO.create(board);
+        for (Column column : newColumns) {
+            column.setBoardId(board.getId());
+            columnDAO.create(column);
+        }
+        return boardJson(board);
+    }
+
+    private Map<String, Object> setWipLimit(int boardId, BoardColumns columns, int columnId, Map<String, Object> body) {
+        Column column = columns.findById(columnId);
+        if (column == null) {
+            throw new ApiException(404, "Coluna " + columnId + " não encontrada neste board.");
+        }
+        if (!body.containsKey("wipLimit")) {
+            throw new ApiException(400, "Informe o limite em 'wipLimit' (null remove o limite).");
+        }
+        Integer wipLimit = wipLimit(column, body);
+        columnDAO.setWipLimit(boardId, columnId, wipLimit);
+        column = columnDAO.findBoardColumns(boardId).findById(columnId);
+        return columnJson(column);
+    }
+
+    // 'wipLimit' opcional: um inteiro positivo, só em colunas INICIAL e PENDENTE; ausente ou null = sem limite.
+    private static Integer wipLimit(Column column, Map<String, Object> fields) {
+        Object value = fields.get("wipLimit");
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Long) || (Long) value <= 0 || (Long) value > Integer.MAX_VALUE) {
+            throw new ApiException(400, "'wipLimit' deve ser um inteiro maior que zero.");
+        }
+        if (column.getType() == ColumnType.FINAL || column.getType() == ColumnType.CANCELAMENTO) {
+            throw new ApiException(400, "Colunas do tipo " + column.getType() + " não aceitam limite WIP.");
+        }
+        return ((Long) value).intValue();
+    }
+
+    private Map<String, Object> columnCards(BoardColumns columns, int columnId, URI uri) {
+        if (columns.findById(columnId) == null) {
+            throw new ApiException(404, "Coluna " + columnId + " não encontrada neste board.");
+        }
+        Map<String, String> query = queryParams(uri);
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DB.getIntProperty("board.pageSize", 20);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ApiException(400, "O parâmetro 'limit' deve estar entre 1 e " + MAX_PAGE_SIZE + ".");
+        }
+        Card after = null;
+        if (query.containsKey("after")) {
+            after = cardDAO.findById(Integer.parseInt(query.get("after")));
+            if (after == null || after.getColumnId() != columnId) {
+                throw new ApiException(400, "Cursor 'after' inválido para esta coluna.");
+            }
+        }
+        CardPage page = cardDAO.findPageByColumnId(columnId, after, limit);
+        List<Object> cards = new ArrayList<>();
+        for (Card card : page.getCards()) {
+            cards.add(cardJson(card));
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("cards", cards);
+        json.put("next", page.hasMore() ? page.getLastCard().getId() : null);
+        return json;
+    }
+
+    private Map<String, Object> createCard(BoardColumns columns, Map<String, Object> body) {
+        Column initialColumn = columns.findFirstByType(ColumnType.INICIAL);
+        if (initialColumn == null) {
+            throw new ApiException(409, "Não foi possível encontrar a coluna inicial desse board.");
+        }
+        Card card = new Card();
+        card.setTitle(requiredString(body, "title"));
+        Object description = body.get("description");
+        card.setDescription(description == null ? "" : description.toString());
+        card.setColumnId(initialColumn.getId());
+        if (cardDAO.create(card) == CreateResult.WIP_LIMIT_REACHED) {
+            throw new ApiException(409, "A coluna '" + initialColumn.getName() + "' atingiu o limite WIP ("
+                    + initialColumn.getWipLimit() + " cards).");
+        }
+        return cardJson(card);
+    }
+
+    private Map<String, Object> moveCard(BoardColumns columns, Card card) {
+        if (card.getIsBlocked()) {
+            throw new ApiException(409, "O card está bloqueado e não pode ser movido.");
+        }
+        Column currentColumn = columns.findById(card.getColumnId());
+        if (currentColumn.getType() == ColumnType.FINAL || currentColumn.getType() == ColumnType.CANCELAMENTO) {
+            throw new ApiException(409, "O card já está em uma coluna final e não pode ser movido.");
+        }
+        Column nextColumn = columns.findNext(currentColumn.getId());
+        if (nextColumn == null) {
+            throw new ApiException(409, "Não há uma próxima coluna para mover o card.");
+        }
+        MoveResult result = cardDAO.updateColumn(card, nextColumn.getId());
+        if (result == MoveResult.WIP_LIMIT_REACHED) {
+            throw new ApiException(409, "A coluna '" + nextColumn.getName() + "' atingiu o limite WIP ("
+                    + nextColumn.getWipLimit() + " cards).");
+        }
+        return moved(result, card);
+    }
+
+    private Map<String, Object> cancelCard(BoardColumns columns, Card card) {
+        Column currentColumn = columns.findById(card.getColumnId());
+        if (currentColumn.getType() == ColumnType.CANCELAMENTO) {
+            throw new ApiException(409, "Este card já está cancelado.");
+        }
+        Column cancelColumn = columns.findFirstByType(ColumnType.CANCELAMENTO);
+        return moved(cardDAO.updateColumn(card, cancelColumn.getId()), card);
+    }
+
+    private static Map<String, Object> moved(MoveResult result, Card card) {
+        if (result == MoveResult.CONFLICT) {
+            throw new ApiException(409, "O card foi alterado por outra requisição; leia-o novamente e repita a operação.");
+        }
+        return cardJson(card);
+    }
+
+    private Map<String, Object> setBlocked(Card card, boolean blocked, Map<String, Object> body) {
+        if (card.getIsBlocked() == blocked) {
+            throw new ApiException(409, blocked ? "O card já está bloqueado." : "O card não está bloqueado.");
+        }
+        cardDAO.updateBlockStatus(card.getId(), blocked, requiredString(body, "reason"));
+        card.setBlock(blocked);
+        card.setVersion(card.getVersion() + 1);
+        return cardJson(card);
+    }
+
+    private Board findBoard(int boardId) {
+        Board board = boardDAO.findById(boardId);
+        if (board == null) {
+            throw new ApiException(404, "Board " + boardId + " não encontrado.");
+        }
+        return board;
+    }
+
+    private BoardColumns findColumns(int boardId) {
+        findBoard(boardId);
+        return columnDAO.findBoardColumns(boardId);
+    }
+
+    private Card findCard(BoardColumns columns, int cardId) {
+        Card card = cardDAO.findById(cardId);
+        if (card == null || columns.findById(card.getColumnId()) == null) {
+            throw new ApiException(404, "Card " + cardId + " não encontrado neste board.");
+        }
+        return card;
+    }
+
+    private Map<String, Object> search(int boardId, BoardColumns columns, URI uri) {
+        Map<String, String> query = queryParams(uri);
+        String text = query.get("q");
+        if (text == null || text.isBlank()) {
+            throw new ApiException(400, "Informe o texto da busca em 'q'.");
+        }
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DB.getIntProperty("board.pageSize", 20);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ApiException(400, "O parâmetro 'limit' deve estar entre 1 e " + MAX_PAGE_SIZE + ".");
+        }
+        Integer columnId = null;
+        if (query.containsKey("column")) {
+            columnId = Integer.parseInt(query.get("column"));
+            if (columns.findById(columnId) == null) {
+                throw new ApiException(404, "Coluna " + columnId + " não encontrada neste board.");
+            }
+        }
+        List<Object> results = new ArrayList<>();
+        for (SearchHit hit : CardSearch.getInstance().search(text, boardId, columnId, limit)) {
+            Map<String, Object> json = cardJson(hit.getCard());
+            json.put("score", hit.getScore());
+            results.add(json);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("results", results);
+        return json;
+    }
+
+    private Map<String, Object> boardJson(Board board) {
+        BoardSnapshot snapshot = cardDAO.loadSnapshot(board);
+        BoardCardCounts counts = cardDAO.loadCardCounts(board.getId());
+        Map<String, Object> json = boardSummary(board);
+        json.put("cardCount", counts.getTotal());
+        json.put("blockedCount", counts.getBlocked());
+        List<Object> columns = new ArrayList<>();
+        for (Column column : snapshot.getColumns()) {
+            Map<String, Object> columnJson = columnJson(column);
+            List<Object> cards = new ArrayList<>();
+            for (Card card : snapshot.getCards(column.getId())) {
+                cards.add(cardJson(card));
+            }
+            columnJson.put("cardCount", counts.getTotal(column.getId()));
+            columnJson.put("blockedCount", counts.getBlocked(column.getId()));
+            columnJson.put("cards", cards);
+            columns.add(columnJson);
+        }
+        json.put("columns", columns);
+        return json;
+    }
+
+    private static Map<String, Object> boardSummary(Board board) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", board.getId());
+        json.put("name", board.getName());
+        return json;
+    }
+
+    private static Map<String, Object> columnJson(Column column) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", column.getId());
+        json.put("name", column.getName());
+        json.put("type", column.getType());
+        json.put("order", column.getColumnOrder());
+        json.put("wipLimit", column.getWipLimit());
+        return json;
+    }
+
+    private static Map<String, Object> cardJson(Card card) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", card.getId());
+        json.put("title", card.getTitle());
+        json.put("description", card.getDescription());
+        json.put("creationDate", card.getCreationDate());
+        json.put("blocked", card.getIsBlocked());
+        json.put("columnId", card.getColumnId());
+        json.put("version", card.getVersion());
+        return json;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("erro", message);
+        return json;
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Corpo da requisição maior que " + MAX_BODY_BYTES + " bytes.");
+            }
+            String text = new String(bytes, StandardCharsets.UTF_8);
+            return text.isBlank() ? new LinkedHashMap<>() : Json.parseObject(text);
+        }
+    }
+
+    private static String requiredString(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (value == null || value.toString().isBlank()) {
+            throw new ApiException(400, "O campo '" + field + "' é obrigatório.");
+        }
+        return value.toString();
+    }
+
+    private static Map<String, String> queryParams(URI uri) {
+        Map<String, String> params = new LinkedHashMap<>();
+        String query = uri.getQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static int pathId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Recurso não encontrado.");
+        }
+    }
+
+    private static ApiException notAllowed() {
+        return new ApiException(405, "Método não permitido.");
+    }
+
+    private static Response ok(Object body) {
+        return new Response(200, body);
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        try (exchange) {
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static class Response {
+        private final int status;
+        private final Object body;
+
+        Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
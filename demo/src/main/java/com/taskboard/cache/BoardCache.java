@@ -0,0 +1,140 @@
+package com.taskboard.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.taskboard.db.DB;
+import com.taskboard.model.Board;
+import com.taskboard.model.BoardColumns;
+
+/**
+ * Cache em memória da estrutura dos boards (o board e suas colunas).
+ *
+ * Cada board tem um número de versão que é incrementado a cada escrita; uma
+ * entrada carregada sob uma versão antiga nunca é devolvida, mesmo que tenha
+ * sido gravada depois da invalidação por uma leitura concorrente.
+ */
+public class BoardCache {
+
+    private static final BoardCache INSTANCE = new BoardCache(DB.getIntProperty("cache.boardCapacity", 256));
+
+    private final int capacity;
+    private final Map<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Integer, Entry<Board>> boards;
+    private final LinkedHashMap<Integer, Entry<BoardColumns>> columns;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BoardCache(int capacity) {
+        this.capacity = capacity;
+        this.boards = newLru();
+        this.columns = newLru();
+    }
+
+    public static BoardCache getInstance() {
+        return INSTANCE;
+    }
+
+    private <V> LinkedHashMap<Integer, Entry<V>> newLru() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry<V>> eldest) {
+                if (size() > capacity) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Board getBoard(int boardId, Supplier<Board> loader) {
+        return get(boards, boardId, loader);
+    }
+
+    public BoardColumns getColumns(int boardId, Supplier<BoardColumns> loader) {
+        return get(columns, boardId, loader);
+    }
+
+    public void putBoard(Board board) {
+        long version = invalidate(board.getId());
+        synchronized (this) {
+            boards.put(board.getId(), new Entry<>(board, version));
+        }
+    }
+
+    /**
+     * Invalida tudo o que estiver em cache para o board e devolve a nova versão.
+     */
+    public long invalidate(int boardId) {
+        long version = versionOf(boardId).incrementAndGet();
+        synchronized (this) {
+            boards.remove(boardId);
+            columns.remove(boardId);
+        }
+        return version;
+    }
+
+    private <V> V get(LinkedHashMap<Integer, Entry<V>> map, int boardId, Supplier<V> loader) {
+        long version = versionOf(boardId).get();
+        synchronized (this) {
+            Entry<V> entry = map.get(boardId);
+            if (entry != null && entry.version == version) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+        }
+        misses.incrementAndGet();
+        V value = loader.get();
+        if (value != null) {
+            synchronized (this) {
+                if (versionOf(boardId).get() == version) {
+                    map.put(boardId, new Entry<>(value, version));
+                }
+            }
+        }
+        return value;
+    }
+
+    private AtomicLong versionOf(int boardId) {
+        return versions.computeIfAbsent(boardId, id -> new AtomicLong());
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("BoardCache [boards=%d, colunas=%d, capacidade=%d, acertos=%d, falhas=%d, taxa=%.1f%%, remoções=%d]",
+                boards.size(), columns.size(), capacity, getHitCount(), getMissCount(), getHitRate() * 100, getEvictionCount());
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long version;
+
+        Entry(V value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+}
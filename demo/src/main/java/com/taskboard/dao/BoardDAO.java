@@ -8,21 +8,20 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.taskboard.cache.BoardCache;
 import com.taskboard.db.DB;
 import com.taskboard.db.DBException;
+import com.taskboard.events.ColumnsDeleted;
+import com.taskboard.events.EventBus;
 import com.taskboard.model.Board;
 
 public class BoardDAO {
 
-    private Connection conn;
-
-    public BoardDAO(Connection conn) {
-        this.conn = conn;
-    }
-
     public void create(Board board) {
+        Connection conn = null;
         PreparedStatement st = null;
         try {
+            conn = DB.getConnection("BoardDAO.create");
             st = conn.prepareStatement(
                 "INSERT INTO boards (name) VALUES (?)",
                 Statement.RETURN_GENERATED_KEYS);
@@ -36,6 +35,7 @@ public class BoardDAO {
                     board.setId(rs.getInt(1));
                 }
                 DB.closeResultSet(rs);
+                BoardCache.getInstance().putBoard(board);
             } else {
                 throw new DBException("Erro inesperado! Nenhuma linha afetada.");
             }
@@ -43,14 +43,17 @@ public class BoardDAO {
             throw new DBException(e.getMessage());
         } finally {
             DB.closeStatement(st);
+            DB.closeConnection(conn);
         }
     }
 
     public List<Board> findAll() {
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
-            st = conn.prepareStatement("SELECT * FROM boards ORDER BY name");
+            conn = DB.getConnection("BoardDAO.findAll");
+            st = conn.prepareStatement("SELECT * FROM boards WHERE deleted_at IS NULL ORDER BY name");
             rs = st.executeQuery();
             List<Board> list = new ArrayList<>();
             while (rs.next()) {
@@ -65,31 +68,76 @@ public class BoardDAO {
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
+            DB.closeConnection(conn);
         }
     }
 
+    /**
+     * Exclui o board na hora para o resto da aplicação (ele some das listas e
+     * das buscas, e o nome fica livre) e deixa a remoção das colunas, dos cards
+     * e do histórico para o {@link BoardPurger}, em lotes pequenos. Quem
+     * acompanha o board recebe ColumnsDeleted.
+     */
     public void deleteById(Integer id) {
-        PreparedStatement st = null;
+        Connection conn = null;
+        PreparedStatement stLock = null;
+        PreparedStatement stMark = null;
+        PreparedStatement stJob = null;
+        ResultSet rs = null;
+        boolean deleted = false;
         try {
-            st = conn.prepareStatement("DELETE FROM boards WHERE id = ?");
-            st.setInt(1, id);
-            int rows = st.executeUpdate();
-            if (rows == 0) {
+            conn = DB.getConnection("BoardDAO.deleteById");
+            conn.setAutoCommit(false);
+            stLock = conn.prepareStatement("SELECT name FROM boards WHERE id = ? AND deleted_at IS NULL FOR UPDATE");
+            stLock.setInt(1, id);
+            rs = stLock.executeQuery();
+            if (!rs.next()) {
+                conn.commit();
                 System.out.println("ID do board não encontrado para exclusão.");
+                return;
             }
+            String name = rs.getString(1);
+
+            stMark = conn.prepareStatement("UPDATE boards SET deleted_at = CURRENT_TIMESTAMP, name = NULL WHERE id = ?");
+            stMark.setInt(1, id);
+            stMark.executeUpdate();
+
+            stJob = conn.prepareStatement("INSERT INTO board_purge (board_id, board_name) VALUES (?, ?)");
+            stJob.setInt(1, id);
+            stJob.setString(2, name);
+            stJob.executeUpdate();
+
+            conn.commit();
+            deleted = true;
         } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException e1) {
+                throw new DBException("Erro ao tentar reverter a exclusão do board.");
+            }
             throw new DBException(e.getMessage());
         } finally {
-            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeStatement(stLock);
+            DB.closeStatement(stMark);
+            DB.closeStatement(stJob);
+            DB.closeConnection(conn);
+            BoardCache.getInstance().invalidate(id);
+            if (deleted) {
+                EventBus.getInstance().publish(new ColumnsDeleted(id));
+                BoardPurger.wake();
+            }
         }
     }
 
     public Board findByName(String name){
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
-        String sql = "SELECT * FROM boards WHERE name = ?";
+        String sql = "SELECT * FROM boards WHERE name = ? AND deleted_at IS NULL";
 
         try {
+            conn = DB.getConnection("BoardDAO.findByName");
             st = conn.prepareStatement(sql);
             st.setString(1, name);
             rs = st.executeQuery();
@@ -106,14 +154,21 @@ public class BoardDAO {
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
+            DB.closeConnection(conn);
         }
     }
     public Board findById(Integer id) {
+        return BoardCache.getInstance().getBoard(id, () -> loadById(id));
+    }
+
+    private Board loadById(Integer id) {
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
-        String sql = "SELECT * FROM boards WHERE id = ?";
+        String sql = "SELECT * FROM boards WHERE id = ? AND deleted_at IS NULL";
 
         try {
+            conn = DB.getConnection("BoardDAO.findById");
             st = conn.prepareStatement(sql);
             st.setInt(1, id);
             rs = st.executeQuery();
@@ -130,7 +185,7 @@ public class BoardDAO {
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
-
+            DB.closeConnection(conn);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,384 @@
+package com.taskboard.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+
+/**
+ * Remove em segundo plano os dados dos boards excluídos por
+ * {@link BoardDAO#deleteById}: histórico (inclusive o arquivado), cards e, por
+ * fim, colunas e o próprio board. Cada lote de até
+ * {@code board.purge.batchSize} linhas é uma transação curta, seguida de uma
+ * pausa de {@code board.purge.pauseMs}, para não segurar locks nem disputar o
+ * banco com o resto da aplicação.
+ *
+ * O que falta remover é sempre lido do banco (board_purge e as linhas que
+ * ainda existem), então uma remoção interrompida continua de onde parou na
+ * próxima vez que o removedor for iniciado.
+ */
+public class BoardPurger {
+
+    private static BoardPurger running;
+
+    private final int batchSize;
+    private final long pauseMillis;
+    private final Thread thread;
+    private boolean stopped;
+    private boolean signaled = true;
+    private volatile String current;
+    private volatile long currentRows;
+    private volatile long totalRows;
+    private volatile long completed;
+
+    private BoardPurger(int batchSize, long pauseMillis) {
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        thread = new Thread(this::loop, "taskboard-board-purger");
+        thread.setDaemon(true);
+    }
+
+    // Inicia o removedor, que retoma as exclusões pendentes.
+    public static synchronized void start() {
+        if (running == null) {
+            running = new BoardPurger(Math.max(1, DB.getIntProperty("board.purge.batchSize", 1000)),
+                    DB.getIntProperty("board.purge.pauseMs", 50));
+            running.thread.start();
+        }
+    }
+
+    // Termina o lote em andamento e para; o restante fica para a próxima inicialização.
+    public static void stop() {
+        BoardPurger purger;
+        synchronized (BoardPurger.class) {
+            purger = running;
+            running = null;
+        }
+        if (purger != null) {
+            purger.close();
+        }
+    }
+
+    static void wake() {
+        BoardPurger purger;
+        synchronized (BoardPurger.class) {
+            purger = running;
+        }
+        if (purger != null) {
+            purger.signal();
+        }
+    }
+
+    public static synchronized String getStatus() {
+        if (running == null) {
+            return "Exclusão de boards [parada]";
+        }
+        String board = running.current;
+        return String.format("Exclusão de boards [em andamento=%s, boards removidos=%d, linhas removidas=%d]",
+                board == null ? "nenhuma" : board + " (" + running.currentRows + " linhas)",
+                running.completed, running.totalRows);
+    }
+
+    private synchronized void signal() {
+        signaled = true;
+        notifyAll();
+    }
+
+    private void close() {
+        synchronized (this) {
+            stopped = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Sem interrupt: interromper uma thread no meio de uma chamada JDBC pode fechar a conexão (ou o arquivo do H2).
+    private synchronized boolean pause(long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long remaining = millis;
+        while (!stopped && remaining > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped = true;
+            }
+            remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        }
+        return !stopped;
+    }
+
+    private synchronized boolean awaitSignal() {
+        while (!stopped && !signaled) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped = true;
+            }
+        }
+        signaled = false;
+        return !stopped;
+    }
+
+    private void loop() {
+        while (awaitSignal()) {
+            try {
+                for (Integer boardId = nextJob(0); boardId != null; boardId = nextJob(boardId)) {
+                    if (!purge(boardId)) {
+                        return;
+                    }
+                }
+            } catch (DBException e) {
+                System.out.println("ERRO na exclusão de board em segundo plano: " + e.getMessage());
+                if (!pause(TimeUnit.SECONDS.toMillis(30))) {
+                    return;
+                }
+                signal();
+            }
+        }
+    }
+
+    // Próximo board aguardando remoção, em ordem de id a partir de afterBoardId.
+    private Integer nextJob(int afterBoardId) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("BoardPurger.nextJob");
+            st = conn.prepareStatement("SELECT board_id FROM board_purge WHERE board_id > ? ORDER BY board_id LIMIT 1");
+            st.setInt(1, afterBoardId);
+            rs = st.executeQuery();
+            return rs.next() ? rs.getInt(1) : null;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+        }
+    }
+
+    // Devolve false se o removedor foi parado antes de terminar.
+    private boolean purge(int boardId) {
+        if (!loadJob(boardId)) {
+            return true;
+        }
+        long start = System.nanoTime();
+        long lastReport = start;
+        System.out.println("Removendo os dados do board " + current + " em segundo plano...");
+
+        for (int columnId : findColumnIds(boardId)) {
+            List<Integer> cardIds;
+            while (!(cardIds = findCardIds(columnId)).isEmpty()) {
+                for (String table : new String[] { "card_movement_history", "card_movement_archive", "card_block_history" }) {
+                    int deleted;
+                    do {
+                        deleted = deleteHistoryBatch(boardId, table, cardIds);
+                        if (!progress(deleted)) {
+                            return false;
+                        }
+                    } while (deleted == batchSize);
+                }
+                if (!progress(deleteCards(boardId, cardIds))) {
+                    return false;
+                }
+                if (System.nanoTime() - lastReport > TimeUnit.SECONDS.toNanos(10)) {
+                    lastReport = System.nanoTime();
+                    System.out.println("Exclusão do board " + current + ": " + currentRows + " linhas removidas até agora.");
+                }
+            }
+        }
+        finish(boardId);
+        completed++;
+        System.out.println("Board " + current + " removido: " + currentRows + " linhas em "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+        current = null;
+        return true;
+    }
+
+    private boolean progress(int rows) {
+        currentRows += rows;
+        totalRows += rows;
+        return pause(pauseMillis);
+    }
+
+    // Uma remoção retomada continua contando as linhas removidas antes da interrupção.
+    private boolean loadJob(int boardId) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("BoardPurger.loadJob");
+            st = conn.prepareStatement("SELECT board_name, rows_deleted FROM board_purge WHERE board_id = ?");
+            st.setInt(1, boardId);
+            rs = st.executeQuery();
+            if (!rs.next()) {
+                return false;
+            }
+            current = "'" + rs.getString(1) + "' (ID " + boardId + ")";
+            currentRows = rs.getLong(2);
+            return true;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+        }
+    }
+
+    private List<Integer> findColumnIds(int boardId) {
+        return findIds("SELECT id FROM columns WHERE board_id = ?", boardId, Integer.MAX_VALUE);
+    }
+
+    private List<Integer> findCardIds(int columnId) {
+        return findIds("SELECT id FROM cards WHERE column_id = ? LIMIT ?", columnId, batchSize);
+    }
+
+    private List<Integer> findIds(String sql, int id, int limit) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("BoardPurger.findIds");
+            st = conn.prepareStatement(sql);
+            st.setInt(1, id);
+            if (limit != Integer.MAX_VALUE) {
+                st.setInt(2, limit);
+            }
+            rs = st.executeQuery();
+            List<Integer> ids = new ArrayList<>();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+        }
+    }
+
+    // Apaga até batchSize linhas do histórico dos cards informados, escolhidas pelo id para limitar o lote.
+    private int deleteHistoryBatch(int boardId, String table, List<Integer> cardIds) {
+        Connection conn = null;
+        PreparedStatement stSelect = null;
+        PreparedStatement stDelete = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("BoardPurger.deleteHistoryBatch");
+            conn.setAutoCommit(false);
+            stSelect = conn.prepareStatement("SELECT id FROM " + table + " WHERE card_id IN ("
+                    + CardDAO.placeholders(cardIds.size()) + ") LIMIT ?");
+            int index = CardDAO.bindIds(stSelect, 1, cardIds);
+            stSelect.setInt(index, batchSize);
+            rs = stSelect.executeQuery();
+            List<Integer> rowIds = new ArrayList<>();
+            while (rs.next()) {
+                rowIds.add(rs.getInt(1));
+            }
+            if (rowIds.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+            stDelete = conn.prepareStatement("DELETE FROM " + table + " WHERE id IN ("
+                    + CardDAO.placeholders(rowIds.size()) + ")");
+            CardDAO.bindIds(stDelete, 1, rowIds);
+            stDelete.executeUpdate();
+            addProgress(conn, boardId, rowIds.size());
+            conn.commit();
+            return rowIds.size();
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new DBException("Erro ao remover " + table + " do board " + boardId + ": " + e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(stSelect);
+            DB.closeStatement(stDelete);
+            DB.closeConnection(conn);
+        }
+    }
+
+    // O histórico já saiu; o resumo do relatório de tempo dos cards sai em cascata.
+    private int deleteCards(int boardId, List<Integer> cardIds) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        try {
+            conn = DB.getConnection("BoardPurger.deleteCards");
+            conn.setAutoCommit(false);
+            st = conn.prepareStatement("DELETE FROM cards WHERE id IN (" + CardDAO.placeholders(cardIds.size()) + ")");
+            CardDAO.bindIds(st, 1, cardIds);
+            int rows = st.executeUpdate();
+            addProgress(conn, boardId, rows);
+            conn.commit();
+            return rows;
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new DBException("Erro ao remover os cards do board " + boardId + ": " + e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    // Colunas vazias, o board e o registro da remoção, numa transação só.
+    private void finish(int boardId) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        try {
+            conn = DB.getConnection("BoardPurger.finish");
+            conn.setAutoCommit(false);
+            for (String sql : new String[] { "DELETE FROM columns WHERE board_id = ?",
+                    "DELETE FROM boards WHERE id = ? AND deleted_at IS NOT NULL",
+                    "DELETE FROM board_purge WHERE board_id = ?" }) {
+                st = conn.prepareStatement(sql);
+                st.setInt(1, boardId);
+                st.executeUpdate();
+                DB.closeStatement(st);
+                st = null;
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new DBException("Erro ao concluir a remoção do board " + boardId + ": " + e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    private static void addProgress(Connection conn, int boardId, int rows) throws SQLException {
+        PreparedStatement st = null;
+        try {
+            st = conn.prepareStatement("UPDATE board_purge SET rows_deleted = rows_deleted + ? WHERE board_id = ?");
+            st.setInt(1, rows);
+            st.setInt(2, boardId);
+            st.executeUpdate();
+        } finally {
+            DB.closeStatement(st);
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                throw new DBException("Erro de execução no rollback: " + e.getMessage());
+            }
+        }
+    }
+}
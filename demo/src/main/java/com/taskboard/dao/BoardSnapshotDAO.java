@@ -0,0 +1,90 @@
+package com.taskboard.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+import com.taskboard.model.Board;
+import com.taskboard.model.BoardColumns;
+import com.taskboard.model.BoardSnapshot;
+
+public class BoardSnapshotDAO {
+
+    public interface CardVersionConsumer {
+        void accept(int cardId, int columnId, int version);
+    }
+
+    private final ColumnDAO columnDAO = new ColumnDAO();
+
+    // Carrega, para cada coluna, só a primeira página de cards (board.pageSize) e o total de cards.
+    public BoardSnapshot load(Board board) {
+        BoardColumns columns = columnDAO.findBoardColumns(board.getId());
+        BoardSnapshot snapshot = new BoardSnapshot(board, columns);
+        int pageSize = Math.max(1, DB.getIntProperty("board.pageSize", 20));
+
+        Connection conn = null;
+        PreparedStatement stCards = null;
+        PreparedStatement stCounts = null;
+        ResultSet rs = null;
+        String sqlCards = "SELECT * FROM ("
+                + "SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.column_id ORDER BY c.creation_date DESC, c.id DESC) AS rn "
+                + "FROM cards c JOIN columns col ON c.column_id = col.id WHERE col.board_id = ?"
+                + ") page WHERE rn <= ? ORDER BY column_id, rn";
+        // Totais dos contadores mantidos pelo CardDAO, sem contar os cards.
+        String sqlCounts = "SELECT id, card_count FROM columns WHERE board_id = ?";
+
+        try {
+            conn = DB.getConnection("BoardSnapshotDAO.load");
+            stCards = conn.prepareStatement(sqlCards);
+            stCards.setInt(1, board.getId());
+            stCards.setInt(2, pageSize);
+            rs = stCards.executeQuery();
+            while (rs.next()) {
+                snapshot.addCard(CardDAO.instantiateCard(rs));
+            }
+            DB.closeResultSet(rs);
+
+            stCounts = conn.prepareStatement(sqlCounts);
+            stCounts.setInt(1, board.getId());
+            rs = stCounts.executeQuery();
+            while (rs.next()) {
+                snapshot.setCardCount(rs.getInt(1), rs.getInt(2));
+            }
+            return snapshot;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(stCards);
+            DB.closeStatement(stCounts);
+            DB.closeConnection(conn);
+        }
+    }
+
+    // Coluna e versão de todos os cards do board, lidas com um cursor somente-leitura.
+    public void forEachCardVersion(int boardId, CardVersionConsumer action) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        String sql = "SELECT c.id, c.column_id, c.version FROM cards c JOIN columns col ON c.column_id = col.id WHERE col.board_id = ?";
+        try {
+            conn = DB.getConnection("BoardSnapshotDAO.forEachCardVersion");
+            st = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            st.setFetchSize(DB.getStreamingFetchSize());
+            st.setInt(1, boardId);
+            rs = st.executeQuery();
+            while (rs.next()) {
+                action.accept(rs.getInt(1), rs.getInt(2), rs.getInt(3));
+            }
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+}
@@ -5,29 +5,83 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 import com.taskboard.db.DB;
 import com.taskboard.db.DBException;
+import com.taskboard.events.BoardEvent;
+import com.taskboard.events.CardBlocked;
+import com.taskboard.events.CardCreated;
+import com.taskboard.events.CardDeleted;
+import com.taskboard.events.CardMoved;
+import com.taskboard.events.CardUnblocked;
+import com.taskboard.events.EventBus;
+import com.taskboard.journal.HistoryJournal;
+import com.taskboard.model.Board;
+import com.taskboard.model.BoardCardCounts;
+import com.taskboard.model.BoardSnapshot;
 import com.taskboard.model.Card;
+import com.taskboard.model.CardPage;
+import com.taskboard.model.CreateResult;
+import com.taskboard.model.MoveResult;
 
-public class CardDAO {
+public class CardDAO implements CardRepository {
 
-    private Connection conn;
+    private final EventBus events;
 
-    public CardDAO(Connection conn) {
-        this.conn = conn;
+    public CardDAO() {
+        this(EventBus.getInstance());
     }
 
-    public void create(Card card) {
+    // O InMemoryCardStore grava por um barramento sem inscritos e publica os eventos ele mesmo.
+    public CardDAO(EventBus events) {
+        this.events = events;
+    }
+
+    @Override
+    public BoardSnapshot loadSnapshot(Board board) {
+        return new BoardSnapshotDAO().load(board);
+    }
+
+    @Override
+    public void forEachCardVersion(int boardId, BoardSnapshotDAO.CardVersionConsumer action) {
+        new BoardSnapshotDAO().forEachCardVersion(boardId, action);
+    }
+
+    @Override
+    public BoardCardCounts loadCardCounts(int boardId) {
+        return new ColumnDAO().findCardCounts(boardId);
+    }
+
+    // A criação é recusada, sem gravar nada, se a coluna já estiver no limite WIP.
+    @Override
+    public CreateResult create(Card card) {
+        Connection conn = null;
         PreparedStatement stCard = null;
         PreparedStatement stHistory = null;
+        PreparedStatement stPointer = null;
         String sqlCard = "INSERT INTO cards (title, description, column_id) VALUES (?, ?, ?)";
         String sqlHistory = "INSERT INTO card_movement_history (card_id, column_id) VALUES (?, ?)";
         try {
+            conn = DB.getConnection("CardDAO.create");
             conn.setAutoCommit(false);
 
+            Map<Integer, int[]> counts = new HashMap<>();
+            addCount(counts, card.getColumnId(), 1, 0);
+            if (!adjustCounts(conn, counts)) {
+                conn.rollback();
+                return CreateResult.WIP_LIMIT_REACHED;
+            }
+
             stCard = conn.prepareStatement(sqlCard, Statement.RETURN_GENERATED_KEYS);
             stCard.setString(1, card.getTitle());
             stCard.setString(2, card.getDescription());
@@ -42,12 +96,18 @@ public class CardDAO {
             }
             DB.closeResultSet(rs);
 
-            stHistory = conn.prepareStatement(sqlHistory);
+            stHistory = conn.prepareStatement(sqlHistory, Statement.RETURN_GENERATED_KEYS);
             stHistory.setInt(1, card.getId());
             stHistory.setInt(2, card.getColumnId());
             stHistory.executeUpdate();
+            stPointer = conn.prepareStatement("UPDATE cards SET open_movement_id = ? WHERE id = ?");
+            stPointer.setInt(1, generatedId(stHistory));
+            stPointer.setInt(2, card.getId());
+            stPointer.executeUpdate();
 
             conn.commit();
+            events.publish(new CardCreated(card));
+            return CreateResult.CREATED;
 
         } catch (SQLException e) {
             try {
@@ -59,81 +119,686 @@ public class CardDAO {
         } finally {
             DB.closeStatement(stCard);
             DB.closeStatement(stHistory);
+            DB.closeStatement(stPointer);
+            DB.closeConnection(conn);
+        }
+    }
+
+    // Commit a cada import.batchSize cards; se um lote falhar, os anteriores permanecem gravados.
+    @Override
+    public int createAll(List<Card> cards) {
+        int batchSize = Math.max(1, DB.getIntProperty("import.batchSize", 1000));
+        int created = 0;
+        for (int from = 0; from < cards.size(); from += batchSize) {
+            List<Card> chunk = cards.subList(from, Math.min(from + batchSize, cards.size()));
+            try {
+                createChunk(chunk);
+            } catch (DBException e) {
+                throw new DBException("Erro ao importar cards (" + created + " gravados): " + e.getMessage());
+            }
+            created += chunk.size();
+        }
+        return created;
+    }
+
+    private void createChunk(List<Card> chunk) {
+        Connection conn = null;
+        PreparedStatement stCard = null;
+        PreparedStatement stHistory = null;
+        PreparedStatement stPointer = null;
+        ResultSet rs = null;
+        String sqlCard = "INSERT INTO cards (title, description, column_id) VALUES (?, ?, ?)";
+        String sqlHistory = "INSERT INTO card_movement_history (card_id, column_id) VALUES (?, ?)";
+        try {
+            conn = DB.getConnection("CardDAO.createAll");
+            conn.setAutoCommit(false);
+
+            Map<Integer, int[]> counts = new HashMap<>();
+            for (Card card : chunk) {
+                addCount(counts, card.getColumnId(), 1, 0);
+            }
+            if (!adjustCounts(conn, counts)) {
+                throw new SQLException("o lote não cabe no limite WIP da coluna de destino.");
+            }
+
+            stCard = conn.prepareStatement(sqlCard, Statement.RETURN_GENERATED_KEYS);
+            for (Card card : chunk) {
+                stCard.setString(1, card.getTitle());
+                stCard.setString(2, card.getDescription());
+                stCard.setInt(3, card.getColumnId());
+                stCard.addBatch();
+            }
+            stCard.executeBatch();
+
+            rs = stCard.getGeneratedKeys();
+            for (Card card : chunk) {
+                if (!rs.next()) {
+                    throw new SQLException("Falha ao obter os IDs dos cards criados.");
+                }
+                card.setID(rs.getInt(1));
+            }
+
+            stHistory = conn.prepareStatement(sqlHistory);
+            for (Card card : chunk) {
+                stHistory.setInt(1, card.getId());
+                stHistory.setInt(2, card.getColumnId());
+                stHistory.addBatch();
+            }
+            stHistory.executeBatch();
+
+            List<Integer> ids = new ArrayList<>(chunk.size());
+            for (Card card : chunk) {
+                ids.add(card.getId());
+            }
+            stPointer = conn.prepareStatement("UPDATE cards SET open_movement_id = (SELECT MAX(h.id) FROM card_movement_history h "
+                    + "WHERE h.card_id = cards.id AND h.column_id = cards.column_id AND h.exit_time IS NULL) "
+                    + "WHERE id IN (" + placeholders(ids.size()) + ")");
+            bindIds(stPointer, 1, ids);
+            stPointer.executeUpdate();
+
+            conn.commit();
+            if (events.hasSubscribers()) {
+                List<BoardEvent> created = new ArrayList<>(chunk.size());
+                for (Card card : chunk) {
+                    created.add(new CardCreated(card));
+                }
+                events.publishAll(created);
+            }
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException e1) {
+                throw new DBException("Erro ao tentar reverter o lote de cards.");
+            }
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(stCard);
+            DB.closeStatement(stHistory);
+            DB.closeStatement(stPointer);
+            DB.closeConnection(conn);
+        }
+    }
+
+    @Override
+    public int moveColumnCards(int fromColumnId, int newColumnId) {
+        return moveCards(findUnblockedIdsByColumnId(fromColumnId), newColumnId);
+    }
+
+    // Cards bloqueados, que já estão na coluna de destino ou que passariam do limite WIP dela
+    // são ignorados; devolve quantos foram movidos.
+    @Override
+    public int moveCards(List<Integer> cardIds, int newColumnId) {
+        int moved = 0;
+        int batchSize = Math.max(1, DB.getIntProperty("bulk.batchSize", 500));
+        for (int from = 0; from < cardIds.size(); from += batchSize) {
+            moved += moveChunk(cardIds.subList(from, Math.min(from + batchSize, cardIds.size())), newColumnId);
+        }
+        return moved;
+    }
+
+    private int moveChunk(List<Integer> cardIds, int newColumnId) {
+        HistoryJournal journal = DB.getHistoryJournal();
+        HistoryJournal.Batch history = null;
+        boolean committed = false;
+        Connection conn = null;
+        PreparedStatement stLock = null;
+        PreparedStatement stCloseOpen = null;
+        PreparedStatement stCloseHistory = null;
+        PreparedStatement stInsertHistory = null;
+        PreparedStatement stUpdateCards = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("CardDAO.moveCards");
+            conn.setAutoCommit(false);
+
+            stLock = conn.prepareStatement("SELECT id, column_id, version, open_movement_id FROM cards WHERE id IN ("
+                    + placeholders(cardIds.size()) + ") AND is_blocked = FALSE AND column_id <> ? FOR UPDATE");
+            int index = bindIds(stLock, 1, cardIds);
+            stLock.setInt(index, newColumnId);
+            rs = stLock.executeQuery();
+            List<Integer> eligible = new ArrayList<>();
+            List<int[]> previous = new ArrayList<>();
+            while (rs.next()) {
+                eligible.add(rs.getInt(1));
+                previous.add(new int[] { rs.getInt(2), rs.getInt(3), rs.getInt(4) });
+            }
+            DB.closeResultSet(rs);
+
+            if (eligible.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+
+            // Só entram as vagas livres da coluna de destino. Origens e destino ficam travados
+            // até o commit, então as vagas contadas aqui continuam livres para este lote.
+            Set<Integer> columnIds = new HashSet<>();
+            for (int[] card : previous) {
+                columnIds.add(card[0]);
+            }
+            int room = wipRoom(conn, newColumnId, columnIds);
+            if (eligible.size() > room) {
+                eligible = new ArrayList<>(eligible.subList(0, Math.max(room, 0)));
+                previous = new ArrayList<>(previous.subList(0, eligible.size()));
+            }
+            if (eligible.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+            List<Integer> openIds = new ArrayList<>();
+            for (int[] card : previous) {
+                if (card[2] > 0) {
+                    openIds.add(card[2]);
+                }
+            }
+            // Só cards desbloqueados são movidos em lote.
+            Map<Integer, int[]> counts = new HashMap<>();
+            for (int[] card : previous) {
+                addCount(counts, card[0], -1, 0);
+            }
+            addCount(counts, newColumnId, eligible.size(), 0);
+            if (!adjustCounts(conn, counts)) {
+                throw new SQLException("contador da coluna " + newColumnId + " mudou com a coluna travada.");
+            }
+            String in = placeholders(eligible.size());
+
+            if (journal != null) {
+                history = journal.begin();
+                for (int i = 0; i < eligible.size(); i++) {
+                    history.move(eligible.get(i), previous.get(i)[0], newColumnId, previous.get(i)[1] + 1);
+                }
+                stUpdateCards = conn.prepareStatement("UPDATE cards SET column_id = ?, version = version + 1 WHERE id IN (" + in + ")");
+                stUpdateCards.setInt(1, newColumnId);
+                bindIds(stUpdateCards, 2, eligible);
+                stUpdateCards.executeUpdate();
+            } else {
+                // Fecha pelos ponteiros; se algum card não tinha ponteiro válido, uma busca por card fecha o que sobrou.
+                int closed = 0;
+                if (!openIds.isEmpty()) {
+                    stCloseOpen = conn.prepareStatement("UPDATE card_movement_history SET exit_time = CURRENT_TIMESTAMP "
+                            + "WHERE exit_time IS NULL AND id IN (" + placeholders(openIds.size()) + ")");
+                    bindIds(stCloseOpen, 1, openIds);
+                    closed = stCloseOpen.executeUpdate();
+                }
+                if (closed < eligible.size()) {
+                    stCloseHistory = conn.prepareStatement("UPDATE card_movement_history SET exit_time = CURRENT_TIMESTAMP "
+                            + "WHERE exit_time IS NULL AND card_id IN (" + in + ")");
+                    bindIds(stCloseHistory, 1, eligible);
+                    stCloseHistory.executeUpdate();
+                }
+
+                stInsertHistory = conn.prepareStatement("INSERT INTO card_movement_history (card_id, column_id) "
+                        + "SELECT id, ? FROM cards WHERE id IN (" + in + ")");
+                stInsertHistory.setInt(1, newColumnId);
+                bindIds(stInsertHistory, 2, eligible);
+                stInsertHistory.executeUpdate();
+
+                stUpdateCards = conn.prepareStatement("UPDATE cards SET column_id = ?, version = version + 1, "
+                        + "open_movement_id = (SELECT MAX(h.id) FROM card_movement_history h "
+                        + "WHERE h.card_id = cards.id AND h.column_id = ? AND h.exit_time IS NULL) WHERE id IN (" + in + ")");
+                stUpdateCards.setInt(1, newColumnId);
+                stUpdateCards.setInt(2, newColumnId);
+                bindIds(stUpdateCards, 3, eligible);
+                stUpdateCards.executeUpdate();
+            }
+
+            if (history != null) {
+                history.sync();
+            }
+            conn.commit();
+            committed = true;
+            if (history != null) {
+                history.committed();
+            }
+            if (events.hasSubscribers()) {
+                List<BoardEvent> moves = new ArrayList<>(eligible.size());
+                for (int i = 0; i < eligible.size(); i++) {
+                    moves.add(new CardMoved(eligible.get(i), previous.get(i)[0], newColumnId, previous.get(i)[1] + 1));
+                }
+                events.publishAll(moves);
+            }
+            return eligible.size();
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+                throw new DBException("Erro ao mover cards em lote, transação revertida. " + e.getMessage());
+            } catch (SQLException e1) {
+                throw new DBException("Erro crítico ao tentar reverter a transação. " + e1.getMessage());
+            }
+        } finally {
+            if (history != null && !committed) {
+                history.aborted();
+            }
+            DB.closeResultSet(rs);
+            DB.closeStatement(stLock);
+            DB.closeStatement(stCloseOpen);
+            DB.closeStatement(stCloseHistory);
+            DB.closeStatement(stInsertHistory);
+            DB.closeStatement(stUpdateCards);
+            DB.closeConnection(conn);
+        }
+    }
+
+    // Cards que já estão no estado pedido são ignorados; devolve quantos foram alterados.
+    @Override
+    public int updateBlockStatus(List<Integer> cardIds, boolean isBlocked, String reason) {
+        int updated = 0;
+        int batchSize = Math.max(1, DB.getIntProperty("bulk.batchSize", 500));
+        for (int from = 0; from < cardIds.size(); from += batchSize) {
+            updated += updateBlockChunk(cardIds.subList(from, Math.min(from + batchSize, cardIds.size())), isBlocked, reason);
+        }
+        return updated;
+    }
+
+    private int updateBlockChunk(List<Integer> cardIds, boolean isBlocked, String reason) {
+        HistoryJournal journal = DB.getHistoryJournal();
+        HistoryJournal.Batch history = null;
+        boolean committed = false;
+        Connection conn = null;
+        PreparedStatement stLock = null;
+        PreparedStatement stUpdateCards = null;
+        PreparedStatement stCloseOpen = null;
+        PreparedStatement stHistory = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("CardDAO.updateBlockStatus");
+            conn.setAutoCommit(false);
+
+            stLock = conn.prepareStatement("SELECT id, version, column_id, open_block_id FROM cards WHERE id IN ("
+                    + placeholders(cardIds.size()) + ") AND is_blocked = ? FOR UPDATE");
+            int index = bindIds(stLock, 1, cardIds);
+            stLock.setBoolean(index, !isBlocked);
+            rs = stLock.executeQuery();
+            List<Integer> eligible = new ArrayList<>();
+            List<Integer> versions = new ArrayList<>();
+            List<Integer> columnIds = new ArrayList<>();
+            List<Integer> openIds = new ArrayList<>();
+            while (rs.next()) {
+                eligible.add(rs.getInt(1));
+                versions.add(rs.getInt(2));
+                columnIds.add(rs.getInt(3));
+                if (rs.getInt(4) > 0) {
+                    openIds.add(rs.getInt(4));
+                }
+            }
+            if (eligible.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+            Map<Integer, int[]> counts = new HashMap<>();
+            for (int columnId : columnIds) {
+                addCount(counts, columnId, 0, isBlocked ? 1 : -1);
+            }
+            adjustCounts(conn, counts);
+            String in = placeholders(eligible.size());
+
+            if (journal != null || !isBlocked) {
+                stUpdateCards = conn.prepareStatement("UPDATE cards SET is_blocked = ?, version = version + 1 WHERE id IN (" + in + ")");
+                stUpdateCards.setBoolean(1, isBlocked);
+                bindIds(stUpdateCards, 2, eligible);
+                stUpdateCards.executeUpdate();
+            }
+
+            if (journal != null) {
+                history = journal.begin();
+                for (int i = 0; i < eligible.size(); i++) {
+                    if (isBlocked) {
+                        history.block(eligible.get(i), reason, versions.get(i) + 1);
+                    } else {
+                        history.unblock(eligible.get(i), reason, versions.get(i) + 1);
+                    }
+                }
+                history.sync();
+            } else if (isBlocked) {
+                stHistory = conn.prepareStatement("INSERT INTO card_block_history (card_id, block_reason) "
+                        + "SELECT id, ? FROM cards WHERE id IN (" + in + ")");
+                stHistory.setString(1, reason);
+                bindIds(stHistory, 2, eligible);
+                stHistory.executeUpdate();
+
+                // O ponteiro sai no mesmo UPDATE que bloqueia os cards.
+                stUpdateCards = conn.prepareStatement("UPDATE cards SET is_blocked = TRUE, version = version + 1, "
+                        + "open_block_id = (SELECT MAX(b.id) FROM card_block_history b "
+                        + "WHERE b.card_id = cards.id AND b.unblock_time IS NULL) WHERE id IN (" + in + ")");
+                bindIds(stUpdateCards, 1, eligible);
+                stUpdateCards.executeUpdate();
+            } else {
+                int closed = 0;
+                if (!openIds.isEmpty()) {
+                    stCloseOpen = conn.prepareStatement("UPDATE card_block_history SET unblock_time = CURRENT_TIMESTAMP, "
+                            + "unblock_reason = ? WHERE unblock_time IS NULL AND id IN (" + placeholders(openIds.size()) + ")");
+                    stCloseOpen.setString(1, reason);
+                    bindIds(stCloseOpen, 2, openIds);
+                    closed = stCloseOpen.executeUpdate();
+                }
+                if (closed < eligible.size()) {
+                    stHistory = conn.prepareStatement("UPDATE card_block_history SET unblock_time = CURRENT_TIMESTAMP, "
+                            + "unblock_reason = ? WHERE unblock_time IS NULL AND card_id IN (" + in + ")");
+                    stHistory.setString(1, reason);
+                    bindIds(stHistory, 2, eligible);
+                    stHistory.executeUpdate();
+                }
+            }
+
+            conn.commit();
+            committed = true;
+            if (history != null) {
+                history.committed();
+            }
+            if (events.hasSubscribers()) {
+                List<BoardEvent> changes = new ArrayList<>(eligible.size());
+                for (int i = 0; i < eligible.size(); i++) {
+                    int cardId = eligible.get(i);
+                    int version = versions.get(i) + 1;
+                    changes.add(isBlocked ? new CardBlocked(cardId, columnIds.get(i), reason, version)
+                            : new CardUnblocked(cardId, columnIds.get(i), reason, version));
+                }
+                events.publishAll(changes);
+            }
+            return eligible.size();
+        } catch (SQLException e) {
             try {
-                conn.setAutoCommit(true);
-            } catch (SQLException e) {
-                e.printStackTrace();
+                conn.rollback();
+                throw new DBException("Erro ao atualizar bloqueio em lote, transação revertida. " + e.getMessage());
+            } catch (SQLException e1) {
+                throw new DBException("Erro crítico ao tentar reverter a transação. " + e1.getMessage());
+            }
+        } finally {
+            if (history != null && !committed) {
+                history.aborted();
+            }
+            DB.closeResultSet(rs);
+            DB.closeStatement(stLock);
+            DB.closeStatement(stUpdateCards);
+            DB.closeStatement(stCloseOpen);
+            DB.closeStatement(stHistory);
+            DB.closeConnection(conn);
+        }
+    }
+
+    private List<Integer> findUnblockedIdsByColumnId(int columnId) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("CardDAO.moveColumnCards");
+            st = conn.prepareStatement("SELECT id FROM cards WHERE column_id = ? AND is_blocked = FALSE");
+            st.setInt(1, columnId);
+            rs = st.executeQuery();
+            List<Integer> ids = new ArrayList<>();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
             }
+            return ids;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
         }
     }
 
+    // A lista IN é arredondada para a próxima potência de 2 (repetindo o último id)
+    // para que lotes de tamanhos parecidos reaproveitem o mesmo statement em cache.
+    static String placeholders(int count) {
+        int size = placeholderCount(count);
+        StringBuilder sb = new StringBuilder(size * 3);
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    static int bindIds(PreparedStatement st, int startIndex, List<Integer> ids) throws SQLException {
+        int size = placeholderCount(ids.size());
+        for (int i = 0; i < size; i++) {
+            st.setInt(startIndex + i, ids.get(Math.min(i, ids.size() - 1)));
+        }
+        return startIndex + size;
+    }
+
+    private static int placeholderCount(int count) {
+        return count == 1 ? 1 : Integer.highestOneBit(Math.max(1, count - 1)) << 1;
+    }
+
+    @Override
     public List<Card> findAll() {
+        List<Card> list = new ArrayList<>();
+        forEachCard(list::add);
+        return list;
+    }
+
+    // Percorre todos os cards com um cursor somente-leitura, sem materializar a lista.
+    @Override
+    public void forEachCard(Consumer<Card> action) {
+        stream("CardDAO.forEachCard", "SELECT * FROM cards ORDER BY id", null, action);
+    }
+
+    @Override
+    public void forEachByColumnId(int columnId, Consumer<Card> action) {
+        stream("CardDAO.forEachByColumnId", "SELECT * FROM cards WHERE column_id = ? ORDER BY creation_date DESC, id DESC", columnId, action);
+    }
+
+    private void stream(String operation, String sql, Integer param, Consumer<Card> action) {
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
-            st = conn.prepareStatement("SELECT * FROM cards ORDER BY name");
+            conn = DB.getConnection(operation);
+            st = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            st.setFetchSize(DB.getStreamingFetchSize());
+            if (param != null) {
+                st.setInt(1, param);
+            }
             rs = st.executeQuery();
-            List<Card> list = new ArrayList<>();
             while (rs.next()) {
-                Card card = new Card();
-                card.setID(rs.getInt("id"));
-                card.setTitle(rs.getString("name"));
-                list.add(card);
+                action.accept(instantiateCard(rs));
             }
-            return list;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    // Paginação por keyset em (creation_date, id): after é o último card da página anterior, ou null.
+    @Override
+    public CardPage findPageByColumnId(int columnId, Card after, int limit) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        String sql;
+        if (after == null) {
+            sql = "SELECT * FROM cards WHERE column_id = ? ORDER BY creation_date DESC, id DESC LIMIT ?";
+        } else {
+            sql = "SELECT * FROM cards WHERE column_id = ? "
+                    + "AND (creation_date < ? OR (creation_date = ? AND id < ?)) "
+                    + "ORDER BY creation_date DESC, id DESC LIMIT ?";
+        }
+        try {
+            conn = DB.getConnection("CardDAO.findPageByColumnId");
+            st = conn.prepareStatement(sql);
+            st.setInt(1, columnId);
+            if (after == null) {
+                st.setInt(2, limit + 1);
+            } else {
+                Timestamp cursor = Timestamp.valueOf(after.getCreationDate());
+                st.setTimestamp(2, cursor);
+                st.setTimestamp(3, cursor);
+                st.setInt(4, after.getId());
+                st.setInt(5, limit + 1);
+            }
+            rs = st.executeQuery();
+
+            List<Card> list = new ArrayList<>(limit);
+            boolean hasMore = false;
+            while (rs.next()) {
+                if (list.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                list.add(instantiateCard(rs));
+            }
+            return new CardPage(list, hasMore);
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+        }
+    }
+
+    @Override
+    public int countByColumnId(int columnId) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("CardDAO.countByColumnId");
+            st = conn.prepareStatement("SELECT COUNT(*) FROM cards WHERE column_id = ?");
+            st.setInt(1, columnId);
+            rs = st.executeQuery();
+            rs.next();
+            return rs.getInt(1);
         } catch (SQLException e) {
             throw new DBException(e.getMessage());
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
+            DB.closeConnection(conn);
         }
     }
 
+    @Override
+    // O histórico arquivado não tem chave estrangeira, então sai explicitamente junto com o card.
     public void deleteById(Integer id) {
+        Connection conn = null;
+        PreparedStatement stLock = null;
+        PreparedStatement stArchive = null;
         PreparedStatement st = null;
+        ResultSet rs = null;
         try {
-            st = conn.prepareStatement("DELETE FROM cards WHERE id = ?");
-            st.setInt(1, id);
-            int rows = st.executeUpdate();
-            if (rows == 0) {
+            conn = DB.getConnection("CardDAO.deleteById");
+            conn.setAutoCommit(false);
+            stLock = conn.prepareStatement("SELECT column_id, is_blocked FROM cards WHERE id = ? FOR UPDATE");
+            stLock.setInt(1, id);
+            rs = stLock.executeQuery();
+            if (!rs.next()) {
+                conn.commit();
                 System.out.println("ID do card não encontrado para exclusão.");
+                return;
             }
+            Map<Integer, int[]> counts = new HashMap<>();
+            addCount(counts, rs.getInt(1), -1, rs.getBoolean(2) ? -1 : 0);
+            adjustCounts(conn, counts);
+
+            stArchive = conn.prepareStatement("DELETE FROM card_movement_archive WHERE card_id = ?");
+            stArchive.setInt(1, id);
+            stArchive.executeUpdate();
+            st = conn.prepareStatement("DELETE FROM cards WHERE id = ?");
+            st.setInt(1, id);
+            st.executeUpdate();
+            conn.commit();
+            events.publish(new CardDeleted(id));
         } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException e1) {
+                throw new DBException("Erro ao tentar reverter a exclusão do card.");
+            }
             throw new DBException(e.getMessage());
         } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(stLock);
+            DB.closeStatement(stArchive);
             DB.closeStatement(st);
+            DB.closeConnection(conn);
         }
     }
 
-    public void updateColumn(int cardId, int oldColumnId, int newColumnId) {
+    // Controle otimista: só move se o card ainda estiver na coluna e na versão em que foi
+    // lido. Se outro usuário alterou o card antes, nada é gravado e o resultado é CONFLICT.
+    // Sem o journal, o intervalo aberto é fechado pela chave primária (cards.open_movement_id),
+    // sem depender do tamanho do histórico. Os contadores das duas colunas mudam na mesma transação.
+    @Override
+    public MoveResult updateColumn(Card card, int newColumnId) {
 
-        String updateCardSql = "UPDATE cards SET column_id = ? WHERE id = ?";
-        String updateHistorySql = "UPDATE card_movement_history SET exit_time = CURRENT_TIMESTAMP WHERE card_id = ? AND column_id = ? AND exit_time IS NULL";
+        String lockCardSql = "SELECT open_movement_id, is_blocked FROM cards WHERE id = ? AND column_id = ? AND version = ? FOR UPDATE";
+        String updateCardSql = "UPDATE cards SET column_id = ?, version = version + 1 WHERE id = ?";
         String insertHistorySql = "INSERT INTO card_movement_history (card_id, column_id) VALUES (?, ?)";
+        String moveCardSql = "UPDATE cards SET column_id = ?, version = version + 1, open_movement_id = ? WHERE id = ?";
 
+        HistoryJournal journal = DB.getHistoryJournal();
+        HistoryJournal.Batch history = null;
+        boolean committed = false;
+        Connection conn = null;
+        PreparedStatement stLockCard = null;
         PreparedStatement stUpdateCard = null;
-        PreparedStatement stUpdateHistory = null;
         PreparedStatement stInsertHistory = null;
+        ResultSet rs = null;
 
         try {
+            conn = DB.getConnection("CardDAO.updateColumn");
             conn.setAutoCommit(false);
 
-            stUpdateHistory = conn.prepareStatement(updateHistorySql);
-            stUpdateHistory.setInt(1, cardId);
-            stUpdateHistory.setInt(2, oldColumnId);
-            stUpdateHistory.executeUpdate();
+            stLockCard = conn.prepareStatement(lockCardSql);
+            stLockCard.setInt(1, card.getId());
+            stLockCard.setInt(2, card.getColumnId());
+            stLockCard.setInt(3, card.getVersion());
+            rs = stLockCard.executeQuery();
+            if (!rs.next()) {
+                conn.rollback();
+                return MoveResult.CONFLICT;
+            }
+            int openMovementId = rs.getInt(1);
+            int blocked = rs.getBoolean(2) ? 1 : 0;
 
-            stUpdateCard = conn.prepareStatement(updateCardSql);
-            stUpdateCard.setInt(1, newColumnId);
-            stUpdateCard.setInt(2, cardId);
-            stUpdateCard.executeUpdate();
+            Map<Integer, int[]> counts = new HashMap<>();
+            addCount(counts, card.getColumnId(), -1, -blocked);
+            addCount(counts, newColumnId, 1, blocked);
+            if (!adjustCounts(conn, counts)) {
+                conn.rollback();
+                return MoveResult.WIP_LIMIT_REACHED;
+            }
+
+            if (journal != null) {
+                stUpdateCard = conn.prepareStatement(updateCardSql);
+                stUpdateCard.setInt(1, newColumnId);
+                stUpdateCard.setInt(2, card.getId());
+                stUpdateCard.executeUpdate();
+
+                // Com o journal, o histórico sai da transação: só o evento (com fsync agrupado).
+                history = journal.begin();
+                history.move(card.getId(), card.getColumnId(), newColumnId, card.getVersion() + 1);
+                history.sync();
+            } else {
+                closeMovement(conn, openMovementId, card.getId(), card.getColumnId());
 
-            stInsertHistory = conn.prepareStatement(insertHistorySql);
-            stInsertHistory.setInt(1, cardId);
-            stInsertHistory.setInt(2, newColumnId);
-            stInsertHistory.executeUpdate();
+                stInsertHistory = conn.prepareStatement(insertHistorySql, Statement.RETURN_GENERATED_KEYS);
+                stInsertHistory.setInt(1, card.getId());
+                stInsertHistory.setInt(2, newColumnId);
+                stInsertHistory.executeUpdate();
+
+                stUpdateCard = conn.prepareStatement(moveCardSql);
+                stUpdateCard.setInt(1, newColumnId);
+                stUpdateCard.setInt(2, generatedId(stInsertHistory));
+                stUpdateCard.setInt(3, card.getId());
+                stUpdateCard.executeUpdate();
+            }
 
             conn.commit();
+            committed = true;
+            if (history != null) {
+                history.committed();
+            }
+            events.publish(new CardMoved(card.getId(), card.getColumnId(), newColumnId, card.getVersion() + 1));
+            card.setColumnId(newColumnId);
+            card.setVersion(card.getVersion() + 1);
+            return MoveResult.MOVED;
 
         } catch (SQLException e) {
             try {
@@ -143,44 +808,97 @@ public class CardDAO {
                 throw new DBException("Erro crítico ao tentar reverter a transação. " + e1.getMessage());
             }
         } finally {
+            if (history != null && !committed) {
+                history.aborted();
+            }
+            DB.closeResultSet(rs);
             DB.closeStatement(stUpdateCard);
-            DB.closeStatement(stUpdateHistory);
+            DB.closeStatement(stLockCard);
             DB.closeStatement(stInsertHistory);
-            try {
-                conn.setAutoCommit(true);
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            DB.closeConnection(conn);
         }
     }
 
+    @Override
     public void updateBlockStatus(int cardId, boolean isBlocked, String reason) {
-        String updateCardSql = "UPDATE cards SET is_blocked = ? WHERE id = ?";
-        
+        String updateCardSql = "UPDATE cards SET is_blocked = ?, version = version + 1 WHERE id = ?";
+        String insertBlockSql = "INSERT INTO card_block_history (card_id, block_reason) VALUES (?, ?)";
+        String blockCardSql = "UPDATE cards SET is_blocked = TRUE, version = version + 1, open_block_id = ? WHERE id = ?";
+
+        HistoryJournal journal = DB.getHistoryJournal();
+        HistoryJournal.Batch history = null;
+        boolean committed = false;
+        BoardEvent event = null;
+        Connection conn = null;
         PreparedStatement stUpdateCard = null;
+        PreparedStatement stVersion = null;
         PreparedStatement stHistory = null;
+        ResultSet rs = null;
 
         try {
+            conn = DB.getConnection("CardDAO.updateBlockStatus");
             conn.setAutoCommit(false);
 
-            stUpdateCard = conn.prepareStatement(updateCardSql);
-            stUpdateCard.setBoolean(1, isBlocked);
-            stUpdateCard.setInt(2, cardId);
-            stUpdateCard.executeUpdate();
+            // O estado anterior decide o ajuste do contador de bloqueados da coluna.
+            stVersion = conn.prepareStatement("SELECT column_id, version, is_blocked, open_block_id FROM cards WHERE id = ? FOR UPDATE");
+            stVersion.setInt(1, cardId);
+            rs = stVersion.executeQuery();
+            if (!rs.next()) {
+                conn.commit();
+                return;
+            }
+            int columnId = rs.getInt(1);
+            int version = rs.getInt(2) + 1;
+            boolean wasBlocked = rs.getBoolean(3);
+            int openBlockId = rs.getInt(4);
+            // Já no estado pedido: nada a gravar. Um segundo bloqueio abriria outra linha de
+            // histórico, e o desbloqueio só fecharia a do ponteiro.
+            if (wasBlocked == isBlocked) {
+                conn.commit();
+                return;
+            }
+            Map<Integer, int[]> counts = new HashMap<>();
+            addCount(counts, columnId, 0, isBlocked ? 1 : -1);
+            adjustCounts(conn, counts);
 
-            if (isBlocked) {
-                String insertBlockSql = "INSERT INTO card_block_history (card_id, block_reason) VALUES (?, ?)";
-                stHistory = conn.prepareStatement(insertBlockSql);
+            if (journal == null && isBlocked) {
+                // O bloqueio é aberto antes, para que o UPDATE do card já grave o ponteiro para ele.
+                stHistory = conn.prepareStatement(insertBlockSql, Statement.RETURN_GENERATED_KEYS);
                 stHistory.setInt(1, cardId);
                 stHistory.setString(2, reason);
+                stHistory.executeUpdate();
+
+                stUpdateCard = conn.prepareStatement(blockCardSql);
+                stUpdateCard.setInt(1, generatedId(stHistory));
+                stUpdateCard.setInt(2, cardId);
             } else {
-                String updateBlockSql = "UPDATE card_block_history SET unblock_time = CURRENT_TIMESTAMP, unblock_reason = ? WHERE card_id = ? AND unblock_time IS NULL";
-                stHistory = conn.prepareStatement(updateBlockSql);
-                stHistory.setString(1, reason);
-                stHistory.setInt(2, cardId);
+                stUpdateCard = conn.prepareStatement(updateCardSql);
+                stUpdateCard.setBoolean(1, isBlocked);
+                stUpdateCard.setInt(2, cardId);
             }
-            stHistory.executeUpdate();
+            stUpdateCard.executeUpdate();
+
+            if (journal != null) {
+                history = journal.begin();
+                if (isBlocked) {
+                    history.block(cardId, reason, version);
+                } else {
+                    history.unblock(cardId, reason, version);
+                }
+                history.sync();
+            } else if (!isBlocked) {
+                closeBlock(conn, openBlockId, cardId, reason);
+            }
+            event = isBlocked ? new CardBlocked(cardId, columnId, reason, version)
+                    : new CardUnblocked(cardId, columnId, reason, version);
             conn.commit();
+            committed = true;
+            if (history != null) {
+                history.committed();
+            }
+            if (event != null) {
+                events.publish(event);
+            }
             
         } catch (SQLException e) {
             try {
@@ -190,35 +908,157 @@ public class CardDAO {
                 throw new DBException("Erro crítico ao tentar reverter a transação. " + e1.getMessage());
             }
         } finally {
+            if (history != null && !committed) {
+                history.aborted();
+            }
+            DB.closeResultSet(rs);
             DB.closeStatement(stUpdateCard);
+            DB.closeStatement(stVersion);
             DB.closeStatement(stHistory);
-             try {
-                conn.setAutoCommit(true);
-            } catch (SQLException e) {
-                e.printStackTrace();
+            DB.closeConnection(conn);
+        }
+    }
+    // Fecha o intervalo apontado por openId. Sem ponteiro, ou se ele já não estiver aberto (linhas
+    // gravadas pelo journal não atualizam o ponteiro), cai na busca pelo intervalo aberto do card.
+    private static void closeMovement(Connection conn, int openId, int cardId, int columnId) throws SQLException {
+        PreparedStatement st = null;
+        try {
+            if (openId > 0) {
+                st = conn.prepareStatement("UPDATE card_movement_history SET exit_time = CURRENT_TIMESTAMP WHERE id = ? AND exit_time IS NULL");
+                st.setInt(1, openId);
+                if (st.executeUpdate() > 0) {
+                    return;
+                }
+                DB.closeStatement(st);
+            }
+            st = conn.prepareStatement("UPDATE card_movement_history SET exit_time = CURRENT_TIMESTAMP WHERE card_id = ? AND column_id = ? AND exit_time IS NULL");
+            st.setInt(1, cardId);
+            st.setInt(2, columnId);
+            st.executeUpdate();
+        } finally {
+            DB.closeStatement(st);
+        }
+    }
+
+    private static void closeBlock(Connection conn, int openId, int cardId, String reason) throws SQLException {
+        PreparedStatement st = null;
+        try {
+            if (openId > 0) {
+                st = conn.prepareStatement("UPDATE card_block_history SET unblock_time = CURRENT_TIMESTAMP, unblock_reason = ? WHERE id = ? AND unblock_time IS NULL");
+                st.setString(1, reason);
+                st.setInt(2, openId);
+                if (st.executeUpdate() > 0) {
+                    return;
+                }
+                DB.closeStatement(st);
             }
+            st = conn.prepareStatement("UPDATE card_block_history SET unblock_time = CURRENT_TIMESTAMP, unblock_reason = ? WHERE card_id = ? AND unblock_time IS NULL");
+            st.setString(1, reason);
+            st.setInt(2, cardId);
+            st.executeUpdate();
+        } finally {
+            DB.closeStatement(st);
+        }
+    }
+
+    // Soma (total, bloqueados) à coluna em deltas; as linhas são gravadas depois por adjustCounts.
+    private static void addCount(Map<Integer, int[]> deltas, int columnId, int total, int blocked) {
+        int[] delta = deltas.computeIfAbsent(columnId, id -> new int[2]);
+        delta[0] += total;
+        delta[1] += blocked;
+    }
+
+    // Atualiza card_count/blocked_count na transação da alteração. Deve ser a primeira escrita
+    // depois de travar os cards: o INSERT/UPDATE de linhas que referenciam a coluna (cards,
+    // card_movement_history) confere a chave estrangeira com um lock compartilhado na linha da
+    // coluna, e duas transações com esse lock na mesma coluna entrariam em deadlock ao pedir o
+    // lock exclusivo do contador. Travando aqui primeiro, e em ordem de id, todas as transações
+    // pegam as linhas das colunas na mesma ordem (cards, colunas, depois o resto).
+    // A entrada de cards só é gravada se couber no wip_limit da coluna: o teste e o incremento
+    // são o mesmo UPDATE, avaliado com a linha travada, então duas transações concorrentes não
+    // ocupam a mesma vaga. Devolve false se alguma coluna recusou; quem chamou faz o rollback.
+    static boolean adjustCounts(Connection conn, Map<Integer, int[]> deltas) throws SQLException {
+        PreparedStatement st = null;
+        try {
+            for (Map.Entry<Integer, int[]> entry : new TreeMap<>(deltas).entrySet()) {
+                int[] delta = entry.getValue();
+                if (delta[0] == 0 && delta[1] == 0) {
+                    continue;
+                }
+                if (st == null) {
+                    st = conn.prepareStatement("UPDATE columns SET card_count = card_count + ?, blocked_count = blocked_count + ? "
+                            + "WHERE id = ? AND (? <= 0 OR wip_limit IS NULL OR card_count + ? <= wip_limit)");
+                }
+                st.setInt(1, delta[0]);
+                st.setInt(2, delta[1]);
+                st.setInt(3, entry.getKey());
+                st.setInt(4, delta[0]);
+                st.setInt(5, delta[0]);
+                if (st.executeUpdate() == 0 && delta[0] > 0) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            DB.closeStatement(st);
         }
     }
+
+    // Trava a coluna de destino e as de origem, em ordem de id como em adjustCounts, e devolve
+    // as vagas livres do destino até o limite WIP (Integer.MAX_VALUE se ele não tiver limite).
+    private static int wipRoom(Connection conn, int columnId, Set<Integer> sourceIds) throws SQLException {
+        Set<Integer> ids = new TreeSet<>(sourceIds);
+        ids.add(columnId);
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        int room = Integer.MAX_VALUE;
+        try {
+            st = conn.prepareStatement("SELECT card_count, wip_limit FROM columns WHERE id = ? FOR UPDATE");
+            for (int id : ids) {
+                st.setInt(1, id);
+                rs = st.executeQuery();
+                if (rs.next() && id == columnId) {
+                    int count = rs.getInt(1);
+                    int limit = rs.getInt(2);
+                    room = rs.wasNull() ? Integer.MAX_VALUE : limit - count;
+                }
+                DB.closeResultSet(rs);
+            }
+            return room;
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+        }
+    }
+
+    private static int generatedId(PreparedStatement st) throws SQLException {
+        ResultSet rs = st.getGeneratedKeys();
+        try {
+            if (!rs.next()) {
+                throw new SQLException("Falha ao obter o ID da linha de histórico criada.");
+            }
+            return rs.getInt(1);
+        } finally {
+            DB.closeResultSet(rs);
+        }
+    }
+
+    @Override
     public List<Card> findByColumnId(int columnId){
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         List<Card> list = new ArrayList<>();
-        String sql = "SELECT * FROM cards WHERE column_id = ? ORDER BY creation_date DESC";
+        String sql = "SELECT * FROM cards WHERE column_id = ? ORDER BY creation_date DESC, id DESC";
 
         try {
+            conn = DB.getConnection("CardDAO.findByColumnId");
             st = conn.prepareStatement(sql);
             st.setInt(1, columnId);
             rs = st.executeQuery();
 
             while (rs.next()) {
-                Card card = new Card();
-                card.setID(rs.getInt("id"));
-                card.setTitle(rs.getString("title"));
-                card.setDescription(rs.getString("description"));
-                card.setCreationDate(rs.getTimestamp("creation_date").toLocalDateTime());
-                card.setBlock(rs.getBoolean("is_blocked"));
-                card.setColumnId(rs.getInt("column_id"));
-                list.add(card);
+                list.add(instantiateCard(rs));
             }
             return list;
         } catch (SQLException e) {
@@ -226,25 +1066,22 @@ public class CardDAO {
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
+            DB.closeConnection(conn);
         }
     }
+    @Override
     public Card findById(int cardId) {
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         String sql = "SELECT * FROM cards WHERE id = ?";
         try {
+            conn = DB.getConnection("CardDAO.findById");
             st = conn.prepareStatement(sql);
             st.setInt(1, cardId);
             rs = st.executeQuery();
             if (rs.next()){
-                Card card = new Card();
-                card.setID(rs.getInt("id"));
-                card.setTitle(rs.getString("title"));
-                card.setDescription(rs.getString("description"));
-                card.setCreationDate(rs.getTimestamp("creation_date").toLocalDateTime());
-                card.setBlock(rs.getBoolean("is_blocked"));
-                card.setColumnId(rs.getInt("column_id"));
-                return card;
+                return instantiateCard(rs);
             }
             return null;
         } catch (SQLException e) {
@@ -252,6 +1089,47 @@ public class CardDAO {
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
+            DB.closeConnection(conn);
         }
     }
+
+    // Sem ordem garantida; ids inexistentes são ignorados.
+    @Override
+    public List<Card> findByIds(List<Integer> cardIds) {
+        List<Card> list = new ArrayList<>(cardIds.size());
+        if (cardIds.isEmpty()) {
+            return list;
+        }
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("CardDAO.findByIds");
+            st = conn.prepareStatement("SELECT * FROM cards WHERE id IN (" + placeholders(cardIds.size()) + ")");
+            bindIds(st, 1, cardIds);
+            rs = st.executeQuery();
+            while (rs.next()) {
+                list.add(instantiateCard(rs));
+            }
+            return list;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+        }
+    }
+
+    public static Card instantiateCard(ResultSet rs) throws SQLException {
+        Card card = new Card();
+        card.setID(rs.getInt("id"));
+        card.setTitle(rs.getString("title"));
+        card.setDescription(rs.getString("description"));
+        card.setCreationDate(rs.getTimestamp("creation_date").toLocalDateTime());
+        card.setBlock(rs.getBoolean("is_blocked"));
+        card.setColumnId(rs.getInt("column_id"));
+        card.setVersion(rs.getInt("version"));
+        return card;
+    }
 }
@@ -0,0 +1,72 @@
+package com.taskboard.dao;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.taskboard.model.Board;
+import com.taskboard.model.BoardCardCounts;
+import com.taskboard.model.BoardSnapshot;
+import com.taskboard.model.Card;
+import com.taskboard.model.CardPage;
+import com.taskboard.model.CreateResult;
+import com.taskboard.model.MoveResult;
+
+/**
+ * Operações sobre cards. A implementação vem de {@code cards.store}:
+ * {@code database} ({@link CardDAO}, padrão) ou {@code memory}
+ * ({@link com.taskboard.store.InMemoryCardStore}, todos os cards em memória e
+ * gravação assíncrona no banco).
+ */
+public interface CardRepository {
+
+    CreateResult create(Card card);
+
+    int createAll(List<Card> cards);
+
+    int moveColumnCards(int fromColumnId, int newColumnId);
+
+    int moveCards(List<Integer> cardIds, int newColumnId);
+
+    int updateBlockStatus(List<Integer> cardIds, boolean isBlocked, String reason);
+
+    List<Card> findAll();
+
+    void forEachCard(Consumer<Card> action);
+
+    void forEachByColumnId(int columnId, Consumer<Card> action);
+
+    CardPage findPageByColumnId(int columnId, Card after, int limit);
+
+    int countByColumnId(int columnId);
+
+    void deleteById(Integer id);
+
+    MoveResult updateColumn(Card card, int newColumnId);
+
+    void updateBlockStatus(int cardId, boolean isBlocked, String reason);
+
+    List<Card> findByColumnId(int columnId);
+
+    Card findById(int cardId);
+
+    List<Card> findByIds(List<Integer> cardIds);
+
+    // Primeira página (board.pageSize) e total de cards de cada coluna do board.
+    BoardSnapshot loadSnapshot(Board board);
+
+    // Total e bloqueados de cada coluna do board (e as somas por tipo), sem ler os cards.
+    BoardCardCounts loadCardCounts(int boardId);
+
+    void forEachCardVersion(int boardId, BoardSnapshotDAO.CardVersionConsumer action);
+
+    /**
+     * Espera as alterações já aceitas chegarem ao banco. No-op quando elas são
+     * gravadas na própria chamada.
+     */
+    default void flush() {
+    }
+
+    static CardRepository getInstance() {
+        return CardRepositoryProvider.get();
+    }
+}
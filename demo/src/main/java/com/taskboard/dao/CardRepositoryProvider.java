@@ -0,0 +1,38 @@
+package com.taskboard.dao;
+
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+import com.taskboard.store.InMemoryCardStore;
+
+final class CardRepositoryProvider {
+
+    private static volatile CardRepository instance;
+
+    private CardRepositoryProvider() {
+    }
+
+    static CardRepository get() {
+        CardRepository current = instance;
+        if (current == null) {
+            synchronized (CardRepositoryProvider.class) {
+                current = instance;
+                if (current == null) {
+                    current = create(DB.getProperty("cards.store", "database"));
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static CardRepository create(String store) {
+        switch (store) {
+            case "database":
+                return new CardDAO();
+            case "memory":
+                return InMemoryCardStore.open();
+            default:
+                throw new DBException("Valor inválido para cards.store: '" + store + "' (use database ou memory).");
+        }
+    }
+}
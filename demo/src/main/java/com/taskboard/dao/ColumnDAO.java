@@ -5,56 +5,113 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.taskboard.cache.BoardCache;
 import com.taskboard.db.DB;
 import com.taskboard.db.DBException;
+import com.taskboard.events.ColumnCreated;
+import com.taskboard.events.ColumnLimitChanged;
+import com.taskboard.events.ColumnsDeleted;
+import com.taskboard.events.ColumnsReordered;
+import com.taskboard.events.EventBus;
+import com.taskboard.model.BoardCardCounts;
+import com.taskboard.model.BoardColumns;
 import com.taskboard.model.Column;
 import com.taskboard.model.ColumnType;
 
 public class ColumnDAO {
 
-    private Connection conn;
+    // Os eventos saem depois de invalidar o BoardCache, para que quem recarregar o board já veja as colunas novas.
+    private final EventBus events = EventBus.getInstance();
 
-    public ColumnDAO(Connection conn) {
-        this.conn = conn;
-    }
+    // Distância entre colunas vizinhas na criação e no rebalanceamento; mover uma coluna usa o meio do intervalo.
+    static final int ORDER_GAP = 1024;
 
+    // A coluna entra no fim do board; a ordem informada em column é ignorada e substituída pela gravada.
     public void create(Column column) {
+        Connection conn = null;
         PreparedStatement st = null;
-        String sql = "INSERT INTO columns (name, board_id, column_order, type) VALUES (?, ?, ?, ?)";
+        ResultSet rs = null;
+        boolean created = false;
+        String sql = "INSERT INTO columns (name, board_id, column_order, type, wip_limit) VALUES (?, ?, ?, ?, ?)";
         try {
+            conn = DB.getConnection("ColumnDAO.create");
+            conn.setAutoCommit(false);
+            lockBoard(conn, column.getBoardId());
+            List<Column> ordered = loadByBoardId(conn, column.getBoardId());
+            int last = ordered.isEmpty() ? 0 : ordered.get(ordered.size() - 1).getColumnOrder();
+            if (last > Integer.MAX_VALUE - ORDER_GAP) {
+                rebalance(conn, ordered);
+                last = ordered.get(ordered.size() - 1).getColumnOrder();
+            }
+
             st = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             st.setString(1, column.getName());
             st.setInt(2, column.getBoardId());
-            st.setInt(3, column.getColumnOrder());
+            st.setInt(3, last + ORDER_GAP);
             st.setString(4, column.getType().name());
+            st.setObject(5, column.getWipLimit(), Types.INTEGER);
 
             int rowsAffected = st.executeUpdate();
 
             if (rowsAffected > 0) {
-                ResultSet rs = st.getGeneratedKeys();
+                rs = st.getGeneratedKeys();
                 if (rs.next()) {
                     column.setID(rs.getInt(1));
                 }
-                DB.closeResultSet(rs);
+                column.setColumnOrder(last + ORDER_GAP);
             } else {
                 throw new DBException("Erro inesperado! Nenhuma linha afetada.");
             }
+            conn.commit();
+            created = true;
         } catch (SQLException e) {
+            rollback(conn);
             throw new DBException(e.getMessage());
+        } catch (DBException e) {
+            rollback(conn);
+            throw e;
         } finally {
+            DB.closeResultSet(rs);
             DB.closeStatement(st);
+            DB.closeConnection(conn);
+            BoardCache.getInstance().invalidate(column.getBoardId());
+            if (created) {
+                events.publish(new ColumnCreated(column.getBoardId(), column.getId()));
+            }
         }
     }
 
     public List<Column> findByBoardId(int boardId) {
+        return new ArrayList<>(findBoardColumns(boardId).getColumns());
+    }
+
+    public BoardColumns findBoardColumns(int boardId) {
+        return BoardCache.getInstance().getColumns(boardId, () -> new BoardColumns(boardId, loadByBoardId(boardId)));
+    }
+
+    private List<Column> loadByBoardId(int boardId) {
+        Connection conn = null;
+        try {
+            conn = DB.getConnection("ColumnDAO.findBoardColumns");
+            return loadByBoardId(conn, boardId);
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeConnection(conn);
+        }
+    }
+
+    private List<Column> loadByBoardId(Connection conn, int boardId) throws SQLException {
         PreparedStatement st = null;
         ResultSet rs = null;
         List<Column> list = new ArrayList<>();
-
-
         try {
             st = conn.prepareStatement("SELECT * FROM columns WHERE board_id = ? ORDER BY column_order");
             st.setInt(1, boardId);
@@ -67,12 +124,11 @@ public class ColumnDAO {
                 column.setBoardId(rs.getInt("board_id"));
                 column.setColumnOrder(rs.getInt("column_order"));
                 column.setType(ColumnType.valueOf(rs.getString("type")));
+                column.setWipLimit(wipLimit(rs));
 
                 list.add(column);
             }
             return list;
-        } catch (SQLException e) {
-            throw new DBException(e.getMessage());
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
@@ -80,11 +136,14 @@ public class ColumnDAO {
     }
 
     public void deleteById(Integer id) {
+        Connection conn = null;
         PreparedStatement st = null;
+        int rows = 0;
         try {
+            conn = DB.getConnection("ColumnDAO.deleteById");
             st = conn.prepareStatement("DELETE FROM columns WHERE board_id = ?");
             st.setInt(1, id);
-            int rows = st.executeUpdate();
+            rows = st.executeUpdate();
             if (rows == 0) {
                 System.out.println("ID da coluna não encontrado para exclusão.");
             }
@@ -92,52 +151,312 @@ public class ColumnDAO {
             throw new DBException(e.getMessage());
         } finally {
             DB.closeStatement(st);
+            DB.closeConnection(conn);
+            BoardCache.getInstance().invalidate(id);
+            if (rows > 0) {
+                events.publish(new ColumnsDeleted(id));
+            }
         }
     }
 
-    public void updateOrder(List<Column> columns){
+    /**
+     * Move a coluna pendente columnId para a posição position (a partir de 0)
+     * entre as colunas pendentes do board, gravando só a linha dela: a nova
+     * ordem é o meio do intervalo entre as vizinhas. Quando não sobra intervalo,
+     * o board inteiro é renumerado antes, na mesma transação.
+     */
+    public void moveColumn(int boardId, int columnId, int position) {
+        Connection conn = null;
         PreparedStatement st = null;
-        String sql = "UPDATE columns SET column_order = ? WHERE board_id = ?";
+        boolean moved = false;
         try {
-             conn.setAutoCommit(false);
+            conn = DB.getConnection("ColumnDAO.moveColumn");
+            conn.setAutoCommit(false);
+            // Movimentações e criações de colunas do mesmo board esperam umas pelas outras aqui.
+            lockBoard(conn, boardId);
+            List<Column> ordered = loadByBoardId(conn, boardId);
+
+            Column column = null;
+            int current = -1;
+            List<Column> pending = new ArrayList<>();
+            for (Column col : ordered) {
+                if (col.getId() == columnId) {
+                    column = col;
+                    current = pending.size();
+                } else if (col.getType() == ColumnType.PENDENTE) {
+                    pending.add(col);
+                }
+            }
+            if (column == null || column.getType() != ColumnType.PENDENTE) {
+                throw new DBException("A coluna " + columnId + " não é uma coluna pendente do board " + boardId + ".");
+            }
+            if (position < 0 || position > pending.size()) {
+                throw new DBException("Posição inválida: " + position + " (o board tem " + (pending.size() + 1)
+                        + " colunas pendentes).");
+            }
 
-            st = conn.prepareStatement(sql);
+            if (position == current) {
+                conn.commit();
+                return;
+            }
+
+            ordered.remove(column);
+            int next = position < pending.size() ? ordered.indexOf(pending.get(position))
+                    : ordered.indexOf(pending.get(pending.size() - 1)) + 1;
+            int order = orderBetween(ordered, next);
+            if (order == 0) {
+                ordered.add(next, column);
+                rebalance(conn, ordered);
+            } else {
+                st = conn.prepareStatement("UPDATE columns SET column_order = ? WHERE id = ?");
+                st.setInt(1, order);
+                st.setInt(2, columnId);
+                st.executeUpdate();
+            }
+            conn.commit();
+            moved = true;
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new DBException("Erro ao reordenar colunas. Rollback executado. " + e.getMessage());
+        } catch (DBException e) {
+            rollback(conn);
+            throw e;
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+            BoardCache.getInstance().invalidate(boardId);
+            if (moved) {
+                events.publish(new ColumnsReordered(boardId));
+            }
+        }
+    }
 
-        // A ordem começa em 2, pois a coluna 1 é sempre a INICIAL
-            int order = 2; 
+    // Ordem para uma coluna inserida antes de ordered[next] (ou no fim), ou 0 se não houver espaço.
+    private static int orderBetween(List<Column> ordered, int next) {
+        long low = next > 0 ? ordered.get(next - 1).getColumnOrder() : 0;
+        long high = next < ordered.size() ? ordered.get(next).getColumnOrder() : low + 2L * ORDER_GAP;
+        long order = (low + high) >>> 1;
+        return order > low && order < high && order <= Integer.MAX_VALUE ? (int) order : 0;
+    }
 
-            for (Column col : columns) {
+    // Volta a espaçar as colunas de ORDER_GAP em ORDER_GAP. As ordens passam antes por
+    // valores negativos (sempre livres) para que o índice único não acuse colisões no meio do caminho.
+    private static void rebalance(Connection conn, List<Column> ordered) throws SQLException {
+        if (ordered.isEmpty()) {
+            return;
+        }
+        PreparedStatement st = null;
+        try {
+            st = conn.prepareStatement("UPDATE columns SET column_order = ? WHERE id = ?");
+            for (Column col : ordered) {
+                st.setInt(1, -col.getId());
+                st.setInt(2, col.getId());
+                st.addBatch();
+            }
+            st.executeBatch();
+            int order = ORDER_GAP;
+            for (Column col : ordered) {
                 st.setInt(1, order);
                 st.setInt(2, col.getId());
                 st.addBatch();
-                order++;
+                col.setColumnOrder(order);
+                order += ORDER_GAP;
             }
             st.executeBatch();
-            conn.commit();
-        } catch (SQLException e) {
+        } finally {
+            DB.closeStatement(st);
+        }
+        System.out.println("Ordem das colunas do board " + ordered.get(0).getBoardId() + " rebalanceada.");
+    }
+
+    private static void lockBoard(Connection conn, int boardId) throws SQLException {
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            st = conn.prepareStatement("SELECT id FROM boards WHERE id = ? AND deleted_at IS NULL FOR UPDATE");
+            st.setInt(1, boardId);
+            rs = st.executeQuery();
+            if (!rs.next()) {
+                throw new DBException("Board " + boardId + " não encontrado.");
+            }
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        if (conn != null) {
             try {
                 conn.rollback();
-                throw new DBException("Erro ao reordenar colunas. Rollback executado. " + e.getMessage());
-            } catch (SQLException e1) {
-            throw new DBException("Erro de execução no rollback" + e1.getMessage());
+            } catch (SQLException e) {
+                throw new DBException("Erro de execução no rollback: " + e.getMessage());
+            }
+        }
+    }
+
+    // Contadores mantidos pelo CardDAO; não passam pelo BoardCache, que só guarda a estrutura das colunas.
+    public BoardCardCounts findCardCounts(int boardId) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        BoardCardCounts counts = new BoardCardCounts(boardId);
+        try {
+            conn = DB.getConnection("ColumnDAO.findCardCounts");
+            st = conn.prepareStatement("SELECT id, type, card_count, blocked_count FROM columns WHERE board_id = ?");
+            st.setInt(1, boardId);
+            rs = st.executeQuery();
+            while (rs.next()) {
+                counts.add(rs.getInt(1), ColumnType.valueOf(rs.getString(2)), rs.getInt(3), rs.getInt(4));
             }
+            return counts;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
         } finally {
-            try {
-                conn.setAutoCommit(true);
-            } catch (SQLException e){
-                e.printStackTrace();
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Recalcula os contadores das colunas do board a partir da tabela cards e
+     * corrige os que divergirem; devolve quantas colunas foram corrigidas. As
+     * linhas das colunas ficam travadas durante a contagem: alterações de cards
+     * concorrentes esperam e aplicam o seu incremento sobre o valor corrigido.
+     */
+    public int repairCardCounts(int boardId) {
+        Connection conn = null;
+        PreparedStatement stLock = null;
+        PreparedStatement stCount = null;
+        PreparedStatement stUpdate = null;
+        ResultSet rs = null;
+        int repaired = 0;
+        try {
+            conn = DB.getConnection("ColumnDAO.repairCardCounts");
+            conn.setAutoCommit(false);
+
+            stLock = conn.prepareStatement("SELECT id, card_count, blocked_count FROM columns WHERE board_id = ? ORDER BY id FOR UPDATE");
+            stLock.setInt(1, boardId);
+            rs = stLock.executeQuery();
+            Map<Integer, int[]> stored = new LinkedHashMap<>();
+            while (rs.next()) {
+                stored.put(rs.getInt(1), new int[] { rs.getInt(2), rs.getInt(3) });
+            }
+            DB.closeResultSet(rs);
+
+            stCount = conn.prepareStatement("SELECT c.column_id, COUNT(*), SUM(CASE WHEN c.is_blocked = TRUE THEN 1 ELSE 0 END) "
+                    + "FROM cards c JOIN columns col ON c.column_id = col.id WHERE col.board_id = ? GROUP BY c.column_id");
+            stCount.setInt(1, boardId);
+            rs = stCount.executeQuery();
+            Map<Integer, int[]> actual = new HashMap<>();
+            while (rs.next()) {
+                actual.put(rs.getInt(1), new int[] { rs.getInt(2), rs.getInt(3) });
+            }
+
+            stUpdate = conn.prepareStatement("UPDATE columns SET card_count = ?, blocked_count = ? WHERE id = ?");
+            for (Map.Entry<Integer, int[]> entry : stored.entrySet()) {
+                int[] counts = actual.getOrDefault(entry.getKey(), new int[2]);
+                if (counts[0] != entry.getValue()[0] || counts[1] != entry.getValue()[1]) {
+                    System.out.println("Contadores da coluna " + entry.getKey() + " corrigidos: " + entry.getValue()[0] + "/"
+                            + entry.getValue()[1] + " -> " + counts[0] + "/" + counts[1] + " (total/bloqueados).");
+                    stUpdate.setInt(1, counts[0]);
+                    stUpdate.setInt(2, counts[1]);
+                    stUpdate.setInt(3, entry.getKey());
+                    stUpdate.executeUpdate();
+                    repaired++;
+                }
             }
+            conn.commit();
+            return repaired;
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new DBException("Erro ao recalcular os contadores de cards. " + e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(stLock);
+            DB.closeStatement(stCount);
+            DB.closeStatement(stUpdate);
+            DB.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Define o limite WIP de uma coluna pendente ou inicial; null remove o
+     * limite. Um limite abaixo da quantidade atual de cards é aceito: nada sai
+     * da coluna, só deixam de entrar cards até ela ficar abaixo do limite.
+     */
+    public void setWipLimit(int boardId, int columnId, Integer wipLimit) {
+        if (wipLimit != null && wipLimit <= 0) {
+            throw new DBException("O limite WIP deve ser maior que zero.");
+        }
+        Column column = findBoardColumns(boardId).findById(columnId);
+        if (column == null) {
+            throw new DBException("A coluna " + columnId + " não pertence ao board " + boardId + ".");
+        }
+        if (column.getType() == ColumnType.FINAL || column.getType() == ColumnType.CANCELAMENTO) {
+            throw new DBException("Colunas do tipo " + column.getType() + " não aceitam limite WIP.");
+        }
+        Connection conn = null;
+        PreparedStatement st = null;
+        boolean changed = false;
+        try {
+            conn = DB.getConnection("ColumnDAO.setWipLimit");
+            st = conn.prepareStatement("UPDATE columns SET wip_limit = ? WHERE id = ? AND board_id = ?");
+            st.setObject(1, wipLimit, Types.INTEGER);
+            st.setInt(2, columnId);
+            st.setInt(3, boardId);
+            changed = st.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+            BoardCache.getInstance().invalidate(boardId);
+            if (changed) {
+                events.publish(new ColumnLimitChanged(boardId, columnId, wipLimit));
+            }
+        }
+    }
+
+    private static Integer wipLimit(ResultSet rs) throws SQLException {
+        int limit = rs.getInt("wip_limit");
+        return rs.wasNull() ? null : limit;
+    }
+
+    // Board de cada coluna existente (id da coluna -> id do board), sem os boards excluídos aguardando remoção.
+    public Map<Integer, Integer> findBoardIdsByColumn() {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        Map<Integer, Integer> boards = new HashMap<>();
+        try {
+            conn = DB.getConnection("ColumnDAO.findBoardIdsByColumn");
+            st = conn.prepareStatement("SELECT c.id, c.board_id FROM columns c JOIN boards b ON b.id = c.board_id "
+                    + "WHERE b.deleted_at IS NULL");
+            rs = st.executeQuery();
+            while (rs.next()) {
+                boards.put(rs.getInt(1), rs.getInt(2));
+            }
+            return boards;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
             DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
         }
     }
 
     public List<Column> findPendentByBoardId(int boardId) {
+    Connection conn = null;
     PreparedStatement st = null;
     ResultSet rs = null;
     List<Column> list = new ArrayList<>();
     String sql = "SELECT * FROM columns WHERE board_id = ? AND type = 'PENDENTE' ORDER BY column_order";
 
     try {
+        conn = DB.getConnection("ColumnDAO.findPendentByBoardId");
         st = conn.prepareStatement(sql);
         st.setInt(1, boardId);
         rs = st.executeQuery();
@@ -149,6 +468,7 @@ public class ColumnDAO {
             col.setBoardId(rs.getInt("board_id"));
             col.setColumnOrder(rs.getInt("column_order"));
             col.setType(ColumnType.valueOf(rs.getString("type")));
+            col.setWipLimit(wipLimit(rs));
             list.add(col);
         }
         return list;
@@ -157,6 +477,7 @@ public class ColumnDAO {
     } finally {
         DB.closeStatement(st);
         DB.closeResultSet(rs);
+        DB.closeConnection(conn);
     }
 }
 }
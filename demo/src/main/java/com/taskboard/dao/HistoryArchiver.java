@@ -0,0 +1,252 @@
+package com.taskboard.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+
+/**
+ * Move para card_movement_archive, a cada {@code history.archive.intervalMinutes},
+ * os intervalos de card_movement_history encerrados há mais de
+ * {@code history.archive.days} dias, em lotes de {@code history.archive.batchSize}
+ * linhas (cada lote copia e apaga na mesma transação). Assim a tabela quente
+ * fica com os intervalos abertos e os recentes, e o índice usado para fechar o
+ * intervalo aberto de um card não cresce com o tempo de uso.
+ *
+ * Só são arquivados intervalos já somados no resumo do relatório de tempo
+ * (até a marca d'água de report_watermark). O horizonte do arquivo é gravado
+ * antes de mover as linhas, então um relatório que começa depois dele nunca
+ * precisa do arquivo, e uma passada interrompida termina na próxima.
+ */
+public class HistoryArchiver {
+
+    private static HistoryArchiver running;
+
+    private final int days;
+    private final long intervalMillis;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final Thread thread;
+    private boolean stopped;
+    private volatile long archivedRows;
+    private volatile Timestamp horizon;
+
+    private HistoryArchiver(int days, long intervalMillis, int batchSize, long pauseMillis) {
+        this.days = days;
+        this.intervalMillis = intervalMillis;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        thread = new Thread(this::loop, "taskboard-history-archiver");
+        thread.setDaemon(true);
+    }
+
+    // Com history.archive.days=0 (ou negativo) o histórico não é arquivado.
+    public static synchronized void start() {
+        int days = DB.getIntProperty("history.archive.days", 90);
+        if (running == null && days > 0) {
+            running = new HistoryArchiver(days,
+                    TimeUnit.MINUTES.toMillis(Math.max(1, DB.getIntProperty("history.archive.intervalMinutes", 60))),
+                    Math.max(1, DB.getIntProperty("history.archive.batchSize", 5000)),
+                    DB.getIntProperty("history.archive.pauseMs", 50));
+            running.thread.start();
+        }
+    }
+
+    // Termina o lote em andamento e para.
+    public static void stop() {
+        HistoryArchiver archiver;
+        synchronized (HistoryArchiver.class) {
+            archiver = running;
+            running = null;
+        }
+        if (archiver != null) {
+            archiver.close();
+        }
+    }
+
+    public static synchronized String getStatus() {
+        if (running == null) {
+            return "Arquivamento do histórico [desativado]";
+        }
+        return String.format("Arquivamento do histórico [após %d dias, horizonte=%s, linhas arquivadas=%d]",
+                running.days, running.horizon == null ? "-" : running.horizon.toLocalDateTime(), running.archivedRows);
+    }
+
+    private void close() {
+        synchronized (this) {
+            stopped = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Sem interrupt: interromper uma thread no meio de uma chamada JDBC pode fechar a conexão (ou o arquivo do H2).
+    private synchronized boolean pause(long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long remaining = millis;
+        while (!stopped && remaining > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped = true;
+            }
+            remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        }
+        return !stopped;
+    }
+
+    private void loop() {
+        do {
+            try {
+                archive();
+            } catch (DBException e) {
+                System.out.println("ERRO ao arquivar o histórico de movimentações: " + e.getMessage());
+            }
+        } while (pause(intervalMillis));
+    }
+
+    private void archive() {
+        new ReportDAO().refreshColumnTimes();
+        Timestamp limit = advanceHorizon();
+        horizon = limit;
+        long start = System.nanoTime();
+        long moved = 0;
+        int rows;
+        do {
+            rows = moveBatch(limit);
+            moved += rows;
+            archivedRows += rows;
+        } while (rows == batchSize && pause(pauseMillis));
+        if (moved > 0) {
+            System.out.println("Histórico arquivado: " + moved + " intervalos encerrados até " + limit.toLocalDateTime()
+                    + " em " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+        }
+    }
+
+    // Novo horizonte: o menor entre agora - days e a marca d'água do resumo; nunca recua.
+    private Timestamp advanceHorizon() {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("HistoryArchiver.advanceHorizon");
+            conn.setAutoCommit(false);
+
+            st = conn.prepareStatement("INSERT IGNORE INTO report_watermark (name, last_exit_time) VALUES (?, ?)");
+            st.setString(1, ReportDAO.ARCHIVE_HORIZON);
+            st.setTimestamp(2, Timestamp.valueOf("1970-01-02 00:00:00"));
+            st.executeUpdate();
+            DB.closeStatement(st);
+
+            st = conn.prepareStatement("SELECT name, last_exit_time FROM report_watermark WHERE name IN (?, ?) FOR UPDATE");
+            st.setString(1, ReportDAO.ARCHIVE_HORIZON);
+            st.setString(2, ReportDAO.WATERMARK);
+            rs = st.executeQuery();
+            Timestamp current = null;
+            Timestamp summarized = null;
+            while (rs.next()) {
+                if (rs.getString(1).equals(ReportDAO.ARCHIVE_HORIZON)) {
+                    current = rs.getTimestamp(2);
+                } else {
+                    summarized = rs.getTimestamp(2);
+                }
+            }
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            rs = null;
+
+            st = conn.prepareStatement("SELECT CURRENT_TIMESTAMP");
+            rs = st.executeQuery();
+            rs.next();
+            Timestamp cutoff = new Timestamp(rs.getTimestamp(1).getTime() - TimeUnit.DAYS.toMillis(days));
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            rs = null;
+
+            if (summarized != null && summarized.before(cutoff)) {
+                cutoff = summarized;
+            }
+            if (cutoff.after(current)) {
+                st = conn.prepareStatement("UPDATE report_watermark SET last_exit_time = ? WHERE name = ?");
+                st.setTimestamp(1, cutoff);
+                st.setString(2, ReportDAO.ARCHIVE_HORIZON);
+                st.executeUpdate();
+                current = cutoff;
+            }
+            conn.commit();
+            return current;
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new DBException("Erro ao avançar o horizonte do arquivo de histórico: " + e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    private int moveBatch(Timestamp limit) {
+        Connection conn = null;
+        PreparedStatement stSelect = null;
+        PreparedStatement stCopy = null;
+        PreparedStatement stDelete = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("HistoryArchiver.moveBatch");
+            conn.setAutoCommit(false);
+            stSelect = conn.prepareStatement("SELECT id FROM card_movement_history WHERE exit_time <= ? LIMIT ?");
+            stSelect.setTimestamp(1, limit);
+            stSelect.setInt(2, batchSize);
+            rs = stSelect.executeQuery();
+            List<Integer> ids = new ArrayList<>();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+            if (ids.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+            String in = CardDAO.placeholders(ids.size());
+            stCopy = conn.prepareStatement("INSERT INTO card_movement_archive (id, card_id, column_id, entry_time, exit_time) "
+                    + "SELECT id, card_id, column_id, entry_time, exit_time FROM card_movement_history WHERE id IN (" + in + ")");
+            CardDAO.bindIds(stCopy, 1, ids);
+            stCopy.executeUpdate();
+            stDelete = conn.prepareStatement("DELETE FROM card_movement_history WHERE id IN (" + in + ")");
+            CardDAO.bindIds(stDelete, 1, ids);
+            stDelete.executeUpdate();
+            conn.commit();
+            return ids.size();
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new DBException("Erro ao arquivar um lote do histórico: " + e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(stSelect);
+            DB.closeStatement(stCopy);
+            DB.closeStatement(stDelete);
+            DB.closeConnection(conn);
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                throw new DBException("Erro de execução no rollback: " + e.getMessage());
+            }
+        }
+    }
+}
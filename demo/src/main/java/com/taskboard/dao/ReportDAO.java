@@ -0,0 +1,444 @@
+package com.taskboard.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+import com.taskboard.journal.HistoryJournal;
+import com.taskboard.model.BlockReport;
+import com.taskboard.model.BoardColumns;
+import com.taskboard.model.Column;
+import com.taskboard.model.FlowReport;
+import com.taskboard.model.TimeReport;
+
+/**
+ * Relatórios de tempo por coluna/card e de bloqueios.
+ *
+ * Os intervalos já encerrados de card_movement_history são somados de forma
+ * incremental em report_card_column_time: cada atualização processa apenas as
+ * linhas cujo exit_time passou da marca d'água gravada em report_watermark.
+ * Intervalos ainda abertos (e os encerrados depois da marca) são somados na
+ * hora, então o relatório nunca relê o histórico inteiro.
+ *
+ * Intervalos antigos, já somados, podem ter sido movidos para
+ * card_movement_archive pelo {@link HistoryArchiver}; só o relatório de fluxo
+ * lê o histórico por período, e só consulta o arquivo quando o período começa
+ * antes do horizonte do arquivo.
+ */
+public class ReportDAO {
+
+    static final String WATERMARK = "card_column_time";
+    // Em report_watermark: intervalos encerrados até aqui podem estar em card_movement_archive.
+    static final String ARCHIVE_HORIZON = "movement_archive";
+
+    private static final Map<String, CachedReport> BLOCK_REPORT_CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedReport> eldest) {
+            return size() > 64;
+        }
+    };
+
+    private final ColumnDAO columnDAO = new ColumnDAO();
+
+    // Devolve quantos pares (card, coluna) foram atualizados no resumo.
+    public int refreshColumnTimes() {
+        drainPendingHistory();
+        // Transações que fecham um intervalo podem confirmar um pouco depois do
+        // CURRENT_TIMESTAMP gravado; a folga evita que a marca passe por elas.
+        int lagSeconds = DB.getIntProperty("report.watermarkLagSeconds", 60);
+
+        Connection conn = null;
+        PreparedStatement stInit = null;
+        PreparedStatement stLock = null;
+        PreparedStatement stNow = null;
+        PreparedStatement stAggregate = null;
+        PreparedStatement stAdvance = null;
+        ResultSet rs = null;
+        String sqlAggregate = "INSERT INTO report_card_column_time "
+                + "(card_id, column_id, board_id, total_seconds, visits, first_entry, last_exit) "
+                + "SELECT h.card_id, h.column_id, col.board_id, "
+                + "SUM(TIMESTAMPDIFF(SECOND, h.entry_time, h.exit_time)), COUNT(*), MIN(h.entry_time), MAX(h.exit_time) "
+                + "FROM card_movement_history h JOIN columns col ON col.id = h.column_id "
+                + "WHERE h.exit_time > ? AND h.exit_time <= ? "
+                + "GROUP BY h.card_id, h.column_id, col.board_id "
+                + "ON DUPLICATE KEY UPDATE total_seconds = total_seconds + VALUES(total_seconds), "
+                + "visits = visits + VALUES(visits), "
+                + "first_entry = LEAST(first_entry, VALUES(first_entry)), "
+                + "last_exit = GREATEST(last_exit, VALUES(last_exit))";
+
+        try {
+            conn = DB.getConnection("ReportDAO.refreshColumnTimes");
+            conn.setAutoCommit(false);
+
+            stInit = conn.prepareStatement("INSERT IGNORE INTO report_watermark (name, last_exit_time) VALUES (?, ?)");
+            stInit.setString(1, WATERMARK);
+            stInit.setTimestamp(2, Timestamp.valueOf("1970-01-02 00:00:00"));
+            stInit.executeUpdate();
+
+            // O FOR UPDATE serializa atualizações concorrentes, que senão somariam o mesmo intervalo duas vezes.
+            stLock = conn.prepareStatement("SELECT last_exit_time FROM report_watermark WHERE name = ? FOR UPDATE");
+            stLock.setString(1, WATERMARK);
+            rs = stLock.executeQuery();
+            rs.next();
+            Timestamp from = rs.getTimestamp(1);
+            DB.closeResultSet(rs);
+
+            stNow = conn.prepareStatement("SELECT CURRENT_TIMESTAMP");
+            rs = stNow.executeQuery();
+            rs.next();
+            Timestamp to = new Timestamp(rs.getTimestamp(1).getTime() - lagSeconds * 1000L);
+
+            if (!to.after(from)) {
+                conn.commit();
+                return 0;
+            }
+
+            stAggregate = conn.prepareStatement(sqlAggregate);
+            stAggregate.setTimestamp(1, from);
+            stAggregate.setTimestamp(2, to);
+            int rows = stAggregate.executeUpdate();
+
+            stAdvance = conn.prepareStatement("UPDATE report_watermark SET last_exit_time = ? WHERE name = ?");
+            stAdvance.setTimestamp(1, to);
+            stAdvance.setString(2, WATERMARK);
+            stAdvance.executeUpdate();
+
+            conn.commit();
+            return rows;
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+                throw new DBException("Erro ao atualizar o resumo de tempos, transação revertida. " + e.getMessage());
+            } catch (SQLException e1) {
+                throw new DBException("Erro crítico ao tentar reverter a transação. " + e1.getMessage());
+            }
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(stInit);
+            DB.closeStatement(stLock);
+            DB.closeStatement(stNow);
+            DB.closeStatement(stAggregate);
+            DB.closeStatement(stAdvance);
+            DB.closeConnection(conn);
+        }
+    }
+
+    public TimeReport timeReport(int boardId, int slowestCards) {
+        refreshColumnTimes();
+        BoardColumns columns = columnDAO.findBoardColumns(boardId);
+        TimeReport report = new TimeReport(boardId);
+
+        String sqlSummary = "SELECT column_id, SUM(total_seconds), SUM(visits) FROM report_card_column_time "
+                + "WHERE board_id = ? GROUP BY column_id";
+        String sqlLive = "SELECT h.column_id, SUM(TIMESTAMPDIFF(SECOND, h.entry_time, COALESCE(h.exit_time, CURRENT_TIMESTAMP))), "
+                + "COUNT(*), SUM(CASE WHEN h.exit_time IS NULL THEN 1 ELSE 0 END) "
+                + "FROM card_movement_history h JOIN columns col ON col.id = h.column_id "
+                + "WHERE col.board_id = ? AND (h.exit_time IS NULL OR h.exit_time > "
+                + "(SELECT last_exit_time FROM report_watermark WHERE name = ?)) "
+                + "GROUP BY h.column_id";
+        String completedFrom = "FROM cards c JOIN columns col ON col.id = c.column_id "
+                + "JOIN card_movement_history h ON h.card_id = c.id AND h.column_id = c.column_id AND h.exit_time IS NULL "
+                + "WHERE col.board_id = ? AND col.type = 'FINAL'";
+        String startedAt = "COALESCE((SELECT MIN(r.first_entry) FROM report_card_column_time r "
+                + "JOIN columns rc ON rc.id = r.column_id WHERE r.card_id = c.id AND rc.type <> 'INICIAL'), h.entry_time)";
+        String sqlAverages = "SELECT COUNT(*), AVG(TIMESTAMPDIFF(SECOND, c.creation_date, h.entry_time)), "
+                + "AVG(TIMESTAMPDIFF(SECOND, " + startedAt + ", h.entry_time)) " + completedFrom;
+        String sqlSlowest = "SELECT c.id, c.title, h.entry_time, TIMESTAMPDIFF(SECOND, c.creation_date, h.entry_time) AS lead_seconds, "
+                + "TIMESTAMPDIFF(SECOND, " + startedAt + ", h.entry_time) AS cycle_seconds "
+                + completedFrom + " ORDER BY lead_seconds DESC LIMIT ?";
+
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("ReportDAO.timeReport");
+            Map<Integer, long[]> totals = new HashMap<>();
+
+            st = conn.prepareStatement(sqlSummary);
+            st.setInt(1, boardId);
+            rs = st.executeQuery();
+            while (rs.next()) {
+                long[] t = totals.computeIfAbsent(rs.getInt(1), k -> new long[3]);
+                t[0] += rs.getLong(2);
+                t[1] += rs.getLong(3);
+            }
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+
+            st = conn.prepareStatement(sqlLive);
+            st.setInt(1, boardId);
+            st.setString(2, WATERMARK);
+            rs = st.executeQuery();
+            while (rs.next()) {
+                long[] t = totals.computeIfAbsent(rs.getInt(1), k -> new long[3]);
+                t[0] += rs.getLong(2);
+                t[1] += rs.getLong(3);
+                t[2] += rs.getLong(4);
+            }
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+
+            for (Column column : columns.getColumns()) {
+                long[] t = totals.getOrDefault(column.getId(), new long[3]);
+                report.getColumnTimes().add(new TimeReport.ColumnTime(column, t[0], t[1], (int) t[2]));
+            }
+
+            st = conn.prepareStatement(sqlAverages);
+            st.setInt(1, boardId);
+            rs = st.executeQuery();
+            if (rs.next()) {
+                report.setCompletedCount(rs.getInt(1));
+                report.setAverageLeadSeconds(rs.getDouble(2));
+                report.setAverageCycleSeconds(rs.getDouble(3));
+            }
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+
+            st = conn.prepareStatement(sqlSlowest);
+            st.setInt(1, boardId);
+            st.setInt(2, slowestCards);
+            rs = st.executeQuery();
+            while (rs.next()) {
+                report.getCompletedCards().add(new TimeReport.CardTime(rs.getInt(1), rs.getString(2),
+                        rs.getTimestamp(3).toLocalDateTime(), rs.getLong(4), rs.getLong(5)));
+            }
+            return report;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    public FlowReport flowReport(int boardId, LocalDateTime from, LocalDateTime to) {
+        drainPendingHistory();
+        BoardColumns columns = columnDAO.findBoardColumns(boardId);
+        FlowReport report = new FlowReport(boardId, from, to);
+        String sqlHorizon = "SELECT last_exit_time FROM report_watermark WHERE name = ?";
+
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("ReportDAO.flowReport");
+            st = conn.prepareStatement(sqlHorizon);
+            st.setString(1, ARCHIVE_HORIZON);
+            rs = st.executeQuery();
+            Timestamp horizon = rs.next() ? rs.getTimestamp(1) : null;
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            rs = null;
+            st = null;
+
+            Map<Integer, long[]> totals = new HashMap<>();
+            addFlow(conn, "card_movement_history", boardId, from, to, totals);
+            // Um intervalo arquivado terminou até o horizonte; só entra no período se terminou depois de from.
+            if (horizon != null && horizon.after(Timestamp.valueOf(from))) {
+                addFlow(conn, "card_movement_archive", boardId, from, to, totals);
+                report.setArchiveRead(true);
+            }
+            for (Column column : columns.getColumns()) {
+                long[] t = totals.getOrDefault(column.getId(), new long[3]);
+                report.getColumns().add(new FlowReport.ColumnFlow(column, t[0], t[1], t[2]));
+            }
+            return report;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    // Soma, por coluna, os intervalos de table que se sobrepõem a [from, to).
+    private static void addFlow(Connection conn, String table, int boardId, LocalDateTime from, LocalDateTime to,
+                                Map<Integer, long[]> totals) throws SQLException {
+        String sql = "SELECT h.column_id, SUM(CASE WHEN h.entry_time >= ? THEN 1 ELSE 0 END), "
+                + "SUM(CASE WHEN h.exit_time <= ? THEN 1 ELSE 0 END), "
+                + "SUM(TIMESTAMPDIFF(SECOND, GREATEST(h.entry_time, ?), LEAST(COALESCE(h.exit_time, ?), ?))) "
+                + "FROM " + table + " h JOIN columns col ON col.id = h.column_id "
+                + "WHERE col.board_id = ? AND h.entry_time < ? AND (h.exit_time IS NULL OR h.exit_time > ?) "
+                + "GROUP BY h.column_id";
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            st = conn.prepareStatement(sql);
+            st.setTimestamp(1, start);
+            st.setTimestamp(2, end);
+            st.setTimestamp(3, start);
+            st.setTimestamp(4, end);
+            st.setTimestamp(5, end);
+            st.setInt(6, boardId);
+            st.setTimestamp(7, end);
+            st.setTimestamp(8, start);
+            rs = st.executeQuery();
+            while (rs.next()) {
+                long[] t = totals.computeIfAbsent(rs.getInt(1), k -> new long[3]);
+                t[0] += rs.getLong(2);
+                t[1] += rs.getLong(3);
+                t[2] += rs.getLong(4);
+            }
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+        }
+    }
+
+    /**
+     * Relatório de bloqueios do board na janela [from, to], calculado em uma
+     * única passada (em fluxo) sobre card_block_history. A memória usada não
+     * depende do tamanho do histórico: só os {@code topCards} cards mais
+     * bloqueados e um número fixo de motivos são mantidos.
+     */
+    public BlockReport blockReport(int boardId, LocalDateTime from, LocalDateTime to, int topCards, boolean useCache) {
+        if (!useCache) {
+            return loadBlockReport(boardId, from, to, topCards);
+        }
+        String key = boardId + "|" + from + "|" + to + "|" + topCards;
+        long now = System.currentTimeMillis();
+        synchronized (BLOCK_REPORT_CACHE) {
+            CachedReport cached = BLOCK_REPORT_CACHE.get(key);
+            if (cached != null && cached.expiresAt > now) {
+                return cached.report;
+            }
+        }
+        BlockReport report = loadBlockReport(boardId, from, to, topCards);
+        long ttl = DB.getIntProperty("report.blockCacheTtlSeconds", 60) * 1000L;
+        synchronized (BLOCK_REPORT_CACHE) {
+            BLOCK_REPORT_CACHE.put(key, new CachedReport(report, now + ttl));
+        }
+        return report;
+    }
+
+    // Com cards.store=memory ou com o journal de histórico ativo, o relatório espera as
+    // alterações já aceitas chegarem ao banco.
+    private static void drainPendingHistory() {
+        CardRepository.getInstance().flush();
+        HistoryJournal journal = DB.getHistoryJournal();
+        if (journal != null) {
+            journal.drain();
+        }
+    }
+
+    private BlockReport loadBlockReport(int boardId, LocalDateTime from, LocalDateTime to, int topCards) {
+        drainPendingHistory();
+        BlockReport report = new BlockReport(boardId, from, to);
+        SpaceSavingCounter reasons = new SpaceSavingCounter(Math.max(10, DB.getIntProperty("report.reasonCounters", 100)));
+        PriorityQueue<BlockReport.CardBlockTime> top = new PriorityQueue<>(
+                Comparator.comparingLong(BlockReport.CardBlockTime::getBlockedSeconds));
+        long windowStart = from.atZone(ZoneId.systemDefault()).toEpochSecond();
+        long windowEnd = to.atZone(ZoneId.systemDefault()).toEpochSecond();
+
+        String sql = "SELECT b.card_id, c.title, col.name, c.is_blocked, b.block_time, b.unblock_time, b.block_reason "
+                + "FROM card_block_history b JOIN cards c ON c.id = b.card_id JOIN columns col ON col.id = c.column_id "
+                + "WHERE col.board_id = ? AND b.block_time < ? AND (b.unblock_time IS NULL OR b.unblock_time > ?) "
+                + "ORDER BY b.card_id";
+
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("ReportDAO.blockReport");
+            st = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            st.setFetchSize(DB.getStreamingFetchSize());
+            st.setInt(1, boardId);
+            st.setTimestamp(2, Timestamp.valueOf(to));
+            st.setTimestamp(3, Timestamp.valueOf(from));
+            rs = st.executeQuery();
+
+            int cardId = -1;
+            String title = null;
+            String columnName = null;
+            boolean blockedNow = false;
+            long cardSeconds = 0;
+            int cardBlocks = 0;
+            long totalSeconds = 0;
+            long blockCount = 0;
+            int openBlocks = 0;
+
+            while (rs.next()) {
+                int rowCardId = rs.getInt(1);
+                if (rowCardId != cardId) {
+                    if (cardId != -1) {
+                        offer(top, topCards, new BlockReport.CardBlockTime(cardId, title, columnName, cardSeconds, cardBlocks, blockedNow));
+                    }
+                    cardId = rowCardId;
+                    title = rs.getString(2);
+                    columnName = rs.getString(3);
+                    blockedNow = rs.getBoolean(4);
+                    cardSeconds = 0;
+                    cardBlocks = 0;
+                }
+
+                long blockStart = rs.getTimestamp(5).getTime() / 1000;
+                Timestamp unblock = rs.getTimestamp(6);
+                if (unblock == null) {
+                    openBlocks++;
+                }
+                long blockEnd = unblock == null ? windowEnd : unblock.getTime() / 1000;
+                long seconds = Math.max(0, Math.min(blockEnd, windowEnd) - Math.max(blockStart, windowStart));
+
+                cardSeconds += seconds;
+                cardBlocks++;
+                totalSeconds += seconds;
+                blockCount++;
+                reasons.add(rs.getString(7));
+            }
+            if (cardId != -1) {
+                offer(top, topCards, new BlockReport.CardBlockTime(cardId, title, columnName, cardSeconds, cardBlocks, blockedNow));
+            }
+
+            report.setTotalBlockedSeconds(totalSeconds);
+            report.setBlockCount(blockCount);
+            report.setOpenBlocks(openBlocks);
+            report.getTopReasons().addAll(reasons.top(DB.getIntProperty("report.topReasons", 5)));
+            List<BlockReport.CardBlockTime> cards = new ArrayList<>(top);
+            cards.sort(Comparator.comparingLong(BlockReport.CardBlockTime::getBlockedSeconds).reversed());
+            report.getCards().addAll(cards);
+            return report;
+        } catch (SQLException e) {
+            throw new DBException(e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    private static void offer(PriorityQueue<BlockReport.CardBlockTime> top, int limit, BlockReport.CardBlockTime card) {
+        if (top.size() < limit) {
+            top.add(card);
+        } else if (limit > 0 && top.peek().getBlockedSeconds() < card.getBlockedSeconds()) {
+            top.poll();
+            top.add(card);
+        }
+    }
+
+    private static class CachedReport {
+        private final BlockReport report;
+        private final long expiresAt;
+
+        CachedReport(BlockReport report, long expiresAt) {
+            this.report = report;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
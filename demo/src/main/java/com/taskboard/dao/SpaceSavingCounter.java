@@ -0,0 +1,55 @@
+package com.taskboard.dao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.taskboard.model.BlockReport;
+
+/**
+ * Contador aproximado dos itens mais frequentes (algoritmo Space-Saving) com
+ * no máximo {@code capacity} entradas, independente de quantos itens distintos
+ * passarem por ele. Itens com frequência real acima de n / capacity sempre
+ * aparecem no resultado.
+ */
+class SpaceSavingCounter {
+
+    private final int capacity;
+    private final Map<String, long[]> counters = new HashMap<>();
+
+    SpaceSavingCounter(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(String item) {
+        long[] counter = counters.get(item);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new long[] { 1, 0 });
+            return;
+        }
+        String minItem = null;
+        long minCount = Long.MAX_VALUE;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (entry.getValue()[0] < minCount) {
+                minCount = entry.getValue()[0];
+                minItem = entry.getKey();
+            }
+        }
+        counters.remove(minItem);
+        counters.put(item, new long[] { minCount + 1, minCount });
+    }
+
+    List<BlockReport.ReasonCount> top(int limit) {
+        List<BlockReport.ReasonCount> list = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            list.add(new BlockReport.ReasonCount(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        list.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return list.size() > limit ? new ArrayList<>(list.subList(0, limit)) : list;
+    }
+}
@@ -0,0 +1,440 @@
+package com.taskboard.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.taskboard.metrics.Metrics;
+
+/**
+ * Pool limitado de conexões JDBC.
+ *
+ * Cada chamada a {@link #borrow()} devolve um proxy da conexão física; fechar o
+ * proxy devolve a conexão ao pool em vez de encerrá-la. Conexões ociosas são
+ * validadas no empréstimo, removidas após o tempo de ociosidade (respeitando o
+ * tamanho mínimo) e empréstimos que passam do limite configurado são
+ * reportados como possíveis vazamentos. Cada conexão física mantém seu próprio
+ * {@link StatementCache}.
+ */
+public class ConnectionPool {
+
+    private final StorageBackend backend;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private int total = 0;
+    private boolean shutdown = false;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong invalidCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    public ConnectionPool(StorageBackend backend, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int validationTimeoutSeconds, int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new DBException("Configuração de pool inválida: min=" + minSize + ", max=" + maxSize);
+        }
+        this.backend = backend;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "taskboard-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, leakThresholdMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+    }
+
+    public Connection borrow() {
+        long start = System.nanoTime();
+        long remaining = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        PooledConnection pc = null;
+
+        while (pc == null) {
+            boolean create = false;
+            lock.lock();
+            try {
+                while (idle.isEmpty() && total >= maxSize && !shutdown) {
+                    if (remaining <= 0) {
+                        timeoutCount.incrementAndGet();
+                        throw new DBException("Tempo esgotado aguardando conexão do pool (" + borrowTimeoutMillis
+                                + " ms, " + borrowed.size() + " em uso).");
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                if (shutdown) {
+                    throw new DBException("O pool de conexões foi encerrado.");
+                }
+                if (!idle.isEmpty()) {
+                    pc = idle.pop();
+                } else {
+                    total++;
+                    create = true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DBException("Interrompido aguardando conexão do pool.");
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                pc = newConnection();
+            } else if (!isValid(pc)) {
+                invalidCount.incrementAndGet();
+                destroy(pc);
+                pc = null;
+            }
+        }
+
+        long waited = System.nanoTime() - start;
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        Metrics.getInstance().recordConnectionWait(waited);
+
+        pc.borrowedAt = System.nanoTime();
+        pc.borrowTrace = leakThresholdMillis > 0 ? new Throwable("Conexão emprestada aqui") : null;
+        pc.leakReported = false;
+        borrowed.add(pc);
+        return pc.lease();
+    }
+
+    private void release(PooledConnection pc) {
+        borrowed.remove(pc);
+        if (pc.leakReported) {
+            System.out.println("Conexão reportada como vazamento foi devolvida após "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pc.borrowedAt) + " ms.");
+        }
+        try {
+            if (pc.physical.isClosed()) {
+                destroy(pc);
+                return;
+            }
+            if (!pc.physical.getAutoCommit()) {
+                Metrics.getInstance().recordRollback();
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            destroy(pc);
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (shutdown) {
+                closeQuietly(pc);
+                total--;
+                return;
+            }
+            pc.lastUsed = System.nanoTime();
+            idle.push(pc);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PooledConnection newConnection() {
+        try {
+            return new PooledConnection(backend.connect());
+        } catch (SQLException e) {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw new DBException("Erro de conexão com o banco de dados: " + e.getMessage());
+        }
+    }
+
+    private boolean isValid(PooledConnection pc) {
+        try {
+            return pc.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pc) {
+        closeQuietly(pc);
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeQuietly(PooledConnection pc) {
+        pc.statements.closeAll();
+        try {
+            pc.physical.close();
+        } catch (SQLException e) {
+            // A conexão já está sendo descartada.
+        }
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (shutdown || total >= minSize) {
+                    return;
+                }
+                total++;
+            } finally {
+                lock.unlock();
+            }
+            PooledConnection pc;
+            try {
+                pc = newConnection();
+            } catch (DBException e) {
+                return;
+            }
+            lock.lock();
+            try {
+                pc.lastUsed = System.nanoTime();
+                idle.addLast(pc);
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void housekeep() {
+        long now = System.nanoTime();
+
+        lock.lock();
+        try {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && total > minSize) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastUsed > TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis)) {
+                    it.remove();
+                    closeQuietly(pc);
+                    total--;
+                    evictedCount.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pc : borrowed) {
+                long heldMillis = TimeUnit.NANOSECONDS.toMillis(now - pc.borrowedAt);
+                if (!pc.leakReported && heldMillis > leakThresholdMillis) {
+                    pc.leakReported = true;
+                    leakCount.incrementAndGet();
+                    System.out.println("AVISO: possível vazamento de conexão, emprestada há " + heldMillis + " ms.");
+                    if (pc.borrowTrace != null) {
+                        pc.borrowTrace.printStackTrace(System.out);
+                    }
+                }
+            }
+        }
+
+        fillToMinimum();
+    }
+
+    public void shutdown() {
+        housekeeper.shutdownNow();
+        lock.lock();
+        try {
+            shutdown = true;
+            for (PooledConnection pc : idle) {
+                closeQuietly(pc);
+                total--;
+            }
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTotalCount() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = borrowCount.get();
+        return count == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public long getInvalidCount() {
+        return invalidCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    public long getStatementCacheHits() {
+        return StatementCache.getHitCount();
+    }
+
+    public long getStatementCacheMisses() {
+        return StatementCache.getMissCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pool [ativas=%d, ociosas=%d, total=%d/%d, empréstimos=%d, timeouts=%d, "
+                        + "espera média=%.2f ms, espera máx=%.2f ms, inválidas=%d, removidas=%d, vazamentos=%d, "
+                        + "statements em cache: acertos=%d, falhas=%d]",
+                getActiveCount(), getIdleCount(), getTotalCount(), maxSize, getBorrowCount(), getTimeoutCount(),
+                getAverageWaitMillis(), getMaxWaitMillis(), getInvalidCount(), getEvictedCount(), getLeakCount(),
+                getStatementCacheHits(), getStatementCacheMisses());
+    }
+
+    private class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private volatile long lastUsed;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowTrace;
+        private volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize);
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new Lease(this));
+        }
+    }
+
+    /**
+     * Handle entregue a quem pegou a conexão emprestada. Depois de fechado,
+     * qualquer uso falha, mesmo que a conexão física já esteja com outro dono.
+     */
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean closed = false;
+
+        Lease(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pc.physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Conexão já devolvida ao pool.");
+                    }
+                    if (method.getName().equals("prepareStatement")) {
+                        if (args.length == 1) {
+                            return pc.statements.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                        }
+                        if (args.length == 2 && args[1] instanceof Integer) {
+                            return pc.statements.prepare((String) args[0], (Integer) args[1]);
+                        }
+                    }
+                    try {
+                        return method.invoke(pc.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -1,57 +1,249 @@
 package com.taskboard.db;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
 
+import com.taskboard.journal.HistoryJournal;
+import com.taskboard.metrics.Metrics;
+
 public class DB {
 
-    private static Connection conn = null;
+    private static final String DEFAULT_EMBEDDED_PATH = "data/taskboard";
+    private static final String[] CLASSPATH_CONFIG = { "db.properties", "com/resources/db.properties" };
+    private static final Path[] SOURCE_CONFIG = {
+        Paths.get("demo", "src", "main", "java", "com", "resources", "db.properties"),
+        Paths.get("src", "main", "java", "com", "resources", "db.properties"),
+    };
+
+    private static ConnectionPool pool = null;
+    private static StorageBackend backend = null;
+    private static Properties properties = null;
+    private static volatile HistoryJournal historyJournal = null;
+    private static volatile boolean metricsEnabled = false;
+
+    private static synchronized Properties getProperties() {
+        if (properties == null) {
+            properties = loadProperties();
+        }
+        return properties;
+    }
+
+    // Substitui a configuração lida de db.properties (benchmarks, ferramentas, testes manuais).
+    public static synchronized void configure(Properties props) {
+        closeConnection();
+        properties = props;
+    }
 
+    // Ordem de busca: -Dtaskboard.config, db.properties no classpath e, por fim, o
+    // caminho do código-fonte (a partir da raiz do repositório ou do módulo demo).
     private static Properties loadProperties() {
-        try (FileInputStream fs = new FileInputStream("demo\\src\\main\\java\\com\\resources\\db.properties")) {
+        String configured = System.getProperty("taskboard.config");
+        if (configured != null) {
+            return loadFile(Paths.get(configured));
+        }
+        for (String resource : CLASSPATH_CONFIG) {
+            try (InputStream in = DB.class.getClassLoader().getResourceAsStream(resource)) {
+                if (in != null) {
+                    Properties props = new Properties();
+                    props.load(in);
+                    return props;
+                }
+            } catch (IOException e) {
+                throw new DBException("Erro ao ler " + resource + " do classpath: " + e.getMessage());
+            }
+        }
+        for (Path path : SOURCE_CONFIG) {
+            if (Files.isRegularFile(path)) {
+                return loadFile(path);
+            }
+        }
+        System.out.println("db.properties não encontrado; usando o banco embutido em "
+                + Paths.get(DEFAULT_EMBEDDED_PATH).toAbsolutePath() + ".");
+        return new Properties();
+    }
+
+    private static Properties loadFile(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
             Properties props = new Properties();
-            props.load(fs);
+            props.load(in);
             return props;
         } catch (IOException e) {
-            throw new DBException(e.getMessage());
+            throw new DBException("Erro ao ler " + path + ": " + e.getMessage());
         }
     }
 
-    public static Connection getConnection() {
-        if (conn == null) {
+    // Sem db.backend, um dburl configurado indica o MySQL; sem ele, o banco embutido.
+    private static StorageBackend createBackend() {
+        String url = getProperty("dburl", null);
+        String name = getProperty("db.backend", url != null ? "mysql" : "embedded").trim();
+        switch (name) {
+            case "mysql":
+                return new MySQLBackend(url, getProperty("user", null), getProperty("password", null));
+            case "embedded":
+                return new EmbeddedBackend(getProperty("embedded.path", DEFAULT_EMBEDDED_PATH),
+                        getIntProperty("stream.fetchSize", 1000));
+            default:
+                throw new DBException("Valor inválido para db.backend: '" + name + "' (use mysql ou embedded).");
+        }
+    }
+
+    private static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            long start = System.nanoTime();
+            StorageBackend createdBackend = createBackend();
+            ConnectionPool created = new ConnectionPool(createdBackend,
+                    getIntProperty("pool.minSize", 2),
+                    getIntProperty("pool.maxSize", 10),
+                    getIntProperty("pool.borrowTimeoutMs", 5000),
+                    getIntProperty("pool.idleTimeoutMs", 600000),
+                    getIntProperty("pool.leakThresholdMs", 60000),
+                    getIntProperty("pool.validationTimeoutSeconds", 2),
+                    getIntProperty("pool.statementCacheSize", 64));
             try {
-                Properties props = loadProperties();
-                String url = props.getProperty("dburl");
-                String user = props.getProperty("user");
-                String password = props.getProperty("password");
+                prepareSchema(created, createdBackend);
+            } catch (DBException e) {
+                created.shutdown();
+                throw e;
+            }
+            pool = created;
+            backend = createdBackend;
+            configureMetrics();
+            try {
+                openHistoryJournal();
+            } catch (DBException e) {
+                pool = null;
+                backend = null;
+                created.shutdown();
+                throw e;
+            }
+            System.out.println("Banco " + createdBackend + " pronto em "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        }
+        return pool;
+    }
 
-                if (url == null || user == null || password == null) {
-                    throw new DBException("As propriedades 'dburl', 'user' e 'password' devem estar definidas em db.properties.");
-                }
-                conn = DriverManager.getConnection(url, user, password);
-            } catch (SQLException e) {
-                throw new DBException("Erro de conexão com o banco de dados: " + e.getMessage());
+    // Mesmo com o journal desativado, um journal deixado por uma execução anterior é reaplicado.
+    private static void openHistoryJournal() {
+        boolean enabled = Boolean.parseBoolean(getProperty("history.journal.enabled", "false"));
+        Path dir = Paths.get(getProperty("history.journal.dir", "journal"));
+        if (!enabled && !Files.exists(dir.resolve(HistoryJournal.FILE_NAME))) {
+            return;
+        }
+        HistoryJournal journal = HistoryJournal.open(dir,
+                getIntProperty("history.journal.batchSize", 1000),
+                getIntProperty("history.journal.flushIntervalMs", 200),
+                getIntProperty("history.journal.maxBytes", 64 * 1024 * 1024));
+        if (enabled) {
+            historyJournal = journal;
+        } else {
+            journal.close();
+        }
+    }
+
+    // Journal de histórico ativo, ou null quando o histórico é gravado na própria transação.
+    public static HistoryJournal getHistoryJournal() {
+        getPool();
+        return historyJournal;
+    }
+
+    private static void configureMetrics() {
+        metricsEnabled = Boolean.parseBoolean(getProperty("metrics.enabled", "false"));
+        if (metricsEnabled) {
+            Metrics metrics = Metrics.getInstance();
+            metrics.setSlowQueryThresholdMillis(getIntProperty("metrics.slowQueryMs", 500));
+            metrics.startDump(Paths.get(getProperty("metrics.dumpFile", "taskboard-metrics.txt")),
+                    getIntProperty("metrics.dumpIntervalSeconds", 60));
+        }
+    }
+
+    private static void prepareSchema(ConnectionPool pool, StorageBackend backend) {
+        Connection conn = pool.borrow();
+        try {
+            if (Boolean.parseBoolean(getProperty("db.migrate", "true"))) {
+                Migrator.migrate(conn, backend);
+            }
+            if (Boolean.parseBoolean(getProperty("db.explainCheck", "true"))) {
+                QueryPlanChecker.check(conn, backend);
             }
+        } finally {
+            closeConnection(conn);
         }
-        return conn;
     }
 
-    public static void closeConnection() {
+    public static String getProperty(String key, String defaultValue) {
+        return getProperties().getProperty(key, defaultValue);
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = getProperties().getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new DBException("Valor inválido para '" + key + "' em db.properties: " + value);
+        }
+    }
+
+    public static int getStreamingFetchSize() {
+        return getBackend().getStreamingFetchSize();
+    }
+
+    public static synchronized StorageBackend getBackend() {
+        getPool();
+        return backend;
+    }
+
+    // Conexão para a operação "Classe.metodo" do DAO, nome usado nas métricas.
+    public static Connection getConnection(String operation) {
+        Connection conn = getPool().borrow();
+        return metricsEnabled ? InstrumentedConnection.wrap(conn, operation) : conn;
+    }
+
+    // Para ferramentas e benchmarks; as métricas dessas conexões ficam em "desconhecido".
+    public static Connection getConnection() {
+        return getConnection("desconhecido");
+    }
+
+    public static String getMetricsReport() {
+        return Metrics.getInstance().dump();
+    }
+
+    public static String getPoolStats() {
+        return getPool().toString();
+    }
+
+    public static void closeConnection(Connection conn) {
         if (conn != null) {
             try {
                 conn.close();
-                conn = null;
             } catch (SQLException e) {
                 throw new DBException(e.getMessage());
             }
         }
     }
 
+    public static synchronized void closeConnection() {
+        if (historyJournal != null) {
+            historyJournal.close();
+            historyJournal = null;
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+            backend = null;
+            Metrics.getInstance().stopDump();
+        }
+    }
+
     public static void closeStatement(Statement st) {
         if (st != null) {
             try {
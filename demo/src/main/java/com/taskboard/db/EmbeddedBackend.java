@@ -0,0 +1,66 @@
+package com.taskboard.db;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Banco H2 embutido no processo, num arquivo local ({@code embedded.path},
+ * padrão data/taskboard), sem servidor para instalar. Roda no modo MySQL, então
+ * as migrações e os DAOs são os mesmos. Com {@code embedded.path=mem:nome} o
+ * banco fica só em memória (benchmarks, CI).
+ *
+ * Só um processo abre o arquivo por vez.
+ */
+public class EmbeddedBackend implements StorageBackend {
+
+    private static final String MODE = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+    private final String url;
+    private final int fetchSize;
+
+    public EmbeddedBackend(String path, int fetchSize) {
+        if (path.startsWith("mem:")) {
+            url = "jdbc:h2:" + path + MODE + ";DB_CLOSE_DELAY=-1";
+        } else {
+            url = "jdbc:h2:file:" + Paths.get(path).toAbsolutePath() + MODE;
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public String getName() {
+        return "embedded";
+    }
+
+    @Override
+    public Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, "sa", "");
+    }
+
+    @Override
+    public int getStreamingFetchSize() {
+        return fetchSize;
+    }
+
+    @Override
+    public boolean supportsAdvisoryLocks() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsExplainCheck() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsFullText() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "H2 embutido (" + url.substring(0, url.indexOf(';')) + ")";
+    }
+}
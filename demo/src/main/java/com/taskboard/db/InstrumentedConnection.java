@@ -0,0 +1,206 @@
+package com.taskboard.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import com.taskboard.metrics.Metrics;
+import com.taskboard.metrics.OperationStats;
+
+/**
+ * Envolve a conexão entregue a um método de DAO e alimenta as
+ * {@link Metrics}: o tempo total do empréstimo vai para o histograma do
+ * método, cada execução de statement é cronometrada (as lentas são logadas com
+ * os parâmetros), as linhas lidas/alteradas são somadas e commits, rollbacks e
+ * erros de SQL são contados.
+ *
+ * Cada chamada passa por reflexão (inclusive cada {@code ResultSet.next()}),
+ * por isso a camada só é ligada com {@code metrics.enabled=true}. Os
+ * parâmetros ficam num array por statement, reaproveitado entre execuções, e
+ * só viram texto quando a consulta é lenta.
+ */
+class InstrumentedConnection implements InvocationHandler {
+
+    private final Connection target;
+    private final OperationStats stats;
+    private final long start = System.nanoTime();
+    private boolean closed = false;
+
+    private InstrumentedConnection(Connection target, OperationStats stats) {
+        this.target = target;
+        this.stats = stats;
+    }
+
+    static Connection wrap(Connection target, String operation) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new InstrumentedConnection(target, Metrics.getInstance().operation(operation)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                if (!closed) {
+                    closed = true;
+                    stats.recordCall(System.nanoTime() - start);
+                }
+                target.close();
+                return null;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                Object result = delegate(target, method, args, stats);
+                if (method.getName().equals("commit")) {
+                    Metrics.getInstance().recordCommit();
+                } else if (method.getName().equals("rollback")) {
+                    Metrics.getInstance().recordRollback();
+                } else if (result instanceof Statement) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                    return InstrumentedStatement.wrap((Statement) result, sql, stats);
+                }
+                return result;
+        }
+    }
+
+    static Object delegate(Object target, Method method, Object[] args, OperationStats stats) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                stats.recordError();
+            }
+            throw e.getCause();
+        }
+    }
+
+    private static class InstrumentedStatement implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private final OperationStats stats;
+        private Object[] parameters = new Object[8];
+        private int parameterCount = 0;
+        private int batchSize = 0;
+
+        private InstrumentedStatement(Statement target, String sql, OperationStats stats) {
+            this.target = target;
+            this.sql = sql;
+            this.stats = stats;
+        }
+
+        static Statement wrap(Statement target, String sql, OperationStats stats) {
+            Class<?> type = target instanceof CallableStatement ? CallableStatement.class
+                    : target instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return (Statement) Proxy.newProxyInstance(
+                    Statement.class.getClassLoader(),
+                    new Class<?>[] { type },
+                    new InstrumentedStatement(target, sql, stats));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                int index = (Integer) args[0];
+                if (index > parameters.length) {
+                    parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+                }
+                if (index > 0) {
+                    parameters[index - 1] = name.equals("setNull") ? null : args[1];
+                    parameterCount = Math.max(parameterCount, index);
+                }
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(parameters, 0, parameterCount, null);
+                parameterCount = 0;
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            }
+            if (!name.startsWith("execute")) {
+                return delegate(target, method, args, stats);
+            }
+
+            long begin = System.nanoTime();
+            Object result = delegate(target, method, args, stats);
+            long elapsed = System.nanoTime() - begin;
+            if (Metrics.getInstance().isSlow(elapsed)) {
+                String text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+                String values = Arrays.toString(Arrays.copyOf(parameters, parameterCount));
+                String described = batchSize > 0 ? values + " (lote de " + batchSize + ")" : values;
+                Metrics.getInstance().recordSlowQuery(stats, elapsed, String.valueOf(text), described);
+            }
+            if (name.equals("executeBatch")) {
+                batchSize = 0;
+            }
+            return countRows(result);
+        }
+
+        private Object countRows(Object result) {
+            if (result instanceof ResultSet) {
+                return CountingResultSet.wrap((ResultSet) result, stats);
+            }
+            if (result instanceof Integer || result instanceof Long) {
+                stats.recordRows(Math.max(0, ((Number) result).longValue()));
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    // SUCCESS_NO_INFO (-2): o driver não informa quantas linhas; conta uma.
+                    stats.recordRows(count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count));
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class CountingResultSet implements InvocationHandler {
+        private final ResultSet target;
+        private final OperationStats stats;
+
+        private CountingResultSet(ResultSet target, OperationStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        static ResultSet wrap(ResultSet target, OperationStats stats) {
+            return (ResultSet) Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(),
+                    new Class<?>[] { ResultSet.class },
+                    new CountingResultSet(target, stats));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "next":
+                    Object more = delegate(target, method, args, stats);
+                    if (Boolean.TRUE.equals(more)) {
+                        stats.recordRows(1);
+                    }
+                    return more;
+                default:
+                    return delegate(target, method, args, stats);
+            }
+        }
+    }
+}
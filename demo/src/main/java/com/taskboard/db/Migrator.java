@@ -0,0 +1,167 @@
+package com.taskboard.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Aplica as migrações de esquema versionadas em {@code db/migration} (no
+ * classpath), na ordem da lista abaixo. Cada migração aplicada é registrada
+ * em schema_version com o checksum do arquivo; se um arquivo já aplicado for
+ * alterado, a inicialização falha em vez de deixar o esquema divergir.
+ */
+public class Migrator {
+
+    private static final String[] MIGRATIONS = {
+        "V1__schema_inicial.sql",
+        "V2__relatorio_de_tempo.sql",
+        "V3__indices_das_consultas.sql",
+        "V4__versao_dos_cards.sql",
+        "V5__journal_de_historico.sql",
+        "V6__ordem_esparsa_das_colunas.sql",
+        "V7__exclusao_de_boards_em_segundo_plano.sql",
+        "V8__arquivo_do_historico.sql",
+        "V9__ponteiros_dos_intervalos_abertos.sql",
+        "V10__contadores_de_cards.sql",
+        "V11__limite_wip_das_colunas.sql",
+    };
+
+    private static final String LOCK_NAME = "taskboard_migrations";
+
+    public static void migrate(Connection conn, StorageBackend backend) {
+        boolean lock = backend.supportsAdvisoryLocks();
+        try {
+            if (lock) {
+                acquireLock(conn);
+            }
+            try (Statement st = conn.createStatement()) {
+                st.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                        + "version INT PRIMARY KEY, "
+                        + "description VARCHAR(255) NOT NULL, "
+                        + "checksum BIGINT NOT NULL, "
+                        + "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                        + "execution_ms BIGINT NOT NULL)");
+            }
+
+            Map<Integer, Long> applied = new HashMap<>();
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_version")) {
+                while (rs.next()) {
+                    applied.put(rs.getInt(1), rs.getLong(2));
+                }
+            }
+
+            for (String file : MIGRATIONS) {
+                int version = Integer.parseInt(file.substring(1, file.indexOf("__")));
+                String description = file.substring(file.indexOf("__") + 2, file.lastIndexOf('.')).replace('_', ' ');
+                String script = readScript(file);
+                long checksum = checksum(script);
+
+                Long appliedChecksum = applied.get(version);
+                if (appliedChecksum != null) {
+                    if (appliedChecksum != checksum) {
+                        throw new DBException("A migração " + file + " foi alterada depois de aplicada (checksum "
+                                + appliedChecksum + " no banco, " + checksum + " no arquivo).");
+                    }
+                    continue;
+                }
+
+                long start = System.currentTimeMillis();
+                try (Statement st = conn.createStatement()) {
+                    for (String sql : splitStatements(script)) {
+                        st.execute(sql);
+                    }
+                } catch (SQLException e) {
+                    throw new DBException("Erro ao aplicar a migração " + file + ": " + e.getMessage());
+                }
+                long elapsed = System.currentTimeMillis() - start;
+
+                try (PreparedStatement st = conn.prepareStatement(
+                        "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+                    st.setInt(1, version);
+                    st.setString(2, description);
+                    st.setLong(3, checksum);
+                    st.setLong(4, elapsed);
+                    st.executeUpdate();
+                }
+                System.out.println("Migração aplicada: " + file + " (" + elapsed + " ms)");
+            }
+        } catch (SQLException e) {
+            throw new DBException("Erro ao migrar o esquema: " + e.getMessage());
+        } finally {
+            if (lock) {
+                releaseLock(conn);
+            }
+        }
+    }
+
+    // Evita que duas instâncias subindo ao mesmo tempo apliquem a mesma migração.
+    private static void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement st = conn.prepareStatement("SELECT GET_LOCK(?, 60)")) {
+            st.setString(1, LOCK_NAME);
+            try (ResultSet rs = st.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new DBException("Não foi possível obter o lock de migração do esquema.");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement st = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            st.setString(1, LOCK_NAME);
+            st.executeQuery().close();
+        } catch (SQLException e) {
+            // O lock é liberado de qualquer forma quando a conexão fecha.
+        }
+    }
+
+    private static String readScript(String file) {
+        try (InputStream in = Migrator.class.getResourceAsStream("/db/migration/" + file)) {
+            if (in == null) {
+                throw new DBException("Migração não encontrada no classpath: db/migration/" + file);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new DBException("Erro ao ler a migração " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static long checksum(String script) {
+        CRC32 crc = new CRC32();
+        crc.update(script.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    // Comandos separados por ';' no fim da linha; linhas iniciadas por '--' são comentários.
+    private static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+}
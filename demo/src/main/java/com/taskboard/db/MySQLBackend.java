@@ -0,0 +1,63 @@
+package com.taskboard.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Servidor MySQL em {@code dburl}, com {@code user} e {@code password}.
+ */
+public class MySQLBackend implements StorageBackend {
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    public MySQLBackend(String url, String user, String password) {
+        if (url == null || user == null || password == null) {
+            throw new DBException("As propriedades 'dburl', 'user' e 'password' devem estar definidas em db.properties.");
+        }
+        if (!url.startsWith("jdbc:mysql:")) {
+            throw new DBException("db.backend=mysql exige uma dburl jdbc:mysql:... (para o banco embutido, use db.backend=embedded).");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    @Override
+    public String getName() {
+        return "mysql";
+    }
+
+    @Override
+    public Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    // O driver MySQL só transmite linha a linha com fetch size Integer.MIN_VALUE.
+    @Override
+    public int getStreamingFetchSize() {
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public boolean supportsAdvisoryLocks() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsExplainCheck() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsFullText() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "MySQL (" + url.replaceAll("\\?.*$", "") + ")";
+    }
+}
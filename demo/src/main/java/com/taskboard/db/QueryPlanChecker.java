@@ -0,0 +1,65 @@
+package com.taskboard.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Roda EXPLAIN nas consultas mais frequentes dos DAOs e avisa quando alguma
+ * delas faz varredura completa de tabela (type = ALL). Só funciona no MySQL.
+ */
+public class QueryPlanChecker {
+
+    // Consultas representativas dos DAOs; todos os parâmetros são preenchidos com valores de exemplo.
+    private static final String[][] QUERIES = {
+        { "CardDAO.findPageByColumnId",
+          "SELECT * FROM cards WHERE column_id = ? ORDER BY creation_date DESC, id DESC LIMIT 21" },
+        { "CardDAO.findById",
+          "SELECT * FROM cards WHERE id = ?" },
+        { "ColumnDAO.findByBoardId",
+          "SELECT * FROM columns WHERE board_id = ? ORDER BY column_order" },
+        { "CardDAO.updateColumn (sem ponteiro)",
+          "UPDATE card_movement_history SET exit_time = CURRENT_TIMESTAMP WHERE card_id = ? AND column_id = ? AND exit_time IS NULL" },
+        { "CardDAO.updateBlockStatus (sem ponteiro)",
+          "UPDATE card_block_history SET unblock_time = CURRENT_TIMESTAMP, unblock_reason = ? WHERE card_id = ? AND unblock_time IS NULL" },
+        { "BoardSnapshotDAO.load",
+          "SELECT c.column_id, COUNT(*) FROM cards c JOIN columns col ON c.column_id = col.id WHERE col.board_id = ? GROUP BY c.column_id" },
+        { "ReportDAO.refreshColumnTimes",
+          "SELECT h.card_id, h.column_id FROM card_movement_history h WHERE h.exit_time > ? AND h.exit_time <= ?" },
+    };
+
+    public static void check(Connection conn, StorageBackend backend) {
+        if (!backend.supportsExplainCheck()) {
+            return;
+        }
+        for (String[] query : QUERIES) {
+            PreparedStatement st = null;
+            ResultSet rs = null;
+            try {
+                st = conn.prepareStatement("EXPLAIN " + query[1]);
+                int params = st.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= params; i++) {
+                    if (query[1].contains("exit_time > ?")) {
+                        st.setTimestamp(i, new Timestamp(System.currentTimeMillis()));
+                    } else {
+                        st.setInt(i, 1);
+                    }
+                }
+                rs = st.executeQuery();
+                while (rs.next()) {
+                    if ("ALL".equalsIgnoreCase(rs.getString("type"))) {
+                        System.out.println("AVISO: " + query[0] + " faz varredura completa na tabela '"
+                                + rs.getString("table") + "' (EXPLAIN type=ALL). Verifique os índices.");
+                    }
+                }
+            } catch (SQLException e) {
+                System.out.println("AVISO: não foi possível analisar o plano de " + query[0] + ": " + e.getMessage());
+            } finally {
+                DB.closeResultSet(rs);
+                DB.closeStatement(st);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.taskboard.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache LRU de PreparedStatements de uma única conexão física, indexado pelo
+ * texto SQL. Fechar o statement devolvido apenas o libera para o próximo uso;
+ * ele só é fechado de verdade quando sai do cache ou quando a conexão é
+ * descartada.
+ */
+class StatementCache {
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private final Connection physical;
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> entries;
+
+    StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        if (maxSize <= 0) {
+            return physical.prepareStatement(sql, autoGeneratedKeys);
+        }
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.inUse) {
+            HITS.increment();
+            entry.inUse = true;
+            return entry.proxy;
+        }
+        MISSES.increment();
+        PreparedStatement st = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (entry != null) {
+            // O mesmo SQL já está aberto nesta conexão; este fica fora do cache.
+            return st;
+        }
+        entry = new Entry(st);
+        entry.inUse = true;
+        entries.put(key, entry);
+        return entry.proxy;
+    }
+
+    void closeAll() {
+        for (Entry entry : entries.values()) {
+            entry.evict();
+        }
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static long getHitCount() {
+        return HITS.sum();
+    }
+
+    static long getMissCount() {
+        return MISSES.sum();
+    }
+
+    private static class Entry implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean inUse = false;
+        private boolean evicted = false;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    this);
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closePhysical();
+            }
+        }
+
+        private void closePhysical() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // O statement está sendo descartado de qualquer forma.
+            }
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        inUse = false;
+                        if (evicted) {
+                            closePhysical();
+                        } else {
+                            statement.clearParameters();
+                            statement.clearBatch();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || statement.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                default:
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
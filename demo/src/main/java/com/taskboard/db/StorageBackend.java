@@ -0,0 +1,29 @@
+package com.taskboard.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Onde os dados ficam. Os DAOs usam o mesmo SQL em todos os backends (o
+ * embutido roda o H2 no modo MySQL); o backend decide como abrir as conexões
+ * físicas e quais recursos específicos do MySQL estão disponíveis. Escolhido
+ * por {@code db.backend} em db.properties.
+ */
+public interface StorageBackend {
+
+    String getName();
+
+    Connection connect() throws SQLException;
+
+    // Fetch size que faz o driver transmitir o resultado em vez de carregá-lo inteiro.
+    int getStreamingFetchSize();
+
+    // GET_LOCK/RELEASE_LOCK, usados para serializar as migrações entre instâncias.
+    boolean supportsAdvisoryLocks();
+
+    // EXPLAIN no formato do MySQL, usado pelo QueryPlanChecker.
+    boolean supportsExplainCheck();
+
+    // Índices FULLTEXT e MATCH ... AGAINST (search.engine=fulltext).
+    boolean supportsFullText();
+}
@@ -0,0 +1,17 @@
+package com.taskboard.events;
+
+/**
+ * Alteração já confirmada no banco, publicada pelos DAOs no {@link EventBus}.
+ */
+public abstract class BoardEvent {
+
+    private final long timeMillis = System.currentTimeMillis();
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public String getName() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,364 @@
+package com.taskboard.events;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.taskboard.dao.CardRepository;
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+import com.taskboard.model.Board;
+import com.taskboard.model.BoardColumns;
+import com.taskboard.model.BoardSnapshot;
+import com.taskboard.model.Card;
+import com.taskboard.model.Column;
+
+/**
+ * Visão de um board (primeira página e total de cards de cada coluna) mantida
+ * a partir dos eventos do {@link EventBus}, sem reconsultar o board inteiro a
+ * cada exibição.
+ *
+ * Guarda a coluna e a versão de todos os cards do board, o que torna a
+ * aplicação dos eventos idempotente e imune à ordem de chegada: eventos com
+ * versão menor ou igual à conhecida são ignorados. Só a página de uma coluna
+ * que perdeu cards (ou recebeu um card cujos dados não estão em memória) é
+ * buscada de novo no banco, na próxima chamada a {@link #snapshot()}; mudanças
+ * nas colunas e estouro da fila recarregam tudo.
+ */
+public class BoardProjection implements EventListener, AutoCloseable {
+
+    // Mesma ordem de CardRepository.loadSnapshot; cards recém-criados ainda sem data ficam no topo.
+    private static final Comparator<Card> PAGE_ORDER = Comparator
+            .comparing(Card::getCreationDate, Comparator.nullsFirst(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(Comparator.comparingInt(Card::getId).reversed());
+
+    private final Board board;
+    private final int pageSize;
+    private final CardRepository cards = CardRepository.getInstance();
+    private final Object refreshLock = new Object();
+    private Subscription subscription;
+
+    // Protegidos por this.
+    private BoardColumns columns;
+    private final Map<Integer, CardState> states = new HashMap<>();
+    private final Map<Integer, Integer> counts = new HashMap<>();
+    private final Map<Integer, List<Card>> pages = new HashMap<>();
+    private final Set<Integer> dirtyColumns = new HashSet<>();
+    private boolean reloadNeeded = true;
+    private List<BoardEvent> buffered = new ArrayList<>();
+    private long appliedEvents;
+    private long reloads;
+
+    private BoardProjection(Board board) {
+        this.board = board;
+        this.pageSize = Math.max(1, DB.getIntProperty("board.pageSize", 20));
+    }
+
+    public static BoardProjection open(Board board) {
+        BoardProjection projection = new BoardProjection(board);
+        projection.subscription = EventBus.getInstance().subscribe("board-" + board.getId(), projection);
+        try {
+            projection.refresh();
+        } catch (DBException e) {
+            projection.close();
+            throw e;
+        }
+        return projection;
+    }
+
+    /**
+     * Cópia do estado atual; antes, busca no banco só o que os eventos não cobrem.
+     */
+    public BoardSnapshot snapshot() {
+        refresh();
+        synchronized (this) {
+            BoardSnapshot snapshot = new BoardSnapshot(board, columns);
+            for (Column column : columns.getColumns()) {
+                for (Card card : pages.getOrDefault(column.getId(), List.of())) {
+                    snapshot.addCard(copy(card));
+                }
+                snapshot.setCardCount(column.getId(), counts.getOrDefault(column.getId(), 0));
+            }
+            return snapshot;
+        }
+    }
+
+    public synchronized long getAppliedEventCount() {
+        return appliedEvents;
+    }
+
+    public synchronized long getReloadCount() {
+        return reloads;
+    }
+
+    @Override
+    public synchronized void onEvent(BoardEvent event) {
+        if (buffered != null) {
+            buffered.add(event);
+        } else {
+            apply(event);
+        }
+    }
+
+    @Override
+    public synchronized void onOverflow(long droppedEvents) {
+        reloadNeeded = true;
+    }
+
+    @Override
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    // As consultas rodam fora do lock; os eventos que chegam nesse meio tempo ficam
+    // guardados e são aplicados (com a checagem de versão) sobre o que foi lido.
+    private void refresh() {
+        synchronized (refreshLock) {
+            boolean reload;
+            List<Integer> dirty;
+            synchronized (this) {
+                if (!reloadNeeded && dirtyColumns.isEmpty()) {
+                    return;
+                }
+                reload = reloadNeeded;
+                reloadNeeded = false;
+                dirty = new ArrayList<>(dirtyColumns);
+                dirtyColumns.clear();
+                if (buffered == null) {
+                    buffered = new ArrayList<>();
+                }
+            }
+            boolean installed = false;
+            try {
+                if (reload) {
+                    BoardSnapshot loaded = cards.loadSnapshot(board);
+                    Map<Integer, CardState> loadedStates = new HashMap<>();
+                    cards.forEachCardVersion(board.getId(),
+                            (cardId, columnId, version) -> loadedStates.put(cardId, new CardState(columnId, version)));
+                    synchronized (this) {
+                        install(loaded, loadedStates);
+                    }
+                } else {
+                    Map<Integer, List<Card>> fetched = new HashMap<>();
+                    for (int columnId : dirty) {
+                        fetched.put(columnId, cards.findPageByColumnId(columnId, null, pageSize).getCards());
+                    }
+                    synchronized (this) {
+                        for (Map.Entry<Integer, List<Card>> entry : fetched.entrySet()) {
+                            if (pages.containsKey(entry.getKey())) {
+                                pages.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+                            }
+                        }
+                    }
+                }
+                installed = true;
+            } finally {
+                synchronized (this) {
+                    List<BoardEvent> pending = buffered;
+                    buffered = null;
+                    if (!installed) {
+                        reloadNeeded |= reload;
+                        dirtyColumns.addAll(dirty);
+                    }
+                    for (BoardEvent event : pending) {
+                        apply(event);
+                    }
+                }
+            }
+        }
+    }
+
+    private void install(BoardSnapshot loaded, Map<Integer, CardState> loadedStates) {
+        columns = loaded.getBoardColumns();
+        pages.clear();
+        counts.clear();
+        for (Column column : columns.getColumns()) {
+            pages.put(column.getId(), new ArrayList<>(loaded.getCards(column.getId())));
+            counts.put(column.getId(), 0);
+        }
+        states.clear();
+        states.putAll(loadedStates);
+        for (CardState state : states.values()) {
+            counts.merge(state.columnId, 1, Integer::sum);
+        }
+        dirtyColumns.clear();
+        reloads++;
+    }
+
+    private void apply(BoardEvent event) {
+        if (columns == null) {
+            return; // nada carregado ainda; a recarga pendente cobre o evento
+        }
+        if (event instanceof ColumnEvent columnEvent) {
+            if (columnEvent.getBoardId() == board.getId()) {
+                reloadNeeded = true;
+            }
+            return;
+        }
+        if (event instanceof CardDeleted deleted) {
+            CardState state = states.remove(deleted.getCardId());
+            if (state != null) {
+                counts.merge(state.columnId, -1, Integer::sum);
+                removeFromPage(state.columnId, deleted.getCardId(), Integer.MAX_VALUE);
+                appliedEvents++;
+            }
+            return;
+        }
+        if (!(event instanceof CardEvent cardEvent)) {
+            return;
+        }
+
+        int cardId = cardEvent.getCardId();
+        int version = cardEvent.getVersion();
+        int columnId = columnOf(cardEvent);
+        CardState state = states.get(cardId);
+        if (state == null) {
+            if (columns.findById(columnId) == null) {
+                return; // card de outro board
+            }
+            states.put(cardId, new CardState(columnId, version));
+            counts.merge(columnId, 1, Integer::sum);
+            if (event instanceof CardCreated created) {
+                insertIntoPage(created.toCard());
+            } else {
+                dirtyColumns.add(columnId);
+            }
+            appliedEvents++;
+            return;
+        }
+        if (version <= state.version) {
+            return; // atrasado: já aplicado ou coberto por uma recarga
+        }
+
+        // Uma versão pulada significa um evento ainda a caminho; os dados dos
+        // cards em memória podem estar incompletos, então a página é relida.
+        boolean gap = version != state.version + 1;
+        int previousColumnId = state.columnId;
+        state.columnId = columnId;
+        state.version = version;
+        appliedEvents++;
+        if (previousColumnId != columnId) {
+            counts.merge(previousColumnId, -1, Integer::sum);
+            counts.merge(columnId, 1, Integer::sum);
+        }
+
+        Card card = removeFromPage(previousColumnId, cardId, version);
+        if (gap) {
+            dirtyColumns.add(previousColumnId);
+            dirtyColumns.add(columnId);
+            return;
+        }
+        if (card == null) {
+            // Card fora da primeira página: só importa se mudou de coluna.
+            if (previousColumnId != columnId) {
+                dirtyColumns.add(columnId);
+            }
+            return;
+        }
+        card.setColumnId(columnId);
+        card.setVersion(version);
+        if (event instanceof CardBlocked) {
+            card.setBlock(true);
+        } else if (event instanceof CardUnblocked) {
+            card.setBlock(false);
+        }
+        insertIntoPage(card);
+    }
+
+    private static int columnOf(CardEvent event) {
+        if (event instanceof CardMoved moved) {
+            return moved.getToColumnId();
+        }
+        if (event instanceof CardBlocked blocked) {
+            return blocked.getColumnId();
+        }
+        if (event instanceof CardUnblocked unblocked) {
+            return unblocked.getColumnId();
+        }
+        return ((CardCreated) event).getColumnId();
+    }
+
+    // Remove o card da página se a cópia em memória for mais antiga que o evento.
+    private Card removeFromPage(int columnId, int cardId, int version) {
+        List<Card> page = pages.get(columnId);
+        if (page == null) {
+            return null;
+        }
+        for (int i = 0; i < page.size(); i++) {
+            Card card = page.get(i);
+            if (card.getId() == cardId) {
+                if (card.getVersion() >= version) {
+                    return null;
+                }
+                page.remove(i);
+                if (page.size() < Math.min(pageSize, counts.getOrDefault(columnId, 0))) {
+                    dirtyColumns.add(columnId);
+                }
+                return card;
+            }
+        }
+        return null;
+    }
+
+    private void insertIntoPage(Card card) {
+        List<Card> page = pages.get(card.getColumnId());
+        if (page == null) {
+            return;
+        }
+        for (int i = 0; i < page.size(); i++) {
+            if (page.get(i).getId() == card.getId()) {
+                if (page.get(i).getVersion() >= card.getVersion()) {
+                    return;
+                }
+                page.remove(i);
+                break;
+            }
+        }
+        int index = 0;
+        while (index < page.size() && PAGE_ORDER.compare(page.get(index), card) < 0) {
+            index++;
+        }
+        if (index >= pageSize) {
+            return;
+        }
+        page.add(index, card);
+        if (page.size() > pageSize) {
+            page.remove(page.size() - 1);
+        }
+    }
+
+    private static Card copy(Card card) {
+        Card copy = new Card();
+        copy.setID(card.getId());
+        copy.setTitle(card.getTitle());
+        copy.setDescription(card.getDescription());
+        copy.setCreationDate(card.getCreationDate());
+        copy.setBlock(card.getIsBlocked());
+        copy.setColumnId(card.getColumnId());
+        copy.setVersion(card.getVersion());
+        return copy;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("BoardProjection [board=%d, cards=%d, eventos=%d, recargas=%d, %s]",
+                board.getId(), states.size(), appliedEvents, reloads, subscription);
+    }
+
+    private static class CardState {
+        private int columnId;
+        private int version;
+
+        CardState(int columnId, int version) {
+            this.columnId = columnId;
+            this.version = version;
+        }
+    }
+}
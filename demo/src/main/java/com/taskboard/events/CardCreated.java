@@ -0,0 +1,49 @@
+package com.taskboard.events;
+
+import java.time.LocalDateTime;
+
+import com.taskboard.model.Card;
+
+public final class CardCreated extends CardEvent {
+
+    private final int columnId;
+    private final String title;
+    private final String description;
+    private final LocalDateTime creationDate;
+
+    public CardCreated(Card card) {
+        super(card.getId(), card.getVersion());
+        this.columnId = card.getColumnId();
+        this.title = card.getTitle();
+        this.description = card.getDescription();
+        this.creationDate = card.getCreationDate();
+    }
+
+    public int getColumnId() {
+        return columnId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    // Null quando a data veio do DEFAULT do banco (card recém-criado).
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    public Card toCard() {
+        Card card = new Card();
+        card.setID(getCardId());
+        card.setTitle(title);
+        card.setDescription(description);
+        card.setCreationDate(creationDate);
+        card.setColumnId(columnId);
+        card.setVersion(getVersion());
+        return card;
+    }
+}
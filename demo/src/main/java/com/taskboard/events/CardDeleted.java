@@ -0,0 +1,14 @@
+package com.taskboard.events;
+
+public final class CardDeleted extends BoardEvent {
+
+    private final int cardId;
+
+    public CardDeleted(int cardId) {
+        this.cardId = cardId;
+    }
+
+    public int getCardId() {
+        return cardId;
+    }
+}
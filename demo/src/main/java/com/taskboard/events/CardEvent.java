@@ -0,0 +1,25 @@
+package com.taskboard.events;
+
+/**
+ * Evento de um card com a versão que ele passou a ter. Como os eventos de
+ * threads diferentes podem chegar fora de ordem, quem consome deve ignorar
+ * versões menores ou iguais à que já conhece.
+ */
+public abstract class CardEvent extends BoardEvent {
+
+    private final int cardId;
+    private final int version;
+
+    protected CardEvent(int cardId, int version) {
+        this.cardId = cardId;
+        this.version = version;
+    }
+
+    public int getCardId() {
+        return cardId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,21 @@
+package com.taskboard.events;
+
+public final class CardMoved extends CardEvent {
+
+    private final int fromColumnId;
+    private final int toColumnId;
+
+    public CardMoved(int cardId, int fromColumnId, int toColumnId, int version) {
+        super(cardId, version);
+        this.fromColumnId = fromColumnId;
+        this.toColumnId = toColumnId;
+    }
+
+    public int getFromColumnId() {
+        return fromColumnId;
+    }
+
+    public int getToColumnId() {
+        return toColumnId;
+    }
+}
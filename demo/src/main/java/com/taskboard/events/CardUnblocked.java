@@ -0,0 +1,21 @@
+package com.taskboard.events;
+
+public final class CardUnblocked extends CardEvent {
+
+    private final int columnId;
+    private final String reason;
+
+    public CardUnblocked(int cardId, int columnId, String reason, int version) {
+        super(cardId, version);
+        this.columnId = columnId;
+        this.reason = reason;
+    }
+
+    public int getColumnId() {
+        return columnId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,15 @@
+package com.taskboard.events;
+
+public final class ColumnCreated extends ColumnEvent {
+
+    private final int columnId;
+
+    public ColumnCreated(int boardId, int columnId) {
+        super(boardId);
+        this.columnId = columnId;
+    }
+
+    public int getColumnId() {
+        return columnId;
+    }
+}
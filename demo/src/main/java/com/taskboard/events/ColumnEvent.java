@@ -0,0 +1,18 @@
+package com.taskboard.events;
+
+/**
+ * Mudança na estrutura de colunas de um board; quem mantém uma visão do board
+ * deve recarregá-la.
+ */
+public abstract class ColumnEvent extends BoardEvent {
+
+    private final int boardId;
+
+    protected ColumnEvent(int boardId) {
+        this.boardId = boardId;
+    }
+
+    public int getBoardId() {
+        return boardId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.taskboard.events;
+
+public final class ColumnLimitChanged extends ColumnEvent {
+
+    private final int columnId;
+    private final Integer wipLimit;
+
+    public ColumnLimitChanged(int boardId, int columnId, Integer wipLimit) {
+        super(boardId);
+        this.columnId = columnId;
+        this.wipLimit = wipLimit;
+    }
+
+    public int getColumnId() {
+        return columnId;
+    }
+
+    // null = sem limite.
+    public Integer getWipLimit() {
+        return wipLimit;
+    }
+}
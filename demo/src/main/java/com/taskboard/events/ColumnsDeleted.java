@@ -0,0 +1,8 @@
+package com.taskboard.events;
+
+public final class ColumnsDeleted extends ColumnEvent {
+
+    public ColumnsDeleted(int boardId) {
+        super(boardId);
+    }
+}
@@ -0,0 +1,8 @@
+package com.taskboard.events;
+
+public final class ColumnsReordered extends ColumnEvent {
+
+    public ColumnsReordered(int boardId) {
+        super(boardId);
+    }
+}
@@ -0,0 +1,60 @@
+package com.taskboard.events;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.taskboard.db.DB;
+
+/**
+ * Barramento de eventos em processo. Os DAOs publicam depois do commit; cada
+ * inscrição tem sua fila limitada e sua thread de entrega, então um listener
+ * lento nunca atrasa a transação de quem publicou nem os outros listeners.
+ */
+public class EventBus {
+
+    private static final EventBus INSTANCE = new EventBus();
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public static EventBus getInstance() {
+        return INSTANCE;
+    }
+
+    public Subscription subscribe(String name, EventListener listener) {
+        return subscribe(name, Math.max(2, DB.getIntProperty("events.queueCapacity", 4096)), listener);
+    }
+
+    public Subscription subscribe(String name, int capacity, EventListener listener) {
+        Subscription subscription = new Subscription(this, name, capacity, listener);
+        subscriptions.add(subscription);
+        subscription.start();
+        return subscription;
+    }
+
+    void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    public void publish(BoardEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    public void publishAll(List<? extends BoardEvent> events) {
+        for (Subscription subscription : subscriptions) {
+            for (BoardEvent event : events) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    // Permite aos DAOs não montar eventos (nem buscar a versão) quando ninguém está ouvindo.
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public List<Subscription> getSubscriptions() {
+        return List.copyOf(subscriptions);
+    }
+}
@@ -0,0 +1,13 @@
+package com.taskboard.events;
+
+public interface EventListener {
+
+    void onEvent(BoardEvent event);
+
+    /**
+     * Chamado quando a fila da inscrição encheu e eventos foram descartados;
+     * o estado mantido a partir dos eventos deve ser recarregado do banco.
+     */
+    default void onOverflow(long droppedEvents) {
+    }
+}
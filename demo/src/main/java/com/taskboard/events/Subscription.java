@@ -0,0 +1,133 @@
+package com.taskboard.events;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Inscrição no {@link EventBus}: uma fila própria e uma thread que entrega os
+ * eventos ao listener na ordem em que foram publicados. Quem publica nunca
+ * espera; se a fila encher, o evento é descartado e o listener recebe
+ * {@link EventListener#onOverflow(long)}.
+ */
+public class Subscription implements AutoCloseable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final EventBus bus;
+    private final String name;
+    private final EventListener listener;
+    private final MpscRingBuffer<BoardEvent> queue;
+    private final Thread dispatcher;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    Subscription(EventBus bus, String name, int capacity, EventListener listener) {
+        this.bus = bus;
+        this.name = name;
+        this.listener = listener;
+        this.queue = new MpscRingBuffer<>(capacity);
+        this.dispatcher = new Thread(this::dispatchLoop, "taskboard-events-" + name);
+        this.dispatcher.setDaemon(true);
+    }
+
+    void start() {
+        dispatcher.start();
+    }
+
+    void offer(BoardEvent event) {
+        if (closed) {
+            return;
+        }
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+            overflowed.set(true);
+        }
+        if (waiting) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void dispatchLoop() {
+        long droppedReported = 0;
+        while (!closed) {
+            if (overflowed.getAndSet(false)) {
+                long total = dropped.get();
+                deliver(null, total - droppedReported);
+                droppedReported = total;
+            }
+            BoardEvent event = queue.poll();
+            if (event == null) {
+                waiting = true;
+                if (queue.isEmpty() && !overflowed.get() && !closed) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                waiting = false;
+                continue;
+            }
+            deliver(event, 0);
+        }
+    }
+
+    private void deliver(BoardEvent event, long droppedEvents) {
+        try {
+            if (event == null) {
+                listener.onOverflow(droppedEvents);
+            } else {
+                listener.onEvent(event);
+                delivered.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            System.out.println("ERRO ao entregar evento para '" + name + "': " + e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return queue.capacity();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Espera a inscrição ser fechada (pelo próprio listener ou por outra thread).
+     */
+    public void awaitClose() throws InterruptedException {
+        dispatcher.join();
+    }
+
+    // Eventos ainda na fila são descartados.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        bus.unsubscribe(this);
+        LockSupport.unpark(dispatcher);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Subscription [%s, capacidade=%d, entregues=%d, descartados=%d]",
+                name, getCapacity(), getDeliveredCount(), getDroppedCount());
+    }
+}
@@ -0,0 +1,150 @@
+package com.taskboard.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.taskboard.dao.CardRepository;
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+import com.taskboard.json.Json;
+import com.taskboard.json.JsonException;
+import com.taskboard.model.Card;
+
+/**
+ * Importa cards de um arquivo CSV ({@code title,description}) ou JSONL (um
+ * objeto {@code {"title": ..., "description": ...}} por linha). O arquivo é
+ * lido em fluxo e gravado em lotes via {@link CardRepository#createAll(List)}, então
+ * o consumo de memória não depende do tamanho do arquivo.
+ */
+public class CardImporter {
+
+    private final CardRepository cardDAO;
+    private final int batchSize;
+
+    public CardImporter(CardRepository cardDAO) {
+        this.cardDAO = cardDAO;
+        this.batchSize = Math.max(1, DB.getIntProperty("import.batchSize", 1000));
+    }
+
+    public int importFile(Path path, int columnId) {
+        String name = path.getFileName().toString().toLowerCase();
+        boolean jsonl = name.endsWith(".jsonl") || name.endsWith(".ndjson");
+        if (!jsonl && !name.endsWith(".csv")) {
+            throw new DBException("Formato não suportado: use um arquivo .csv ou .jsonl.");
+        }
+
+        List<Card> buffer = new ArrayList<>(batchSize);
+        int imported = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Card card;
+                if (jsonl) {
+                    card = fromJson(line);
+                } else {
+                    List<String> fields = new ArrayList<>();
+                    while (!parseCsvLine(line, fields)) {
+                        String next = reader.readLine();
+                        if (next == null) {
+                            throw new DBException("Aspas não fechadas no fim do arquivo.");
+                        }
+                        lineNumber++;
+                        line = line + "\n" + next;
+                        fields.clear();
+                    }
+                    if (first && isHeader(fields)) {
+                        first = false;
+                        continue;
+                    }
+                    card = fromCsv(fields);
+                }
+                first = false;
+                card.setColumnId(columnId);
+                buffer.add(card);
+
+                if (buffer.size() == batchSize) {
+                    imported += cardDAO.createAll(buffer);
+                    buffer.clear();
+                }
+            }
+            if (!buffer.isEmpty()) {
+                imported += cardDAO.createAll(buffer);
+            }
+            return imported;
+        } catch (IOException e) {
+            throw new DBException("Erro ao ler " + path + ": " + e.getMessage());
+        } catch (JsonException | IllegalArgumentException e) {
+            throw new DBException("Linha " + lineNumber + " inválida (" + imported + " cards importados): " + e.getMessage());
+        }
+    }
+
+    private Card fromJson(String line) {
+        Map<String, Object> obj = Json.parseObject(line);
+        Object title = obj.get("title");
+        Object description = obj.get("description");
+        return newCard(title == null ? null : title.toString(), description == null ? null : description.toString());
+    }
+
+    private Card fromCsv(List<String> fields) {
+        return newCard(fields.get(0), fields.size() > 1 ? fields.get(1) : null);
+    }
+
+    private Card newCard(String title, String description) {
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("o título é obrigatório");
+        }
+        Card card = new Card();
+        card.setTitle(title);
+        card.setDescription(description);
+        return card;
+    }
+
+    private boolean isHeader(List<String> fields) {
+        return !fields.isEmpty() && fields.get(0).trim().equalsIgnoreCase("title");
+    }
+
+    // Devolve false se o registro termina dentro de aspas e continua na próxima linha.
+    private boolean parseCsvLine(String line, List<String> fields) {
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return false;
+        }
+        fields.add(field.toString());
+        return true;
+    }
+}
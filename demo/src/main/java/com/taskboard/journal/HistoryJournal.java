@@ -0,0 +1,426 @@
+package com.taskboard.journal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import com.taskboard.db.DBException;
+
+/**
+ * Journal local (write-behind) dos eventos de histórico de movimentação e de
+ * bloqueio.
+ *
+ * Com o journal ativo, os DAOs não gravam mais em card_movement_history e
+ * card_block_history dentro da transação do usuário: com a linha do card
+ * travada, registram o evento aqui, esperam o fsync (agrupado entre todas as
+ * threads que estão esperando) e só então confirmam a transação. Uma thread
+ * em segundo plano grava os eventos confirmados no banco em lotes grandes,
+ * junto com o checkpoint em history_journal_checkpoint.
+ *
+ * Como o evento é gravado enquanto a linha do card está travada, a ordem do
+ * arquivo é a ordem real das alterações de cada card. Na recuperação, os
+ * eventos após o checkpoint são reaplicados, exceto os de transações que não
+ * chegaram a confirmar: cada evento leva a versão do card depois da alteração,
+ * e versões maiores que a atual no banco (ou repetidas por uma alteração
+ * posterior) são descartadas.
+ */
+public class HistoryJournal {
+
+    public static final String FILE_NAME = "history.journal";
+
+    private final Path file;
+    private final FileChannel channel;
+    private final JournalApplier applier = new JournalApplier();
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long maxBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private final Condition work = lock.newCondition();
+    private final Condition applied = lock.newCondition();
+    private final ArrayDeque<JournalEvent> pending = new ArrayDeque<>();
+    private long lastSequence;
+    private long syncedSequence;
+    private long appliedSequence;
+    private long drainTarget;
+    private boolean syncing = false;
+    private boolean closed = false;
+    private String lastError;
+    private Thread flusher;
+
+    private HistoryJournal(Path file, FileChannel channel, int batchSize, long flushIntervalMillis, long maxBytes) {
+        this.file = file;
+        this.channel = channel;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Abre (ou cria) o journal em {@code dir}, reaplica no banco os eventos que
+     * ficaram pendentes da execução anterior e inicia a gravação em segundo plano.
+     */
+    public static HistoryJournal open(Path dir, int batchSize, long flushIntervalMillis, long maxBytes) {
+        try {
+            Files.createDirectories(dir);
+            Path file = dir.resolve(FILE_NAME);
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            HistoryJournal journal = new HistoryJournal(file, channel, Math.max(1, batchSize),
+                    Math.max(1, flushIntervalMillis), maxBytes);
+            try {
+                journal.recover();
+            } catch (RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            journal.startFlusher();
+            return journal;
+        } catch (IOException e) {
+            throw new DBException("Erro ao abrir o journal de histórico em " + dir + ": " + e.getMessage());
+        }
+    }
+
+    /** Inicia um grupo de eventos de uma mesma transação. */
+    public Batch begin() {
+        return new Batch();
+    }
+
+    /**
+     * Espera até que todos os eventos confirmados até agora estejam gravados no
+     * banco (usado antes de relatórios que leem o histórico).
+     */
+    public void drain() {
+        lock.lock();
+        try {
+            long target = lastSequence;
+            drainTarget = Math.max(drainTarget, target);
+            work.signal();
+            long remaining = TimeUnit.SECONDS.toNanos(30);
+            while (appliedSequence < target && hasCommittedUpTo(target)) {
+                if (remaining <= 0) {
+                    throw new DBException("Tempo esgotado aguardando o journal de histórico ser gravado no banco"
+                            + (lastError == null ? "." : ": " + lastError));
+                }
+                remaining = applied.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DBException("Interrompido aguardando o journal de histórico.");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grava no banco o que estiver confirmado e fecha o arquivo. Eventos que
+     * não puderem ser gravados agora ficam no journal para a próxima inicialização.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            drainTarget = lastSequence;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+            if (flusher.isAlive()) {
+                flusher.interrupt();
+                flusher.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // O conteúdo já foi sincronizado a cada transação.
+        }
+        if (!pending.isEmpty()) {
+            System.out.println("AVISO: " + pending.size() + " eventos de histórico ficaram no journal " + file
+                    + " e serão gravados na próxima inicialização.");
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Eventos de uma transação: são escritos no arquivo na hora, sincronizados
+     * com {@link #sync()} antes do commit no banco e liberados para o banco com
+     * {@link #committed()} (ou descartados com {@link #aborted()}).
+     */
+    public class Batch {
+        private final List<JournalEvent> events = new ArrayList<>();
+
+        public void move(int cardId, int fromColumnId, int toColumnId, int version) {
+            events.add(append(JournalEvent.MOVE, cardId, fromColumnId, toColumnId, version, null));
+        }
+
+        public void block(int cardId, String reason, int version) {
+            events.add(append(JournalEvent.BLOCK, cardId, 0, 0, version, reason));
+        }
+
+        public void unblock(int cardId, String reason, int version) {
+            events.add(append(JournalEvent.UNBLOCK, cardId, 0, 0, version, reason));
+        }
+
+        public void sync() {
+            if (!events.isEmpty()) {
+                awaitDurable(events.get(events.size() - 1).sequence);
+            }
+        }
+
+        public void committed() {
+            lock.lock();
+            try {
+                for (JournalEvent event : events) {
+                    event.committed = true;
+                }
+                if (pending.size() >= batchSize || drainTarget > appliedSequence || closed) {
+                    work.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void aborted() {
+            lock.lock();
+            try {
+                pending.removeAll(events);
+                applied.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private JournalEvent append(byte type, int cardId, int fromColumnId, int toColumnId, int version, String reason) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new DBException("O journal de histórico foi encerrado.");
+            }
+            JournalEvent event = new JournalEvent(lastSequence + 1, type, cardId, fromColumnId, toColumnId, version,
+                    System.currentTimeMillis(), reason);
+            long position = channel.position();
+            try {
+                ByteBuffer buffer = event.encode();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                // Não deixa um registro pela metade no meio do arquivo.
+                channel.truncate(position);
+                throw e;
+            }
+            lastSequence = event.sequence;
+            pending.addLast(event);
+            return event;
+        } catch (IOException e) {
+            throw new DBException("Erro ao gravar no journal de histórico: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Group commit: a primeira thread que chega faz o fsync por todas as que escreveram até ali.
+    private void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (syncedSequence < sequence) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                long target = lastSequence;
+                lock.unlock();
+                IOException failure = null;
+                try {
+                    channel.force(false);
+                } catch (IOException e) {
+                    failure = e;
+                } finally {
+                    lock.lock();
+                }
+                syncing = false;
+                if (failure == null) {
+                    syncedSequence = Math.max(syncedSequence, target);
+                }
+                synced.signalAll();
+                if (failure != null) {
+                    throw new DBException("Erro ao sincronizar o journal de histórico: " + failure.getMessage());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasCommittedUpTo(long sequence) {
+        for (JournalEvent event : pending) {
+            if (event.sequence > sequence) {
+                break;
+            }
+            if (event.committed) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startFlusher() {
+        flusher = new Thread(this::flushLoop, "taskboard-history-journal");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<JournalEvent> batch = new ArrayList<>();
+            lock.lock();
+            try {
+                if (!closed && pending.size() < batchSize && appliedSequence >= drainTarget) {
+                    work.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+                // Só a parte inicial já confirmada: a ordem de cada card tem que ser preservada.
+                Iterator<JournalEvent> it = pending.iterator();
+                while (it.hasNext() && batch.size() < batchSize) {
+                    JournalEvent event = it.next();
+                    if (!event.committed) {
+                        break;
+                    }
+                    batch.add(event);
+                }
+                if (batch.isEmpty()) {
+                    if (closed) {
+                        return;
+                    }
+                    if (pending.isEmpty()) {
+                        appliedSequence = lastSequence;
+                        applied.signalAll();
+                    }
+                    // O primeiro pendente é de uma transação ainda aberta; espera ela terminar.
+                    work.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                applier.apply(batch);
+            } catch (DBException e) {
+                lock.lock();
+                try {
+                    if (lastError == null) {
+                        System.out.println("AVISO: erro ao gravar o journal de histórico no banco; tentando novamente. "
+                                + e.getMessage());
+                    }
+                    lastError = e.getMessage();
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    Thread.sleep(flushIntervalMillis);
+                } catch (InterruptedException e1) {
+                    return;
+                }
+                continue;
+            }
+
+            lock.lock();
+            try {
+                lastError = null;
+                for (int i = 0; i < batch.size(); i++) {
+                    pending.removeFirst();
+                }
+                appliedSequence = pending.isEmpty() ? lastSequence : pending.peekFirst().sequence - 1;
+                applied.signalAll();
+                if (pending.isEmpty() && channel.size() > maxBytes) {
+                    // Tudo já está no banco (e no checkpoint); a numeração continua de onde parou.
+                    channel.truncate(0);
+                    channel.force(true);
+                }
+            } catch (IOException e) {
+                System.out.println("AVISO: não foi possível truncar o journal de histórico: " + e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        List<JournalEvent> events = new ArrayList<>();
+        long validEnd = 0;
+        // O stream não é fechado: fechá-lo fecharia também o canal.
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        try {
+            JournalEvent event;
+            while ((event = JournalEvent.read(in)) != null) {
+                events.add(event);
+                validEnd += event.encodedSize();
+            }
+        } catch (EOFException e) {
+            // Registro incompleto no fim: escrita interrompida por uma queda.
+        }
+        if (validEnd < channel.size()) {
+            System.out.println("AVISO: descartando " + (channel.size() - validEnd)
+                    + " bytes incompletos no fim do journal de histórico.");
+            channel.truncate(validEnd);
+        }
+        channel.position(validEnd);
+
+        long checkpoint = applier.readCheckpoint();
+        long maxSequence = checkpoint;
+        for (JournalEvent event : events) {
+            maxSequence = Math.max(maxSequence, event.sequence);
+        }
+        lastSequence = maxSequence;
+        syncedSequence = maxSequence;
+
+        List<JournalEvent> replay = applier.committedAfter(events, checkpoint);
+        for (int from = 0; from < replay.size(); from += batchSize) {
+            applier.apply(replay.subList(from, Math.min(from + batchSize, replay.size())));
+        }
+        if (!replay.isEmpty() || maxSequence > checkpoint) {
+            applier.advanceCheckpoint(maxSequence);
+            System.out.println("Journal de histórico: " + replay.size() + " eventos pendentes gravados no banco.");
+        }
+        appliedSequence = maxSequence;
+        drainTarget = maxSequence;
+    }
+}
@@ -0,0 +1,229 @@
+package com.taskboard.journal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+
+/**
+ * Grava lotes de eventos do journal em card_movement_history e
+ * card_block_history, numa única transação que também avança o checkpoint.
+ *
+ * Dentro do lote os intervalos são montados em memória: um card que entra e
+ * sai de várias colunas no mesmo lote gera linhas já fechadas, e só o
+ * intervalo que estava aberto no banco antes do lote precisa de UPDATE. Os
+ * UPDATEs rodam antes dos INSERTs para não fechar as linhas recém-inseridas.
+ */
+class JournalApplier {
+
+    private static final String CHECKPOINT = "history";
+
+    void apply(List<JournalEvent> events) {
+        List<Object[]> closeMoves = new ArrayList<>();
+        List<Object[]> unblocks = new ArrayList<>();
+        List<Object[]> moveRows = new ArrayList<>();
+        List<Object[]> blockRows = new ArrayList<>();
+        Map<Integer, Object[]> openMove = new HashMap<>();
+        Map<Integer, Object[]> openBlock = new HashMap<>();
+
+        for (JournalEvent event : events) {
+            Timestamp time = new Timestamp(event.timeMillis);
+            switch (event.type) {
+                case JournalEvent.MOVE: {
+                    Object[] open = openMove.get(event.cardId);
+                    if (open != null) {
+                        open[3] = time;
+                    } else {
+                        closeMoves.add(new Object[] { time, event.cardId, event.fromColumnId });
+                    }
+                    // card, coluna, entrada, saída
+                    Object[] row = { event.cardId, event.toColumnId, time, null };
+                    moveRows.add(row);
+                    openMove.put(event.cardId, row);
+                    break;
+                }
+                case JournalEvent.BLOCK: {
+                    // Card já bloqueado no lote: outra linha aberta nunca seria fechada pelo desbloqueio.
+                    if (openBlock.containsKey(event.cardId)) {
+                        break;
+                    }
+                    // card, bloqueio, motivo, desbloqueio, motivo do desbloqueio
+                    Object[] row = { event.cardId, time, event.reason, null, null };
+                    blockRows.add(row);
+                    openBlock.put(event.cardId, row);
+                    break;
+                }
+                case JournalEvent.UNBLOCK: {
+                    Object[] open = openBlock.remove(event.cardId);
+                    if (open != null) {
+                        open[3] = time;
+                        open[4] = event.reason;
+                    } else {
+                        unblocks.add(new Object[] { time, event.reason, event.cardId });
+                    }
+                    break;
+                }
+                default:
+                    throw new DBException("Tipo de evento desconhecido no journal: " + event.type);
+            }
+        }
+
+        Connection conn = null;
+        try {
+            conn = DB.getConnection("JournalApplier.apply");
+            conn.setAutoCommit(false);
+            executeBatch(conn, "UPDATE card_movement_history SET exit_time = ? "
+                    + "WHERE card_id = ? AND column_id = ? AND exit_time IS NULL", closeMoves);
+            executeBatch(conn, "UPDATE card_block_history SET unblock_time = ?, unblock_reason = ? "
+                    + "WHERE card_id = ? AND unblock_time IS NULL", unblocks);
+            // INSERT ... SELECT: eventos de cards já excluídos são ignorados.
+            executeBatch(conn, "INSERT INTO card_movement_history (card_id, column_id, entry_time, exit_time) "
+                    + "SELECT id, ?, ?, ? FROM cards WHERE id = ?", reorder(moveRows));
+            executeBatch(conn, "INSERT INTO card_block_history (card_id, block_time, block_reason, unblock_time, unblock_reason) "
+                    + "SELECT id, ?, ?, ?, ? FROM cards WHERE id = ?", reorder(blockRows));
+            setCheckpoint(conn, events.get(events.size() - 1).sequence);
+            conn.commit();
+        } catch (SQLException e) {
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException e1) {
+                // A conexão será descartada pelo pool.
+            }
+            throw new DBException("Erro ao gravar eventos do journal de histórico: " + e.getMessage());
+        } finally {
+            DB.closeConnection(conn);
+        }
+    }
+
+    long readCheckpoint() {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("JournalApplier.readCheckpoint");
+            st = conn.prepareStatement("SELECT last_sequence FROM history_journal_checkpoint WHERE name = ?");
+            st.setString(1, CHECKPOINT);
+            rs = st.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new DBException("Erro ao ler o checkpoint do journal de histórico: " + e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    void advanceCheckpoint(long sequence) {
+        Connection conn = null;
+        try {
+            conn = DB.getConnection("JournalApplier.advanceCheckpoint");
+            setCheckpoint(conn, sequence);
+        } catch (SQLException e) {
+            throw new DBException("Erro ao gravar o checkpoint do journal de histórico: " + e.getMessage());
+        } finally {
+            DB.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Eventos após o checkpoint cujas transações chegaram a confirmar: para cada
+     * (card, versão) vale o último registro, e versões maiores que a atual do
+     * card no banco são de transações que não confirmaram.
+     */
+    List<JournalEvent> committedAfter(List<JournalEvent> events, long checkpoint) {
+        Map<String, JournalEvent> latest = new LinkedHashMap<>();
+        for (JournalEvent event : events) {
+            if (event.sequence > checkpoint) {
+                String key = event.cardId + ":" + event.version;
+                latest.remove(key);
+                latest.put(key, event);
+            }
+        }
+        if (latest.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Integer> versions = currentVersions(latest.values());
+        List<JournalEvent> result = new ArrayList<>();
+        for (JournalEvent event : latest.values()) {
+            Integer current = versions.get(event.cardId);
+            if (current != null && event.version <= current) {
+                result.add(event);
+            }
+        }
+        result.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+        return result;
+    }
+
+    private Map<Integer, Integer> currentVersions(Iterable<JournalEvent> events) {
+        Map<Integer, Integer> versions = new HashMap<>();
+        Connection conn = null;
+        PreparedStatement st = null;
+        try {
+            conn = DB.getConnection("JournalApplier.currentVersions");
+            st = conn.prepareStatement("SELECT version FROM cards WHERE id = ?");
+            for (JournalEvent event : events) {
+                if (versions.containsKey(event.cardId)) {
+                    continue;
+                }
+                st.setInt(1, event.cardId);
+                try (ResultSet rs = st.executeQuery()) {
+                    versions.put(event.cardId, rs.next() ? rs.getInt(1) : null);
+                }
+            }
+            return versions;
+        } catch (SQLException e) {
+            throw new DBException("Erro ao conferir as versões dos cards do journal: " + e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    private static void setCheckpoint(Connection conn, long sequence) throws SQLException {
+        try (PreparedStatement st = conn.prepareStatement(
+                "UPDATE history_journal_checkpoint SET last_sequence = ? WHERE name = ?")) {
+            st.setLong(1, sequence);
+            st.setString(2, CHECKPOINT);
+            st.executeUpdate();
+        }
+    }
+
+    // As linhas são montadas com o card na frente; o INSERT ... SELECT recebe o card por último.
+    private static List<Object[]> reorder(List<Object[]> rows) {
+        List<Object[]> params = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Object[] p = new Object[row.length];
+            System.arraycopy(row, 1, p, 0, row.length - 1);
+            p[row.length - 1] = row[0];
+            params.add(p);
+        }
+        return params;
+    }
+
+    private static void executeBatch(Connection conn, String sql, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement st = conn.prepareStatement(sql)) {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    st.setObject(i + 1, row[i]);
+                }
+                st.addBatch();
+            }
+            st.executeBatch();
+        }
+    }
+}
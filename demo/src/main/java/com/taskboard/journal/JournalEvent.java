@@ -0,0 +1,123 @@
+package com.taskboard.journal;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Um evento de histórico no journal. Formato de cada registro:
+ * [tamanho do conteúdo: int][conteúdo][CRC32 do conteúdo: int], onde o
+ * conteúdo é sequência, tipo, card, coluna de origem, coluna de destino,
+ * versão do card, instante (epoch ms) e motivo (tamanho + UTF-8, -1 se nulo).
+ */
+class JournalEvent {
+
+    static final byte MOVE = 1;
+    static final byte BLOCK = 2;
+    static final byte UNBLOCK = 3;
+
+    private static final int FIXED_SIZE = 8 + 1 + 4 + 4 + 4 + 4 + 8 + 4;
+    private static final int MAX_REASON_BYTES = 1 << 20;
+
+    final long sequence;
+    final byte type;
+    final int cardId;
+    final int fromColumnId;
+    final int toColumnId;
+    final int version;
+    final long timeMillis;
+    final String reason;
+    volatile boolean committed;
+
+    JournalEvent(long sequence, byte type, int cardId, int fromColumnId, int toColumnId, int version,
+                 long timeMillis, String reason) {
+        this.sequence = sequence;
+        this.type = type;
+        this.cardId = cardId;
+        this.fromColumnId = fromColumnId;
+        this.toColumnId = toColumnId;
+        this.version = version;
+        this.timeMillis = timeMillis;
+        this.reason = reason;
+    }
+
+    int encodedSize() {
+        return 4 + payloadSize() + 4;
+    }
+
+    private int payloadSize() {
+        return FIXED_SIZE + (reason == null ? 0 : reason.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    ByteBuffer encode() {
+        byte[] reasonBytes = reason == null ? null : reason.getBytes(StandardCharsets.UTF_8);
+        int payloadSize = FIXED_SIZE + (reasonBytes == null ? 0 : reasonBytes.length);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + payloadSize + 4);
+        buffer.putInt(payloadSize);
+        buffer.putLong(sequence);
+        buffer.put(type);
+        buffer.putInt(cardId);
+        buffer.putInt(fromColumnId);
+        buffer.putInt(toColumnId);
+        buffer.putInt(version);
+        buffer.putLong(timeMillis);
+        if (reasonBytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(reasonBytes.length);
+            buffer.put(reasonBytes);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 4, payloadSize);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Lê o próximo registro; devolve null no fim do arquivo e lança
+     * EOFException se o registro estiver incompleto ou corrompido.
+     */
+    static JournalEvent read(DataInputStream in) throws IOException {
+        int payloadSize;
+        try {
+            payloadSize = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (payloadSize < FIXED_SIZE || payloadSize > FIXED_SIZE + MAX_REASON_BYTES) {
+            throw new EOFException("tamanho de registro inválido");
+        }
+        byte[] payload = new byte[payloadSize];
+        in.readFully(payload);
+        int storedCrc = in.readInt();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != storedCrc) {
+            throw new EOFException("CRC inválido");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long sequence = buffer.getLong();
+        byte type = buffer.get();
+        int cardId = buffer.getInt();
+        int fromColumnId = buffer.getInt();
+        int toColumnId = buffer.getInt();
+        int version = buffer.getInt();
+        long timeMillis = buffer.getLong();
+        int reasonLength = buffer.getInt();
+        String reason = null;
+        if (reasonLength >= 0) {
+            if (reasonLength != buffer.remaining()) {
+                throw new EOFException("motivo com tamanho inválido");
+            }
+            reason = new String(payload, buffer.position(), reasonLength, StandardCharsets.UTF_8);
+        }
+        JournalEvent event = new JournalEvent(sequence, type, cardId, fromColumnId, toColumnId, version, timeMillis, reason);
+        event.committed = true;
+        return event;
+    }
+}
@@ -0,0 +1,7 @@
+package com.taskboard.json;
+
+public class JsonException extends RuntimeException {
+    public JsonException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,193 @@
+package com.taskboard.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registro central das métricas de acesso ao banco: estatísticas por método
+ * de DAO, commits/rollbacks, tempo de espera por conexão do pool e consultas
+ * lentas. Tudo é publicado via JMX e pode ser gravado periodicamente em texto
+ * com {@link #startDump(Path, long)}.
+ */
+public class Metrics implements MetricsMXBean {
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final ConcurrentMap<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionWait = new LatencyHistogram();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+    private final LongAdder slowQueries = new LongAdder();
+    private volatile long slowQueryThresholdMillis = 500;
+    private ScheduledExecutorService dumper;
+    private Path dumpFile;
+
+    static {
+        register(INSTANCE, "com.taskboard:type=Metrics,name=Database");
+    }
+
+    private Metrics() {
+    }
+
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    public OperationStats operation(String name) {
+        OperationStats stats = operations.get(name);
+        if (stats == null) {
+            stats = operations.computeIfAbsent(name, n -> {
+                OperationStats created = new OperationStats(n);
+                register(created, "com.taskboard:type=Metrics,operation=" + ObjectName.quote(n));
+                return created;
+            });
+        }
+        return stats;
+    }
+
+    public void recordConnectionWait(long nanos) {
+        connectionWait.record(nanos);
+    }
+
+    public void recordCommit() {
+        commits.increment();
+    }
+
+    public void recordRollback() {
+        rollbacks.increment();
+    }
+
+    public void recordSlowQuery(OperationStats stats, long nanos, String sql, String parameters) {
+        slowQueries.increment();
+        stats.recordSlowQuery();
+        System.out.println(String.format("AVISO: consulta lenta em %s (%.1f ms): %s | parâmetros: %s",
+                stats.getOperation(), nanos / 1_000_000.0, sql.replaceAll("\\s+", " ").trim(), parameters));
+    }
+
+    public boolean isSlow(long nanos) {
+        return nanos >= TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMillis);
+    }
+
+    @Override
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    @Override
+    public long getRollbacks() {
+        return rollbacks.sum();
+    }
+
+    @Override
+    public long getSlowQueries() {
+        return slowQueries.sum();
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdMillis;
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long millis) {
+        this.slowQueryThresholdMillis = millis;
+    }
+
+    @Override
+    public double getConnectionWaitMeanMillis() {
+        return connectionWait.getMeanMillis();
+    }
+
+    @Override
+    public double getConnectionWaitP99Millis() {
+        return connectionWait.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getConnectionWaitMaxMillis() {
+        return connectionWait.getMaxMillis();
+    }
+
+    @Override
+    public String[] getOperations() {
+        return operations.keySet().stream().sorted().toArray(String[]::new);
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Métricas do banco em ").append(LocalDateTime.now()).append(" ===\n");
+        sb.append(String.format("commits=%d rollbacks=%d consultas lentas=%d (limite %d ms)%n",
+                getCommits(), getRollbacks(), getSlowQueries(), slowQueryThresholdMillis));
+        sb.append("Espera por conexão: ").append(connectionWait.summary()).append('\n');
+        List<OperationStats> sorted = new ArrayList<>(operations.values());
+        sorted.sort((a, b) -> Double.compare(b.getMeanMillis() * b.getCalls(), a.getMeanMillis() * a.getCalls()));
+        for (OperationStats stats : sorted) {
+            sb.append(stats).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Regrava o arquivo a cada período; o conteúdo é sempre o acumulado desde a inicialização.
+    public synchronized void startDump(Path file, long periodSeconds) {
+        if (dumper != null || periodSeconds <= 0) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "taskboard-metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumpFile = file;
+        dumper.scheduleAtFixedRate(() -> writeDump(file), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    // Para a gravação periódica e grava uma última vez.
+    public synchronized void stopDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+            writeDump(dumpFile);
+        }
+    }
+
+    private void writeDump(Path file) {
+        try {
+            Path tmp = Paths.get(file.toString() + ".tmp");
+            Files.write(tmp, dump().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.println("AVISO: não foi possível gravar as métricas em " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void register(Object bean, String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(bean, objectName);
+            }
+        } catch (JMException e) {
+            System.out.println("AVISO: não foi possível registrar as métricas no JMX (" + name + "): " + e.getMessage());
+        }
+    }
+}
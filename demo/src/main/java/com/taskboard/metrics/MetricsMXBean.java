@@ -0,0 +1,28 @@
+package com.taskboard.metrics;
+
+/**
+ * Métricas gerais do acesso ao banco expostas via JMX, em
+ * {@code com.taskboard:type=Metrics,name=Database}.
+ */
+public interface MetricsMXBean {
+
+    long getCommits();
+
+    long getRollbacks();
+
+    long getSlowQueries();
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long millis);
+
+    double getConnectionWaitMeanMillis();
+
+    double getConnectionWaitP99Millis();
+
+    double getConnectionWaitMaxMillis();
+
+    String[] getOperations();
+
+    String dump();
+}
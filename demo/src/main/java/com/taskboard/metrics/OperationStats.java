@@ -0,0 +1,93 @@
+package com.taskboard.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de um método de DAO: latência de cada chamada (do empréstimo da
+ * conexão até a devolução), linhas lidas ou alteradas, erros de SQL e
+ * consultas lentas.
+ */
+public class OperationStats implements OperationStatsMXBean {
+
+    private final String operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder slowQueries = new LongAdder();
+
+    OperationStats(String operation) {
+        this.operation = operation;
+    }
+
+    public void recordCall(long nanos) {
+        latency.record(nanos);
+    }
+
+    public void recordRows(long count) {
+        rows.add(count);
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public void recordSlowQuery() {
+        slowQueries.increment();
+    }
+
+    @Override
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getSlowQueries() {
+        return slowQueries.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latency.getMeanMillis();
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.getPercentileMillis(50);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getP999Millis() {
+        return latency.getPercentileMillis(99.9);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s %s linhas=%d erros=%d lentas=%d", operation, latency.summary(),
+                getRows(), getErrors(), getSlowQueries());
+    }
+}
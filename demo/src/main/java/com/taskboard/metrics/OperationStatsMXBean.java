@@ -0,0 +1,28 @@
+package com.taskboard.metrics;
+
+/**
+ * Métricas de um método de DAO expostas via JMX, em
+ * {@code com.taskboard:type=Metrics,operation=<Classe.metodo>}.
+ */
+public interface OperationStatsMXBean {
+
+    String getOperation();
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    long getSlowQueries();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+}
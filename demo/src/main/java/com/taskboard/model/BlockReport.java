@@ -0,0 +1,76 @@
+package com.taskboard.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BlockReport {
+    private final int boardId;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final List<CardBlockTime> cards = new ArrayList<>();
+    private final List<ReasonCount> topReasons = new ArrayList<>();
+    private long totalBlockedSeconds;
+    private long blockCount;
+    private int openBlocks;
+
+    public BlockReport(int boardId, LocalDateTime from, LocalDateTime to) {
+        this.boardId = boardId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public int getBoardId() { return boardId; }
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+    public List<CardBlockTime> getCards() { return cards; }
+    public List<ReasonCount> getTopReasons() { return topReasons; }
+    public long getTotalBlockedSeconds() { return totalBlockedSeconds; }
+    public void setTotalBlockedSeconds(long totalBlockedSeconds) { this.totalBlockedSeconds = totalBlockedSeconds; }
+    public long getBlockCount() { return blockCount; }
+    public void setBlockCount(long blockCount) { this.blockCount = blockCount; }
+    public int getOpenBlocks() { return openBlocks; }
+    public void setOpenBlocks(int openBlocks) { this.openBlocks = openBlocks; }
+
+    public static class CardBlockTime {
+        private final int cardId;
+        private final String title;
+        private final String columnName;
+        private final long blockedSeconds;
+        private final int blocks;
+        private final boolean currentlyBlocked;
+
+        public CardBlockTime(int cardId, String title, String columnName, long blockedSeconds, int blocks, boolean currentlyBlocked) {
+            this.cardId = cardId;
+            this.title = title;
+            this.columnName = columnName;
+            this.blockedSeconds = blockedSeconds;
+            this.blocks = blocks;
+            this.currentlyBlocked = currentlyBlocked;
+        }
+
+        public int getCardId() { return cardId; }
+        public String getTitle() { return title; }
+        public String getColumnName() { return columnName; }
+        public long getBlockedSeconds() { return blockedSeconds; }
+        public int getBlocks() { return blocks; }
+        public boolean isCurrentlyBlocked() { return currentlyBlocked; }
+    }
+
+    // A contagem é aproximada (Space-Saving): pode superestimar em até getError().
+    public static class ReasonCount {
+        private final String reason;
+        private final long count;
+        private final long error;
+
+        public ReasonCount(String reason, long count, long error) {
+            this.reason = reason;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getReason() { return reason; }
+        public long getCount() { return count; }
+        public long getError() { return error; }
+    }
+}
@@ -0,0 +1,63 @@
+package com.taskboard.model;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Total de cards e de cards bloqueados de cada coluna de um board, com as
+ * somas por {@link ColumnType} e do board inteiro. Vem dos contadores
+ * mantidos na tabela columns, sem ler os cards.
+ */
+public class BoardCardCounts {
+    private final int boardId;
+    private final Map<Integer, int[]> byColumn = new HashMap<>();
+    private final Map<ColumnType, int[]> byType = new EnumMap<>(ColumnType.class);
+    private int total;
+    private int blocked;
+
+    public BoardCardCounts(int boardId) {
+        this.boardId = boardId;
+    }
+
+    public void add(int columnId, ColumnType type, int total, int blocked) {
+        byColumn.put(columnId, new int[] { total, blocked });
+        int[] sums = byType.computeIfAbsent(type, t -> new int[2]);
+        sums[0] += total;
+        sums[1] += blocked;
+        this.total += total;
+        this.blocked += blocked;
+    }
+
+    public int getBoardId() {
+        return boardId;
+    }
+
+    public int getTotal(int columnId) {
+        int[] counts = byColumn.get(columnId);
+        return counts == null ? 0 : counts[0];
+    }
+
+    public int getBlocked(int columnId) {
+        int[] counts = byColumn.get(columnId);
+        return counts == null ? 0 : counts[1];
+    }
+
+    public int getTotal(ColumnType type) {
+        int[] sums = byType.get(type);
+        return sums == null ? 0 : sums[0];
+    }
+
+    public int getBlocked(ColumnType type) {
+        int[] sums = byType.get(type);
+        return sums == null ? 0 : sums[1];
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getBlocked() {
+        return blocked;
+    }
+}
@@ -0,0 +1,60 @@
+package com.taskboard.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estrutura de colunas de um board, já ordenada e indexada por id e por tipo.
+ */
+public class BoardColumns {
+    private final int boardId;
+    private final List<Column> columns;
+    private final Map<Integer, Column> byId = new HashMap<>();
+    private final Map<ColumnType, Column> firstByType = new EnumMap<>(ColumnType.class);
+    private final Map<Integer, Column> nextById = new HashMap<>();
+
+    public BoardColumns(int boardId, List<Column> orderedColumns) {
+        this.boardId = boardId;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(orderedColumns));
+
+        Column following = null;
+        for (int i = columns.size() - 1; i >= 0; i--) {
+            Column column = columns.get(i);
+            byId.put(column.getId(), column);
+            firstByType.put(column.getType(), column);
+            if (following != null) {
+                nextById.put(column.getId(), following);
+            }
+            if (column.getType() != ColumnType.CANCELAMENTO) {
+                following = column;
+            }
+        }
+    }
+
+    public int getBoardId() {
+        return boardId;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public Column findById(int columnId) {
+        return byId.get(columnId);
+    }
+
+    public Column findFirstByType(ColumnType type) {
+        return firstByType.get(type);
+    }
+
+    /**
+     * Próxima coluna do fluxo (ignorando a de cancelamento), ou null se não houver.
+     */
+    public Column findNext(int columnId) {
+        return nextById.get(columnId);
+    }
+}
@@ -0,0 +1,61 @@
+package com.taskboard.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BoardSnapshot {
+    private final Board board;
+    private final BoardColumns columns;
+    private final Map<Integer, List<Card>> cardsByColumn = new HashMap<>();
+    private final Map<Integer, Card> cardsById = new HashMap<>();
+    private final Map<Integer, Integer> cardCounts = new HashMap<>();
+
+    public BoardSnapshot(Board board, BoardColumns columns) {
+        this.board = board;
+        this.columns = columns;
+        for (Column column : columns.getColumns()) {
+            cardsByColumn.put(column.getId(), new ArrayList<>());
+        }
+    }
+
+    public void addCard(Card card) {
+        List<Card> cards = cardsByColumn.get(card.getColumnId());
+        if (cards != null) {
+            cards.add(card);
+            cardsById.put(card.getId(), card);
+        }
+    }
+
+    public void setCardCount(int columnId, int count) {
+        cardCounts.put(columnId, count);
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public BoardColumns getBoardColumns() {
+        return columns;
+    }
+
+    public List<Column> getColumns() {
+        return columns.getColumns();
+    }
+
+    public List<Card> getCards(int columnId) {
+        List<Card> cards = cardsByColumn.get(columnId);
+        return cards == null ? Collections.emptyList() : Collections.unmodifiableList(cards);
+    }
+
+    public int getCardCount(int columnId) {
+        return cardCounts.getOrDefault(columnId, 0);
+    }
+
+    // Só encontra cards da primeira página de cada coluna.
+    public Card findCard(int cardId) {
+        return cardsById.get(cardId);
+    }
+}
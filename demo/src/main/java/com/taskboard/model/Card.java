@@ -9,6 +9,7 @@ public class Card {
     private LocalDateTime creationDate;
     private boolean isBlocked;
     private int columnId;
+    private int version;
 
     
 public int getId(){
@@ -37,6 +38,14 @@ public int getColumnId(){
 
 public void setColumnId(int columnId){ this.columnId = columnId; }
 
+public int getVersion(){
+    return version;
+}
+
+public void setVersion(int version){
+    this.version = version;
+}
+
 public void setTitle(String newtitle){
     this.title = newtitle;
 }
@@ -0,0 +1,27 @@
+package com.taskboard.model;
+
+import java.util.Collections;
+import java.util.List;
+
+public class CardPage {
+    private final List<Card> cards;
+    private final boolean hasMore;
+
+    public CardPage(List<Card> cards, boolean hasMore) {
+        this.cards = Collections.unmodifiableList(cards);
+        this.hasMore = hasMore;
+    }
+
+    public List<Card> getCards() {
+        return cards;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    // Cursor para a próxima página: o último card desta página.
+    public Card getLastCard() {
+        return cards.isEmpty() ? null : cards.get(cards.size() - 1);
+    }
+}
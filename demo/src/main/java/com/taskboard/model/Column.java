@@ -6,6 +6,7 @@ public class Column {
     private int boardId;
     private int columnOrder;
     private ColumnType type;
+    private Integer wipLimit;
 
     public int getId(){
         return id;
@@ -27,6 +28,11 @@ public class Column {
         return name;
     }
 
+    // Máximo de cards na coluna; null = sem limite.
+    public Integer getWipLimit() {
+        return wipLimit;
+    }
+
     public void setName(String nomeColuna){
         this.name = nomeColuna;
     }
@@ -47,4 +53,8 @@ public class Column {
         this.type = type;
     }
 
+    public void setWipLimit(Integer wipLimit) {
+        this.wipLimit = wipLimit;
+    }
+
 }
\ No newline at end of file
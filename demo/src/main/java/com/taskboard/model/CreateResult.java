@@ -0,0 +1,11 @@
+package com.taskboard.model;
+
+/**
+ * Resultado da criação de um card.
+ */
+public enum CreateResult {
+    /** O card foi gravado e recebeu um id. */
+    CREATED,
+    /** A coluna já está no limite WIP; nada foi gravado. */
+    WIP_LIMIT_REACHED
+}
@@ -0,0 +1,47 @@
+package com.taskboard.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FlowReport {
+    private final int boardId;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final List<ColumnFlow> columns = new ArrayList<>();
+    private boolean archiveRead;
+
+    public FlowReport(int boardId, LocalDateTime from, LocalDateTime to) {
+        this.boardId = boardId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public int getBoardId() { return boardId; }
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+    public List<ColumnFlow> getColumns() { return columns; }
+    // Se o período chegou ao histórico arquivado.
+    public boolean isArchiveRead() { return archiveRead; }
+    public void setArchiveRead(boolean archiveRead) { this.archiveRead = archiveRead; }
+
+    // Entradas e saídas de cards na coluna dentro do período, e o tempo passado nela (limitado ao período).
+    public static class ColumnFlow {
+        private final Column column;
+        private final long entries;
+        private final long exits;
+        private final long seconds;
+
+        public ColumnFlow(Column column, long entries, long exits, long seconds) {
+            this.column = column;
+            this.entries = entries;
+            this.exits = exits;
+            this.seconds = seconds;
+        }
+
+        public Column getColumn() { return column; }
+        public long getEntries() { return entries; }
+        public long getExits() { return exits; }
+        public long getSeconds() { return seconds; }
+    }
+}
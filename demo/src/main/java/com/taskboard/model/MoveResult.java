@@ -0,0 +1,13 @@
+package com.taskboard.model;
+
+/**
+ * Resultado de uma movimentação de card com controle de concorrência otimista.
+ */
+public enum MoveResult {
+    /** O card foi movido e a versão incrementada. */
+    MOVED,
+    /** O card mudou (coluna, versão) desde que foi lido, ou não existe mais; nada foi alterado. */
+    CONFLICT,
+    /** A coluna de destino já está no limite WIP; nada foi alterado. */
+    WIP_LIMIT_REACHED
+}
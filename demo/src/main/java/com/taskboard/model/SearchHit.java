@@ -0,0 +1,19 @@
+package com.taskboard.model;
+
+public class SearchHit {
+    private final Card card;
+    private final double score;
+
+    public SearchHit(Card card, double score) {
+        this.card = card;
+        this.score = score;
+    }
+
+    public Card getCard() {
+        return card;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,75 @@
+package com.taskboard.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimeReport {
+    private final int boardId;
+    private final List<ColumnTime> columnTimes = new ArrayList<>();
+    private final List<CardTime> completedCards = new ArrayList<>();
+    private int completedCount;
+    private double averageLeadSeconds;
+    private double averageCycleSeconds;
+
+    public TimeReport(int boardId) {
+        this.boardId = boardId;
+    }
+
+    public int getBoardId() { return boardId; }
+    public List<ColumnTime> getColumnTimes() { return columnTimes; }
+    public List<CardTime> getCompletedCards() { return completedCards; }
+    public int getCompletedCount() { return completedCount; }
+    public void setCompletedCount(int completedCount) { this.completedCount = completedCount; }
+    public double getAverageLeadSeconds() { return averageLeadSeconds; }
+    public void setAverageLeadSeconds(double averageLeadSeconds) { this.averageLeadSeconds = averageLeadSeconds; }
+    public double getAverageCycleSeconds() { return averageCycleSeconds; }
+    public void setAverageCycleSeconds(double averageCycleSeconds) { this.averageCycleSeconds = averageCycleSeconds; }
+
+    // Tempo somado de todos os cards em uma coluna, incluindo os que ainda estão nela.
+    public static class ColumnTime {
+        private final Column column;
+        private final long totalSeconds;
+        private final long visits;
+        private final int currentCards;
+
+        public ColumnTime(Column column, long totalSeconds, long visits, int currentCards) {
+            this.column = column;
+            this.totalSeconds = totalSeconds;
+            this.visits = visits;
+            this.currentCards = currentCards;
+        }
+
+        public Column getColumn() { return column; }
+        public long getTotalSeconds() { return totalSeconds; }
+        public long getVisits() { return visits; }
+        public int getCurrentCards() { return currentCards; }
+
+        public double getAverageSeconds() {
+            return visits == 0 ? 0.0 : (double) totalSeconds / visits;
+        }
+    }
+
+    // Lead time: criação até a entrada na coluna final. Cycle time: saída da coluna inicial até a final.
+    public static class CardTime {
+        private final int cardId;
+        private final String title;
+        private final LocalDateTime completedAt;
+        private final long leadSeconds;
+        private final long cycleSeconds;
+
+        public CardTime(int cardId, String title, LocalDateTime completedAt, long leadSeconds, long cycleSeconds) {
+            this.cardId = cardId;
+            this.title = title;
+            this.completedAt = completedAt;
+            this.leadSeconds = leadSeconds;
+            this.cycleSeconds = cycleSeconds;
+        }
+
+        public int getCardId() { return cardId; }
+        public String getTitle() { return title; }
+        public LocalDateTime getCompletedAt() { return completedAt; }
+        public long getLeadSeconds() { return leadSeconds; }
+        public long getCycleSeconds() { return cycleSeconds; }
+    }
+}
@@ -0,0 +1,28 @@
+package com.taskboard.search;
+
+import java.util.List;
+
+import com.taskboard.model.SearchHit;
+
+/**
+ * Busca textual no título e na descrição dos cards. A implementação vem de
+ * {@code search.engine}: {@code memory} (índice invertido em memória, padrão)
+ * ou {@code fulltext} (índice FULLTEXT do MySQL).
+ */
+public interface CardSearch {
+
+    /**
+     * Cards que contêm todas as palavras da consulta, do mais relevante para o
+     * menos relevante. boardId e columnId são filtros opcionais (null = todos).
+     */
+    List<SearchHit> search(String query, Integer boardId, Integer columnId, int limit);
+
+    /**
+     * Reconstrói o índice a partir da tabela cards.
+     */
+    void rebuild();
+
+    static CardSearch getInstance() {
+        return CardSearchProvider.get();
+    }
+}
@@ -0,0 +1,41 @@
+package com.taskboard.search;
+
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+
+final class CardSearchProvider {
+
+    private static volatile CardSearch instance;
+
+    private CardSearchProvider() {
+    }
+
+    static CardSearch get() {
+        CardSearch current = instance;
+        if (current == null) {
+            synchronized (CardSearchProvider.class) {
+                current = instance;
+                if (current == null) {
+                    current = create(DB.getProperty("search.engine", "memory"));
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static CardSearch create(String engine) {
+        switch (engine) {
+            case "memory":
+                return InMemoryCardSearch.start();
+            case "fulltext":
+                if (!DB.getBackend().supportsFullText()) {
+                    throw new DBException("search.engine=fulltext exige o MySQL; o banco " + DB.getBackend()
+                            + " não tem índices FULLTEXT (use search.engine=memory).");
+                }
+                return new FullTextCardSearch();
+            default:
+                throw new DBException("Valor inválido para search.engine: '" + engine + "' (use memory ou fulltext).");
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.taskboard.search;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.taskboard.dao.CardDAO;
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+import com.taskboard.model.SearchHit;
+
+/**
+ * Busca pelo índice FULLTEXT do MySQL em (title, description). O índice não faz
+ * parte das migrações, porque o H2 dos benchmarks não o suporta: é criado na
+ * primeira busca com {@code search.engine=fulltext}.
+ *
+ * O filtro usa o modo booleano (todas as palavras obrigatórias, como no índice
+ * em memória) e a ordenação usa a relevância do modo de linguagem natural.
+ * Palavras com menos de innodb_ft_min_token_size letras (3, por padrão) e as
+ * stopwords do InnoDB são ignoradas pelo MySQL.
+ */
+public class FullTextCardSearch implements CardSearch {
+
+    private static final String INDEX_NAME = "ft_cards_text";
+
+    private volatile boolean indexChecked;
+
+    @Override
+    public List<SearchHit> search(String query, Integer boardId, Integer columnId, int limit) {
+        List<String> terms = Tokenizer.queryTerms(query);
+        List<SearchHit> hits = new ArrayList<>();
+        if (terms.isEmpty() || limit <= 0) {
+            return hits;
+        }
+        ensureIndex();
+
+        StringBuilder required = new StringBuilder();
+        for (String term : terms) {
+            required.append(required.length() == 0 ? "+" : " +").append(term);
+        }
+        String natural = String.join(" ", terms);
+        String sql = "SELECT c.*, MATCH(c.title, c.description) AGAINST (? IN NATURAL LANGUAGE MODE) AS score "
+                + "FROM cards c JOIN columns col ON c.column_id = col.id "
+                + "WHERE MATCH(c.title, c.description) AGAINST (? IN BOOLEAN MODE)"
+                + (boardId != null ? " AND col.board_id = ?" : "")
+                + (columnId != null ? " AND c.column_id = ?" : "")
+                + " ORDER BY score DESC, c.id DESC LIMIT ?";
+
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = DB.getConnection("FullTextCardSearch.search");
+            st = conn.prepareStatement(sql);
+            int index = 1;
+            st.setString(index++, natural);
+            st.setString(index++, required.toString());
+            if (boardId != null) {
+                st.setInt(index++, boardId);
+            }
+            if (columnId != null) {
+                st.setInt(index++, columnId);
+            }
+            st.setInt(index, limit);
+            rs = st.executeQuery();
+            while (rs.next()) {
+                hits.add(new SearchHit(CardDAO.instantiateCard(rs), rs.getDouble("score")));
+            }
+            return hits;
+        } catch (SQLException e) {
+            throw new DBException("Erro na busca textual: " + e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+        }
+    }
+
+    // Recria o índice FULLTEXT (o InnoDB não tem um comando de reconstrução só para ele).
+    @Override
+    public synchronized void rebuild() {
+        Connection conn = null;
+        Statement st = null;
+        try {
+            conn = DB.getConnection("FullTextCardSearch.rebuild");
+            st = conn.createStatement();
+            if (indexExists(conn)) {
+                st.executeUpdate("ALTER TABLE cards DROP INDEX " + INDEX_NAME);
+            }
+            st.executeUpdate("ALTER TABLE cards ADD FULLTEXT INDEX " + INDEX_NAME + " (title, description)");
+            indexChecked = true;
+        } catch (SQLException e) {
+            throw new DBException("Erro ao reconstruir o índice FULLTEXT: " + e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    private void ensureIndex() {
+        if (indexChecked) {
+            return;
+        }
+        synchronized (this) {
+            if (indexChecked) {
+                return;
+            }
+            Connection conn = null;
+            Statement st = null;
+            try {
+                conn = DB.getConnection("FullTextCardSearch.ensureIndex");
+                if (!indexExists(conn)) {
+                    System.out.println("Criando o índice FULLTEXT de cards (pode demorar em tabelas grandes)...");
+                    st = conn.createStatement();
+                    st.executeUpdate("ALTER TABLE cards ADD FULLTEXT INDEX " + INDEX_NAME + " (title, description)");
+                }
+                indexChecked = true;
+            } catch (SQLException e) {
+                throw new DBException("Erro ao criar o índice FULLTEXT: " + e.getMessage());
+            } finally {
+                DB.closeStatement(st);
+                DB.closeConnection(conn);
+            }
+        }
+    }
+
+    private static boolean indexExists(Connection conn) throws SQLException {
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            st = conn.prepareStatement("SELECT COUNT(*) FROM information_schema.statistics "
+                    + "WHERE table_schema = DATABASE() AND table_name = 'cards' AND index_name = ?");
+            st.setString(1, INDEX_NAME);
+            rs = st.executeQuery();
+            rs.next();
+            return rs.getInt(1) > 0;
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.taskboard.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.taskboard.dao.CardRepository;
+import com.taskboard.dao.ColumnDAO;
+import com.taskboard.db.DB;
+import com.taskboard.events.BoardEvent;
+import com.taskboard.events.CardBlocked;
+import com.taskboard.events.CardCreated;
+import com.taskboard.events.CardDeleted;
+import com.taskboard.events.CardMoved;
+import com.taskboard.events.CardUnblocked;
+import com.taskboard.events.ColumnCreated;
+import com.taskboard.events.ColumnsDeleted;
+import com.taskboard.events.EventBus;
+import com.taskboard.events.EventListener;
+import com.taskboard.events.Subscription;
+import com.taskboard.model.Card;
+import com.taskboard.model.SearchHit;
+
+/**
+ * Busca pelo {@link InvertedIndex} em memória. O índice é montado a partir da
+ * tabela cards na primeira busca (ou em {@link #rebuild()}) e depois mantido
+ * pelos eventos do {@link EventBus}. Se a fila de eventos estourar, o índice é
+ * reconstruído em segundo plano e as buscas continuam no índice anterior.
+ */
+public class InMemoryCardSearch implements CardSearch, EventListener {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    private final CardRepository cardDAO = CardRepository.getInstance();
+    private final ColumnDAO columnDAO = new ColumnDAO();
+    private Subscription subscription;
+
+    // Protegidos por lock.
+    private InvertedIndex index = new InvertedIndex();
+    private List<BoardEvent> buffered;
+    private boolean built;
+    private boolean rebuilding;
+
+    public static InMemoryCardSearch start() {
+        InMemoryCardSearch search = new InMemoryCardSearch();
+        search.subscription = EventBus.getInstance().subscribe("search-index",
+                Math.max(2, DB.getIntProperty("search.queueCapacity", 65536)), search);
+        return search;
+    }
+
+    @Override
+    public List<SearchHit> search(String query, Integer boardId, Integer columnId, int limit) {
+        ensureBuilt();
+        List<String> terms = Tokenizer.queryTerms(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        int[] ids = new int[limit];
+        float[] scores = new float[limit];
+        int count;
+        lock.readLock().lock();
+        try {
+            BitSet columns = null;
+            if (boardId != null) {
+                columns = index.columnsOfBoard(boardId);
+            }
+            if (columnId != null) {
+                BitSet column = new BitSet();
+                column.set(columnId);
+                if (columns != null) {
+                    column.and(columns);
+                }
+                columns = column;
+            }
+            count = index.search(terms, columns, limit, ids, scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Integer> cardIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cardIds.add(ids[i]);
+        }
+        Map<Integer, Card> cards = new HashMap<>();
+        for (Card card : cardDAO.findByIds(cardIds)) {
+            cards.put(card.getId(), card);
+        }
+        List<SearchHit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Card card = cards.get(ids[i]);
+            if (card != null) {
+                hits.add(new SearchHit(card, scores[i]));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Lê todos os cards para um índice novo e o troca pelo atual. Os eventos que
+     * chegam durante a leitura são guardados e aplicados depois da troca.
+     */
+    @Override
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                if (buffered == null) {
+                    buffered = new ArrayList<>();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            InvertedIndex fresh = null;
+            try {
+                InvertedIndex loading = new InvertedIndex();
+                for (Map.Entry<Integer, Integer> entry : columnDAO.findBoardIdsByColumn().entrySet()) {
+                    loading.putColumn(entry.getKey(), entry.getValue());
+                }
+                cardDAO.forEachCard(card -> loading.add(card.getId(), card.getColumnId(), card.getVersion(),
+                        card.getTitle(), card.getDescription()));
+                fresh = loading;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (fresh != null) {
+                        index = fresh;
+                        built = true;
+                    }
+                    for (BoardEvent event : buffered) {
+                        apply(event);
+                    }
+                    buffered = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private void ensureBuilt() {
+        lock.readLock().lock();
+        try {
+            if (built) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        synchronized (rebuildLock) {
+            lock.readLock().lock();
+            try {
+                if (built) {
+                    return;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            rebuild();
+        }
+    }
+
+    @Override
+    public void onEvent(BoardEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (buffered != null) {
+                buffered.add(event);
+            } else if (built) {
+                apply(event);
+            }
+            // Antes da primeira carga não há o que atualizar: a leitura da tabela cobre o evento.
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onOverflow(long droppedEvents) {
+        lock.writeLock().lock();
+        try {
+            if (!built || rebuilding) {
+                return;
+            }
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("AVISO: " + droppedEvents + " eventos descartados pelo índice de busca; reconstruindo em segundo plano.");
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                System.out.println("ERRO ao reconstruir o índice de busca: " + e.getMessage());
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    rebuilding = false;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }, "taskboard-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void apply(BoardEvent event) {
+        if (event instanceof CardCreated created) {
+            index.add(created.getCardId(), created.getColumnId(), created.getVersion(), created.getTitle(), created.getDescription());
+        } else if (event instanceof CardMoved moved) {
+            index.update(moved.getCardId(), moved.getToColumnId(), moved.getVersion());
+        } else if (event instanceof CardBlocked blocked) {
+            index.update(blocked.getCardId(), blocked.getColumnId(), blocked.getVersion());
+        } else if (event instanceof CardUnblocked unblocked) {
+            index.update(unblocked.getCardId(), unblocked.getColumnId(), unblocked.getVersion());
+        } else if (event instanceof CardDeleted deleted) {
+            index.remove(deleted.getCardId());
+        } else if (event instanceof ColumnCreated created) {
+            index.putColumn(created.getColumnId(), created.getBoardId());
+        } else if (event instanceof ColumnsDeleted deleted) {
+            index.removeBoard(deleted.getBoardId());
+        }
+    }
+
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return String.format("InMemoryCardSearch [cards=%d, removidos=%d, termos=%d, %s]",
+                    index.getLiveDocs(), index.getDeadDocs(), index.getTermCount(), subscription);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
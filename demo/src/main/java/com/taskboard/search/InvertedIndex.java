@@ -0,0 +1,352 @@
+package com.taskboard.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice invertido dos cards: para cada termo, a lista (ordenada por id) dos
+ * cards que o contêm e a frequência ponderada do termo em cada um. Os dados de
+ * cada card (coluna, versão, tamanho) ficam em arrays indexados pelo id.
+ *
+ * Não é thread-safe; {@link InMemoryCardSearch} controla o acesso.
+ */
+final class InvertedIndex {
+
+    // Um termo no título vale por três na descrição.
+    private static final int TITLE_WEIGHT = 3;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final Map<String, Postings> terms = new HashMap<>();
+    private int[] docColumn = new int[1024]; // 0 = card fora do índice
+    private int[] docVersion = new int[1024];
+    private int[] docLength = new int[1024];
+    private int liveDocs;
+    private int deadDocs;
+    private long totalLength;
+
+    private final Map<Integer, Integer> boardOfColumn = new HashMap<>();
+    private final BitSet liveColumns = new BitSet();
+
+    /**
+     * Devolve false se o card já estiver no índice.
+     */
+    boolean add(int cardId, int columnId, int version, String title, String description) {
+        ensureCapacity(cardId);
+        if (docColumn[cardId] != 0) {
+            return false;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String token : Tokenizer.tokens(title)) {
+            frequencies.merge(token, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String token : Tokenizer.tokens(description)) {
+            frequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), term -> new Postings()).add(cardId, entry.getValue());
+        }
+        docColumn[cardId] = columnId;
+        docVersion[cardId] = version;
+        docLength[cardId] = length;
+        liveDocs++;
+        totalLength += length;
+        return true;
+    }
+
+    // Movimentação ou bloqueio: só a coluna e a versão mudam; eventos atrasados são ignorados.
+    void update(int cardId, int columnId, int version) {
+        if (cardId < docColumn.length && docColumn[cardId] != 0 && version > docVersion[cardId]) {
+            docColumn[cardId] = columnId;
+            docVersion[cardId] = version;
+        }
+    }
+
+    // As entradas do card continuam nas listas até a próxima reconstrução; a busca as ignora.
+    void remove(int cardId) {
+        if (cardId < docColumn.length && docColumn[cardId] != 0) {
+            docColumn[cardId] = 0;
+            liveDocs--;
+            deadDocs++;
+            totalLength -= docLength[cardId];
+        }
+    }
+
+    void putColumn(int columnId, int boardId) {
+        boardOfColumn.put(columnId, boardId);
+        liveColumns.set(columnId);
+    }
+
+    // Board excluído: as colunas (e os cards, em cascata) saem do banco sem eventos por card.
+    void removeBoard(int boardId) {
+        Iterator<Map.Entry<Integer, Integer>> it = boardOfColumn.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Integer> entry = it.next();
+            if (entry.getValue() == boardId) {
+                liveColumns.clear(entry.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    BitSet columnsOfBoard(int boardId) {
+        BitSet columns = new BitSet();
+        for (Map.Entry<Integer, Integer> entry : boardOfColumn.entrySet()) {
+            if (entry.getValue() == boardId) {
+                columns.set(entry.getKey());
+            }
+        }
+        return columns;
+    }
+
+    int getLiveDocs() {
+        return liveDocs;
+    }
+
+    int getDeadDocs() {
+        return deadDocs;
+    }
+
+    int getTermCount() {
+        return terms.size();
+    }
+
+    /**
+     * Cards com todos os termos, ordenados por BM25 (empate: o mais novo primeiro).
+     * Percorre a lista do termo mais raro e procura cada card nas demais com
+     * busca exponencial, então o custo é proporcional ao termo mais raro.
+     *
+     * @param columns colunas aceitas, ou null para qualquer coluna viva
+     * @return quantos resultados foram escritos em ids e scores
+     */
+    int search(List<String> queryTerms, BitSet columns, int limit, int[] ids, float[] scores) {
+        int n = queryTerms.size();
+        if (n == 0 || limit <= 0) {
+            return 0;
+        }
+        Postings[] lists = new Postings[n];
+        for (int i = 0; i < n; i++) {
+            lists[i] = terms.get(queryTerms.get(i));
+            if (lists[i] == null) {
+                return 0;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        BitSet live = (BitSet) liveColumns.clone();
+        if (columns != null) {
+            live.and(columns);
+        }
+        boolean[] allowed = new boolean[Math.max(1, live.length())];
+        for (int c = live.nextSetBit(0); c >= 0; c = live.nextSetBit(c + 1)) {
+            allowed[c] = true;
+        }
+        float documents = Math.max(1, liveDocs);
+        float averageLength = Math.max(1f, (float) totalLength / documents);
+        float base = K1 * (1 - B);
+        float lengthFactor = K1 * B / averageLength;
+
+        // remaining[j]: maior contribuição possível dos termos j..n-1 (frequência tendendo ao infinito).
+        float[] idf = new float[n];
+        float[] remaining = new float[n + 1];
+        for (int i = 0; i < n; i++) {
+            idf[i] = (float) Math.log(1 + (documents - lists[i].size + 0.5) / (lists[i].size + 0.5));
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            remaining[i] = remaining[i + 1] + idf[i] * (K1 + 1);
+        }
+
+        int[] column = docColumn;
+        int[] length = docLength;
+        TopHits top = new TopHits(limit);
+        int[] cursors = new int[n];
+        int[] leadDocs = lists[0].docs;
+        short[] leadFreqs = lists[0].freqs;
+        int leadSize = lists[0].size;
+        candidates:
+        for (int i = 0; i < leadSize; i++) {
+            int doc = leadDocs[i];
+            int docColumnId = column[doc];
+            if (docColumnId >= allowed.length || !allowed[docColumnId]) {
+                continue;
+            }
+            float norm = base + lengthFactor * length[doc];
+            int frequency = leadFreqs[i];
+            float score = idf[0] * frequency * (K1 + 1) / (frequency + norm);
+            for (int j = 1; j < n; j++) {
+                // Nem com a contribuição máxima dos termos restantes o card entraria no resultado.
+                if (top.isFull() && score + remaining[j] < top.minScore()) {
+                    continue candidates;
+                }
+                Postings list = lists[j];
+                int position = list.seek(cursors[j], doc);
+                cursors[j] = position;
+                if (position >= list.size || list.docs[position] != doc) {
+                    continue candidates;
+                }
+                frequency = list.freqs[position];
+                score += idf[j] * frequency * (K1 + 1) / (frequency + norm);
+            }
+            top.offer(doc, score);
+        }
+        return top.drainDescending(ids, scores);
+    }
+
+    private void ensureCapacity(int cardId) {
+        if (cardId >= docColumn.length) {
+            int size = Math.max(cardId + 1, docColumn.length * 2);
+            docColumn = Arrays.copyOf(docColumn, size);
+            docVersion = Arrays.copyOf(docVersion, size);
+            docLength = Arrays.copyOf(docLength, size);
+        }
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private short[] freqs = new short[4];
+        private int size;
+
+        // Os cards chegam quase sempre em ordem de id; fora de ordem, a inserção desloca o final.
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            short freq = (short) Math.min(frequency, Short.MAX_VALUE);
+            if (size == 0 || docs[size - 1] < doc) {
+                docs[size] = doc;
+                freqs[size] = freq;
+                size++;
+                return;
+            }
+            int position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            System.arraycopy(docs, position, docs, position + 1, size - position);
+            System.arraycopy(freqs, position, freqs, position + 1, size - position);
+            docs[position] = doc;
+            freqs[position] = freq;
+            size++;
+        }
+
+        // Primeira posição a partir de from com docs[pos] >= doc. Listas de tamanho parecido
+        // avançam poucas posições por vez, então algumas comparações lineares vêm antes da busca exponencial.
+        int seek(int from, int doc) {
+            int limit = Math.min(size, from + 8);
+            while (from < limit && docs[from] < doc) {
+                from++;
+            }
+            if (from < limit || from >= size) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + 1;
+            while (high < size && docs[high] < doc) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            high = Math.min(high, size);
+            int position = Arrays.binarySearch(docs, low + 1, high, doc);
+            return position >= 0 ? position : -position - 1;
+        }
+    }
+
+    // Min-heap com os limit melhores (score, id).
+    private static final class TopHits {
+        private final int[] ids;
+        private final float[] scores;
+        private int size;
+
+        TopHits(int limit) {
+            ids = new int[limit];
+            scores = new float[limit];
+        }
+
+        boolean isFull() {
+            return size == ids.length;
+        }
+
+        float minScore() {
+            return scores[0];
+        }
+
+        void offer(int id, float score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score >= scores[0] && better(id, score, ids[0], scores[0])) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        int drainDescending(int[] outIds, float[] outScores) {
+            int count = size;
+            while (size > 0) {
+                size--;
+                outIds[size] = ids[0];
+                outScores[size] = scores[0];
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return count;
+        }
+
+        private static boolean better(int id, float score, int otherId, float otherScore) {
+            return score > otherScore || (score == otherScore && id > otherId);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!better(ids[parent], scores[parent], ids[index], scores[index])) {
+                    break;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left;
+                int right = left + 1;
+                if (right < size && better(ids[left], scores[left], ids[right], scores[right])) {
+                    smallest = right;
+                }
+                if (!better(ids[index], scores[index], ids[smallest], scores[smallest])) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
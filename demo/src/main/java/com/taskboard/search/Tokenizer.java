@@ -0,0 +1,67 @@
+package com.taskboard.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Quebra o texto em palavras em minúsculas e sem acentos ("Revisão" e
+ * "revisao" viram o mesmo termo), ignorando palavras muito curtas e as
+ * stopwords mais comuns em português.
+ */
+final class Tokenizer {
+
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 40;
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "e", "as", "os", "ao", "aos", "de", "da", "do", "das", "dos", "em", "no", "na", "nos", "nas",
+            "um", "uma", "uns", "umas", "para", "pra", "por", "com", "sem", "que", "se", "ou", "mas", "seu", "sua");
+
+    private Tokenizer() {
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addToken(tokens, folded.substring(start, Math.min(i, start + MAX_LENGTH)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Termos distintos da consulta, na ordem em que aparecem.
+    static List<String> queryTerms(String query) {
+        return new ArrayList<>(new LinkedHashSet<>(tokens(query)));
+    }
+
+    private static void addToken(List<String> tokens, String token) {
+        if (token.length() >= MIN_LENGTH && !STOPWORDS.contains(token)) {
+            tokens.add(token);
+        }
+    }
+
+    private static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        boolean ascii = true;
+        for (int i = 0; i < lower.length() && ascii; i++) {
+            ascii = lower.charAt(i) < 128;
+        }
+        if (ascii) {
+            return lower;
+        }
+        return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+    }
+}
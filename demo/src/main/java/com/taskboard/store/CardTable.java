@@ -0,0 +1,415 @@
+package com.taskboard.store;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.taskboard.model.Card;
+
+/**
+ * Cards em layout colunar: um array primitivo por campo, indexado pelo id do
+ * card (os ids vêm do AUTO_INCREMENT, então são densos). A data de criação
+ * fica em segundos, os títulos são internados num dicionário e as descrições
+ * ficam em UTF-8 num único array de bytes. Cada coluna do board guarda os ids
+ * dos seus cards ordenados por (creation_date, id), para paginar sem varrer a
+ * tabela.
+ *
+ * Objetos {@link Card} só existem na saída das consultas. Não é thread-safe;
+ * {@link InMemoryCardStore} controla o acesso.
+ */
+public final class CardTable {
+
+    private static final int NO_TEXT = -1;
+
+    private int[] columnOf = new int[1024]; // 0 = card fora da tabela
+    private int[] versionOf = new int[1024];
+    private int[] createdOf = new int[1024]; // segundos desde 1970 (UTC), sem sinal
+    private int[] titleOf = new int[1024];
+    private int[] descriptionOffset = new int[1024];
+    private int[] descriptionLength = new int[1024];
+    private final BitSet blocked = new BitSet();
+    private int size;
+
+    private final List<String> titles = new ArrayList<>();
+    private final Map<String, Integer> titleIds = new HashMap<>();
+
+    private byte[] text = new byte[16 * 1024];
+    private int textSize;
+    private int textGarbage;
+
+    private final Map<Integer, ColumnCards> columns = new HashMap<>();
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int cardId) {
+        return cardId > 0 && cardId < columnOf.length && columnOf[cardId] != 0;
+    }
+
+    public int columnOf(int cardId) {
+        return contains(cardId) ? columnOf[cardId] : 0;
+    }
+
+    public int versionOf(int cardId) {
+        return versionOf[cardId];
+    }
+
+    public boolean isBlocked(int cardId) {
+        return blocked.get(cardId);
+    }
+
+    /**
+     * Inclui o card ou substitui o que tem o mesmo id.
+     */
+    public void put(Card card) {
+        int id = card.getId();
+        if (contains(id)) {
+            remove(id);
+        }
+        ensureCapacity(id);
+        columnOf[id] = card.getColumnId();
+        versionOf[id] = card.getVersion();
+        createdOf[id] = card.getCreationDate() == null ? 0
+                : (int) card.getCreationDate().toEpochSecond(ZoneOffset.UTC);
+        titleOf[id] = internTitle(card.getTitle());
+        storeDescription(id, card.getDescription());
+        blocked.set(id, card.getIsBlocked());
+        column(card.getColumnId()).add(id);
+        size++;
+    }
+
+    public void remove(int cardId) {
+        if (!contains(cardId)) {
+            return;
+        }
+        column(columnOf[cardId]).remove(cardId);
+        if (descriptionLength[cardId] != NO_TEXT) {
+            textGarbage += descriptionLength[cardId];
+        }
+        columnOf[cardId] = 0;
+        blocked.clear(cardId);
+        size--;
+    }
+
+    public void move(int cardId, int newColumnId) {
+        column(columnOf[cardId]).remove(cardId);
+        columnOf[cardId] = newColumnId;
+        versionOf[cardId]++;
+        column(newColumnId).add(cardId);
+    }
+
+    // Mesmo efeito de move em cada card, com uma passada por coluna em vez de um deslocamento por card.
+    public void moveAll(int[] cardIds, int newColumnId) {
+        Map<Integer, BitSet> bySource = new HashMap<>();
+        for (int id : cardIds) {
+            bySource.computeIfAbsent(columnOf[id], c -> new BitSet()).set(id);
+        }
+        for (Map.Entry<Integer, BitSet> entry : bySource.entrySet()) {
+            column(entry.getKey()).removeAll(entry.getValue());
+        }
+        for (int id : cardIds) {
+            columnOf[id] = newColumnId;
+            versionOf[id]++;
+        }
+        column(newColumnId).addAll(cardIds);
+    }
+
+    public void setBlocked(int cardId, boolean isBlocked) {
+        blocked.set(cardId, isBlocked);
+        versionOf[cardId]++;
+    }
+
+    public Card get(int cardId) {
+        return contains(cardId) ? toCard(cardId) : null;
+    }
+
+    public int count(int columnId) {
+        ColumnCards cards = columns.get(columnId);
+        return cards == null ? 0 : cards.size;
+    }
+
+    public int countBlocked(int columnId) {
+        ColumnCards cards = columns.get(columnId);
+        if (cards == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < cards.size; i++) {
+            if (blocked.get(cards.ids[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Ids da coluna na ordem de exibição (creation_date DESC, id DESC),
+     * começando depois de after (ou do início, se null).
+     */
+    public int[] page(int columnId, Card after, int limit) {
+        ColumnCards cards = columns.get(columnId);
+        if (cards == null) {
+            return new int[0];
+        }
+        int end;
+        if (after == null) {
+            end = cards.size;
+        } else {
+            int created = after.getCreationDate() == null ? 0
+                    : (int) after.getCreationDate().toEpochSecond(ZoneOffset.UTC);
+            end = cards.lowerBound(created, after.getId());
+        }
+        int count = Math.min(limit, end);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = cards.ids[end - 1 - i];
+        }
+        return ids;
+    }
+
+    public void forEachInColumn(int columnId, Consumer<Card> action) {
+        ColumnCards cards = columns.get(columnId);
+        if (cards == null) {
+            return;
+        }
+        int[] ids = Arrays.copyOf(cards.ids, cards.size);
+        for (int i = ids.length - 1; i >= 0; i--) {
+            action.accept(toCard(ids[i]));
+        }
+    }
+
+    public int[] unblockedIds(int columnId) {
+        ColumnCards cards = columns.get(columnId);
+        if (cards == null) {
+            return new int[0];
+        }
+        int[] ids = new int[cards.size];
+        int count = 0;
+        for (int i = 0; i < cards.size; i++) {
+            if (!blocked.get(cards.ids[i])) {
+                ids[count++] = cards.ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    public int[] ids() {
+        int[] ids = new int[size];
+        int count = 0;
+        for (int id = 1; id < columnOf.length && count < size; id++) {
+            if (columnOf[id] != 0) {
+                ids[count++] = id;
+            }
+        }
+        return ids;
+    }
+
+    // Remove os cards das colunas informadas (board excluído, com os cards apagados em cascata).
+    public void removeColumns(Iterable<Integer> columnIds) {
+        for (int columnId : columnIds) {
+            ColumnCards cards = columns.remove(columnId);
+            if (cards == null) {
+                continue;
+            }
+            for (int i = 0; i < cards.size; i++) {
+                int id = cards.ids[i];
+                if (descriptionLength[id] != NO_TEXT) {
+                    textGarbage += descriptionLength[id];
+                }
+                columnOf[id] = 0;
+                blocked.clear(id);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * Bytes ocupados pelos arrays da tabela, sem contar o cabeçalho dos objetos
+     * e os títulos internados.
+     */
+    public long getArrayBytes() {
+        long bytes = 6L * 4 * columnOf.length + blocked.size() / 8 + text.length;
+        for (ColumnCards cards : columns.values()) {
+            bytes += 4L * cards.ids.length;
+        }
+        return bytes;
+    }
+
+    public int getTitleCount() {
+        return titles.size();
+    }
+
+    private Card toCard(int id) {
+        Card card = new Card();
+        card.setID(id);
+        card.setTitle(titles.get(titleOf[id]));
+        int length = descriptionLength[id];
+        card.setDescription(length == NO_TEXT ? null
+                : new String(text, descriptionOffset[id], length, StandardCharsets.UTF_8));
+        card.setCreationDate(LocalDateTime.ofEpochSecond(Integer.toUnsignedLong(createdOf[id]), 0, ZoneOffset.UTC));
+        card.setBlock(blocked.get(id));
+        card.setColumnId(columnOf[id]);
+        card.setVersion(versionOf[id]);
+        return card;
+    }
+
+    // O dicionário só cresce; títulos de cards removidos saem na próxima carga da tabela.
+    private int internTitle(String title) {
+        Integer id = titleIds.get(title);
+        if (id == null) {
+            id = titles.size();
+            titles.add(title);
+            titleIds.put(title, id);
+        }
+        return id;
+    }
+
+    private void storeDescription(int cardId, String description) {
+        if (description == null) {
+            descriptionLength[cardId] = NO_TEXT;
+            return;
+        }
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        if (textSize + bytes.length > text.length) {
+            if (textGarbage > textSize / 2) {
+                compactText();
+            }
+            if (textSize + bytes.length > text.length) {
+                long grown = Math.max((long) textSize + bytes.length, text.length + (text.length >> 1));
+                text = Arrays.copyOf(text, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+            }
+        }
+        System.arraycopy(bytes, 0, text, textSize, bytes.length);
+        descriptionOffset[cardId] = textSize;
+        descriptionLength[cardId] = bytes.length;
+        textSize += bytes.length;
+    }
+
+    // Copia só as descrições dos cards presentes, na ordem dos ids.
+    private void compactText() {
+        byte[] compacted = new byte[text.length];
+        int offset = 0;
+        for (int id = 1; id < columnOf.length; id++) {
+            if (columnOf[id] != 0 && descriptionLength[id] != NO_TEXT) {
+                System.arraycopy(text, descriptionOffset[id], compacted, offset, descriptionLength[id]);
+                descriptionOffset[id] = offset;
+                offset += descriptionLength[id];
+            }
+        }
+        text = compacted;
+        textSize = offset;
+        textGarbage = 0;
+    }
+
+    private void ensureCapacity(int cardId) {
+        if (cardId >= columnOf.length) {
+            int length = Math.max(cardId + 1, columnOf.length + (columnOf.length >> 1));
+            columnOf = Arrays.copyOf(columnOf, length);
+            versionOf = Arrays.copyOf(versionOf, length);
+            createdOf = Arrays.copyOf(createdOf, length);
+            titleOf = Arrays.copyOf(titleOf, length);
+            descriptionOffset = Arrays.copyOf(descriptionOffset, length);
+            descriptionLength = Arrays.copyOf(descriptionLength, length);
+        }
+    }
+
+    private ColumnCards column(int columnId) {
+        return columns.computeIfAbsent(columnId, c -> new ColumnCards());
+    }
+
+    // Ids dos cards de uma coluna em ordem crescente de (creation_date, id).
+    private final class ColumnCards {
+        private int[] ids = new int[16];
+        private int size;
+
+        void add(int id) {
+            int position = lowerBound(createdOf[id], id);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int position = lowerBound(createdOf[id], id);
+            if (position < size && ids[position] == id) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+
+        void removeAll(BitSet removed) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!removed.get(ids[i])) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            size = kept;
+        }
+
+        void addAll(int[] added) {
+            int[] sorted = added.clone();
+            sortByKey(sorted);
+            int[] merged = new int[Math.max(16, size + sorted.length)];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < size && j < sorted.length) {
+                merged[k++] = compare(ids[i], sorted[j]) <= 0 ? ids[i++] : sorted[j++];
+            }
+            while (i < size) {
+                merged[k++] = ids[i++];
+            }
+            while (j < sorted.length) {
+                merged[k++] = sorted[j++];
+            }
+            ids = merged;
+            size = k;
+        }
+
+        // Primeira posição cuja chave não é menor que (created, id).
+        int lowerBound(int created, int id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int other = ids[middle];
+                int byDate = Integer.compareUnsigned(createdOf[other], created);
+                if (byDate < 0 || (byDate == 0 && other < id)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private int compare(int a, int b) {
+        int byDate = Integer.compareUnsigned(createdOf[a], createdOf[b]);
+        return byDate != 0 ? byDate : Integer.compare(a, b);
+    }
+
+    // Ordena pela chave (creation_date, id); os ids costumam chegar quase ordenados.
+    private void sortByKey(int[] ids) {
+        long[] keys = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            keys[i] = (Integer.toUnsignedLong(createdOf[ids[i]]) << 31) | ids[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        }
+    }
+}
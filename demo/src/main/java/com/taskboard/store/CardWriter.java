@@ -0,0 +1,109 @@
+package com.taskboard.store;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.taskboard.db.DBException;
+
+/**
+ * Thread única que grava no banco, na ordem em que foram aceitas, as
+ * alterações já aplicadas em memória. Se o banco não acompanhar, quem vai
+ * alterar um card espera em {@link #awaitCapacity()}, antes de pegar o lock do
+ * armazenamento; {@link #submit} nunca bloqueia, porque é chamado com o lock e
+ * a própria thread de gravação precisa dele para reler cards.
+ */
+class CardWriter {
+
+    interface Write {
+        void run();
+    }
+
+    private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    private final int capacity;
+    private final Thread thread;
+    private volatile boolean closed;
+    private long failures;
+
+    CardWriter(int capacity) {
+        this.capacity = capacity;
+        thread = new Thread(this::loop, "taskboard-card-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void awaitCapacity() {
+        try {
+            while (queue.size() >= capacity && !closed) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DBException("Interrompido aguardando espaço na fila de gravação de cards.");
+        }
+    }
+
+    void submit(Write write) {
+        if (closed) {
+            throw new DBException("O armazenamento de cards em memória já foi fechado.");
+        }
+        queue.add(write);
+    }
+
+    // Espera tudo o que foi aceito até aqui ser gravado (ou falhar).
+    void flush() {
+        if (Thread.currentThread() == thread) {
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        submit(done::countDown);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DBException("Interrompido aguardando a gravação dos cards.");
+        }
+    }
+
+    int getPending() {
+        return queue.size();
+    }
+
+    synchronized long getFailures() {
+        return failures;
+    }
+
+    void close() {
+        flush();
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        thread.interrupt();
+    }
+
+    private void loop() {
+        while (true) {
+            Write write;
+            try {
+                write = queue.take();
+            } catch (InterruptedException e) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                write.run();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    failures++;
+                }
+                System.out.println("ERRO ao gravar alteração de card no banco: " + e.getMessage());
+            }
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package com.taskboard.store;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import com.taskboard.dao.BoardSnapshotDAO;
+import com.taskboard.dao.CardDAO;
+import com.taskboard.dao.CardRepository;
+import com.taskboard.dao.ColumnDAO;
+import com.taskboard.db.DB;
+import com.taskboard.db.DBException;
+import com.taskboard.events.BoardEvent;
+import com.taskboard.events.CardBlocked;
+import com.taskboard.events.CardCreated;
+import com.taskboard.events.CardDeleted;
+import com.taskboard.events.CardMoved;
+import com.taskboard.events.CardUnblocked;
+import com.taskboard.events.ColumnCreated;
+import com.taskboard.events.ColumnsDeleted;
+import com.taskboard.events.EventBus;
+import com.taskboard.events.EventListener;
+import com.taskboard.events.Subscription;
+import com.taskboard.model.Board;
+import com.taskboard.model.BoardCardCounts;
+import com.taskboard.model.BoardColumns;
+import com.taskboard.model.BoardSnapshot;
+import com.taskboard.model.Card;
+import com.taskboard.model.CardPage;
+import com.taskboard.model.Column;
+import com.taskboard.model.CreateResult;
+import com.taskboard.model.MoveResult;
+
+/**
+ * Todos os cards em memória, num {@link CardTable}, para boards grandes e de
+ * muita leitura ({@code cards.store=memory}). As leituras não vão ao banco.
+ * Movimentações, bloqueios e exclusões são aplicados em memória, publicados
+ * no {@link EventBus} e gravados no banco depois, em ordem, pelo
+ * {@link CardWriter}, com as mesmas regras (e o mesmo histórico) do
+ * {@link CardDAO}. Criações são gravadas na hora, porque o id vem do banco.
+ *
+ * A memória é a referência: o modo supõe que só este processo altera os
+ * cards. Se uma gravação falhar ou encontrar o card diferente no banco, o card
+ * é relido do banco. Alterações ainda na fila se perdem se o processo cair;
+ * {@link #flush()} espera a fila esvaziar.
+ */
+public class InMemoryCardStore implements CardRepository, EventListener {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CardDAO database = new CardDAO(new EventBus());
+    private final ColumnDAO columnDAO = new ColumnDAO();
+    private final EventBus events = EventBus.getInstance();
+    private final CardWriter writer;
+    private Subscription subscription;
+
+    // Protegidos por lock.
+    private final CardTable table = new CardTable();
+    private final Map<Integer, Integer> boardOfColumn = new HashMap<>();
+
+    private InMemoryCardStore(int queueCapacity) {
+        writer = new CardWriter(queueCapacity);
+    }
+
+    public static InMemoryCardStore open() {
+        InMemoryCardStore store = new InMemoryCardStore(Math.max(1, DB.getIntProperty("cards.store.queueCapacity", 10000)));
+        long start = System.nanoTime();
+        store.subscription = EventBus.getInstance().subscribe("card-store", store);
+        store.load();
+        System.out.println(String.format("%d cards carregados em memória em %d ms.",
+                store.table.size(), (System.nanoTime() - start) / 1_000_000));
+        return store;
+    }
+
+    private void load() {
+        Map<Integer, Integer> columns = columnDAO.findBoardIdsByColumn();
+        lock.writeLock().lock();
+        try {
+            boardOfColumn.putAll(columns);
+            // Cards de boards excluídos ainda aguardando remoção ficam de fora.
+            database.forEachCard(card -> {
+                if (boardOfColumn.containsKey(card.getColumnId())) {
+                    table.put(card);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A vaga é conferida na memória; o banco confere de novo ao gravar, com os contadores dele.
+    @Override
+    public CreateResult create(Card card) {
+        Integer wipLimit = wipLimit(card.getColumnId());
+        if (wipLimit != null && countByColumnId(card.getColumnId()) >= wipLimit) {
+            return CreateResult.WIP_LIMIT_REACHED;
+        }
+        CreateResult result = database.create(card);
+        if (result != CreateResult.CREATED) {
+            return result;
+        }
+        Card stored = database.findById(card.getId());
+        if (stored == null) {
+            return result;
+        }
+        card.setCreationDate(stored.getCreationDate());
+        card.setVersion(stored.getVersion());
+        lock.writeLock().lock();
+        try {
+            table.put(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        events.publish(new CardCreated(stored));
+        return result;
+    }
+
+    @Override
+    public int createAll(List<Card> cards) {
+        int created = database.createAll(cards);
+        List<Integer> ids = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            ids.add(card.getId());
+        }
+        List<Card> stored = new ArrayList<>(ids.size());
+        int batchSize = Math.max(1, DB.getIntProperty("bulk.batchSize", 500));
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            stored.addAll(database.findByIds(ids.subList(from, Math.min(from + batchSize, ids.size()))));
+        }
+        lock.writeLock().lock();
+        try {
+            for (Card card : stored) {
+                table.put(card);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (events.hasSubscribers()) {
+            List<BoardEvent> createdEvents = new ArrayList<>(stored.size());
+            for (Card card : stored) {
+                createdEvents.add(new CardCreated(card));
+            }
+            events.publishAll(createdEvents);
+        }
+        return created;
+    }
+
+    @Override
+    public int moveColumnCards(int fromColumnId, int newColumnId) {
+        int[] ids;
+        lock.readLock().lock();
+        try {
+            ids = table.unblockedIds(fromColumnId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Integer> list = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            list.add(id);
+        }
+        return moveCards(list, newColumnId);
+    }
+
+    // Cards bloqueados, que já estão na coluna de destino ou que passariam do limite WIP dela
+    // são ignorados; devolve quantos foram movidos.
+    @Override
+    public int moveCards(List<Integer> cardIds, int newColumnId) {
+        List<Integer> eligible = new ArrayList<>();
+        List<BoardEvent> moves = new ArrayList<>();
+        BitSet seen = new BitSet();
+        Integer wipLimit = wipLimit(newColumnId);
+        writer.awaitCapacity();
+        lock.writeLock().lock();
+        try {
+            int room = wipLimit == null ? Integer.MAX_VALUE : wipLimit - table.count(newColumnId);
+            for (int id : cardIds) {
+                if (eligible.size() >= room) {
+                    break;
+                }
+                int columnId = table.columnOf(id);
+                if (columnId != 0 && columnId != newColumnId && !table.isBlocked(id) && !seen.get(id)) {
+                    seen.set(id);
+                    eligible.add(id);
+                    moves.add(new CardMoved(id, columnId, newColumnId, table.versionOf(id) + 1));
+                }
+            }
+            if (eligible.isEmpty()) {
+                return 0;
+            }
+            int[] ids = new int[eligible.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = eligible.get(i);
+            }
+            table.moveAll(ids, newColumnId);
+            write(eligible, () -> {
+                if (database.moveCards(eligible, newColumnId) != eligible.size()) {
+                    System.out.println("AVISO: cards diferentes no banco ao mover em lote; relendo do banco.");
+                    resync(eligible);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        events.publishAll(moves);
+        return eligible.size();
+    }
+
+    // Cards que já estão no estado pedido são ignorados; devolve quantos foram alterados.
+    @Override
+    public int updateBlockStatus(List<Integer> cardIds, boolean isBlocked, String reason) {
+        List<Integer> eligible = new ArrayList<>();
+        List<BoardEvent> changes = new ArrayList<>();
+        writer.awaitCapacity();
+        lock.writeLock().lock();
+        try {
+            for (int id : cardIds) {
+                if (table.contains(id) && table.isBlocked(id) != isBlocked) {
+                    table.setBlocked(id, isBlocked);
+                    eligible.add(id);
+                    changes.add(isBlocked ? new CardBlocked(id, table.columnOf(id), reason, table.versionOf(id))
+                            : new CardUnblocked(id, table.columnOf(id), reason, table.versionOf(id)));
+                }
+            }
+            if (eligible.isEmpty()) {
+                return 0;
+            }
+            write(eligible, () -> {
+                if (database.updateBlockStatus(eligible, isBlocked, reason) != eligible.size()) {
+                    System.out.println("AVISO: cards diferentes no banco ao atualizar bloqueio em lote; relendo do banco.");
+                    resync(eligible);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        events.publishAll(changes);
+        return eligible.size();
+    }
+
+    @Override
+    public List<Card> findAll() {
+        List<Card> list = new ArrayList<>();
+        forEachCard(list::add);
+        return list;
+    }
+
+    // Os cards são copiados em blocos, para não segurar o lock enquanto a ação roda.
+    @Override
+    public void forEachCard(Consumer<Card> action) {
+        int[] ids;
+        lock.readLock().lock();
+        try {
+            ids = table.ids();
+        } finally {
+            lock.readLock().unlock();
+        }
+        int blockSize = Math.max(1, DB.getIntProperty("stream.fetchSize", 1000));
+        for (int from = 0; from < ids.length; from += blockSize) {
+            List<Card> cards = new ArrayList<>(blockSize);
+            lock.readLock().lock();
+            try {
+                for (int i = from; i < Math.min(from + blockSize, ids.length); i++) {
+                    Card card = table.get(ids[i]);
+                    if (card != null) {
+                        cards.add(card);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            cards.forEach(action);
+        }
+    }
+
+    @Override
+    public void forEachByColumnId(int columnId, Consumer<Card> action) {
+        findByColumnId(columnId).forEach(action);
+    }
+
+    @Override
+    public CardPage findPageByColumnId(int columnId, Card after, int limit) {
+        lock.readLock().lock();
+        try {
+            int[] ids = table.page(columnId, after, limit + 1);
+            List<Card> list = new ArrayList<>(Math.min(limit, ids.length));
+            for (int i = 0; i < Math.min(limit, ids.length); i++) {
+                list.add(table.get(ids[i]));
+            }
+            return new CardPage(list, ids.length > limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countByColumnId(int columnId) {
+        lock.readLock().lock();
+        try {
+            return table.count(columnId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        writer.awaitCapacity();
+        lock.writeLock().lock();
+        try {
+            if (!table.contains(id)) {
+                System.out.println("ID do card não encontrado para exclusão.");
+                return;
+            }
+            table.remove(id);
+            write(List.of(id), () -> database.deleteById(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        events.publish(new CardDeleted(id));
+    }
+
+    // Mesmo controle otimista do CardDAO, contra a versão em memória.
+    @Override
+    public MoveResult updateColumn(Card card, int newColumnId) {
+        int cardId = card.getId();
+        int columnId = card.getColumnId();
+        int version = card.getVersion();
+        Integer wipLimit = wipLimit(newColumnId);
+        writer.awaitCapacity();
+        lock.writeLock().lock();
+        try {
+            if (table.columnOf(cardId) != columnId || table.versionOf(cardId) != version || columnId == 0) {
+                return MoveResult.CONFLICT;
+            }
+            if (wipLimit != null && table.count(newColumnId) >= wipLimit) {
+                return MoveResult.WIP_LIMIT_REACHED;
+            }
+            table.move(cardId, newColumnId);
+            Card persisted = new Card();
+            persisted.setID(cardId);
+            persisted.setColumnId(columnId);
+            persisted.setVersion(version);
+            write(List.of(cardId), () -> {
+                MoveResult result = database.updateColumn(persisted, newColumnId);
+                if (result != MoveResult.MOVED) {
+                    System.out.println("AVISO: card " + cardId + " não movido no banco (" + result + "); relendo do banco.");
+                    resync(List.of(cardId));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        events.publish(new CardMoved(cardId, columnId, newColumnId, version + 1));
+        card.setColumnId(newColumnId);
+        card.setVersion(version + 1);
+        return MoveResult.MOVED;
+    }
+
+    @Override
+    public void updateBlockStatus(int cardId, boolean isBlocked, String reason) {
+        BoardEvent event;
+        writer.awaitCapacity();
+        lock.writeLock().lock();
+        try {
+            if (!table.contains(cardId) || table.isBlocked(cardId) == isBlocked) {
+                return;
+            }
+            table.setBlocked(cardId, isBlocked);
+            int columnId = table.columnOf(cardId);
+            int version = table.versionOf(cardId);
+            event = isBlocked ? new CardBlocked(cardId, columnId, reason, version)
+                    : new CardUnblocked(cardId, columnId, reason, version);
+            write(List.of(cardId), () -> database.updateBlockStatus(cardId, isBlocked, reason));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        events.publish(event);
+    }
+
+    @Override
+    public List<Card> findByColumnId(int columnId) {
+        List<Card> list = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            table.forEachInColumn(columnId, list::add);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return list;
+    }
+
+    @Override
+    public Card findById(int cardId) {
+        lock.readLock().lock();
+        try {
+            return table.get(cardId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sem ordem garantida; ids inexistentes são ignorados.
+    @Override
+    public List<Card> findByIds(List<Integer> cardIds) {
+        List<Card> list = new ArrayList<>(cardIds.size());
+        lock.readLock().lock();
+        try {
+            for (int id : cardIds) {
+                Card card = table.get(id);
+                if (card != null) {
+                    list.add(card);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return list;
+    }
+
+    @Override
+    public BoardSnapshot loadSnapshot(Board board) {
+        BoardColumns columns = columnDAO.findBoardColumns(board.getId());
+        BoardSnapshot snapshot = new BoardSnapshot(board, columns);
+        int pageSize = Math.max(1, DB.getIntProperty("board.pageSize", 20));
+        lock.readLock().lock();
+        try {
+            for (Column column : columns.getColumns()) {
+                for (int id : table.page(column.getId(), null, pageSize)) {
+                    snapshot.addCard(table.get(id));
+                }
+                snapshot.setCardCount(column.getId(), table.count(column.getId()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return snapshot;
+    }
+
+    // Contado em memória: os contadores do banco só refletem o que o CardWriter já gravou.
+    @Override
+    public BoardCardCounts loadCardCounts(int boardId) {
+        BoardColumns columns = columnDAO.findBoardColumns(boardId);
+        BoardCardCounts counts = new BoardCardCounts(boardId);
+        lock.readLock().lock();
+        try {
+            for (Column column : columns.getColumns()) {
+                counts.add(column.getId(), column.getType(), table.count(column.getId()), table.countBlocked(column.getId()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    @Override
+    public void forEachCardVersion(int boardId, BoardSnapshotDAO.CardVersionConsumer action) {
+        BoardColumns columns = columnDAO.findBoardColumns(boardId);
+        List<int[]> versions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Column column : columns.getColumns()) {
+                for (int id : table.page(column.getId(), null, Integer.MAX_VALUE)) {
+                    versions.add(new int[] { id, column.getId(), table.versionOf(id) });
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int[] entry : versions) {
+            action.accept(entry[0], entry[1], entry[2]);
+        }
+    }
+
+    @Override
+    public void flush() {
+        writer.flush();
+    }
+
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+        }
+        writer.close();
+    }
+
+    // Só os eventos de coluna interessam: os de card foram publicados por este mesmo armazenamento.
+    @Override
+    public void onEvent(BoardEvent event) {
+        if (event instanceof ColumnCreated created) {
+            lock.writeLock().lock();
+            try {
+                boardOfColumn.put(created.getColumnId(), created.getBoardId());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } else if (event instanceof ColumnsDeleted deleted) {
+            lock.writeLock().lock();
+            try {
+                List<Integer> removed = new ArrayList<>();
+                Iterator<Map.Entry<Integer, Integer>> it = boardOfColumn.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Integer, Integer> entry = it.next();
+                    if (entry.getValue() == deleted.getBoardId()) {
+                        removed.add(entry.getKey());
+                        it.remove();
+                    }
+                }
+                table.removeColumns(removed);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Algum board pode ter sido excluído sem o evento chegar: descarta os cards de colunas que não existem mais.
+    @Override
+    public void onOverflow(long droppedEvents) {
+        Map<Integer, Integer> columns = columnDAO.findBoardIdsByColumn();
+        lock.writeLock().lock();
+        try {
+            List<Integer> removed = new ArrayList<>();
+            for (Integer columnId : boardOfColumn.keySet()) {
+                if (!columns.containsKey(columnId)) {
+                    removed.add(columnId);
+                }
+            }
+            table.removeColumns(removed);
+            boardOfColumn.clear();
+            boardOfColumn.putAll(columns);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Lido do BoardCache antes de pegar o write lock; null se a coluna não tiver limite.
+    private Integer wipLimit(int columnId) {
+        Integer boardId;
+        lock.readLock().lock();
+        try {
+            boardId = boardOfColumn.get(columnId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (boardId == null) {
+            return null;
+        }
+        Column column = columnDAO.findBoardColumns(boardId).findById(columnId);
+        return column == null ? null : column.getWipLimit();
+    }
+
+    // Chamado com o write lock: a ordem na fila é a mesma da aplicação em memória.
+    private void write(List<Integer> cardIds, CardWriter.Write write) {
+        writer.submit(() -> {
+            try {
+                write.run();
+            } catch (DBException e) {
+                resync(cardIds);
+                throw e;
+            }
+        });
+    }
+
+    // Roda na thread de gravação: substitui os cards em memória pelo que está no banco.
+    private void resync(List<Integer> cardIds) {
+        List<Card> stored = database.findByIds(cardIds);
+        lock.writeLock().lock();
+        try {
+            for (int id : cardIds) {
+                table.remove(id);
+            }
+            for (Card card : stored) {
+                table.put(card);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return String.format("InMemoryCardStore [cards=%d, títulos=%d, arrays=%d KB, gravações pendentes=%d, falhas=%d]",
+                    table.size(), table.getTitleCount(), table.getArrayBytes() / 1024, writer.getPending(), writer.getFailures());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
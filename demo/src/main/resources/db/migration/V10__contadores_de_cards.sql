@@ -0,0 +1,9 @@
+-- Total de cards e de cards bloqueados de cada coluna, mantidos pelo CardDAO na mesma
+-- transação de cada criação, movimentação, bloqueio e exclusão. Os totais do board (e por
+-- tipo de coluna) são a soma das suas colunas. ColumnDAO.repairCardCounts recalcula a partir de cards.
+ALTER TABLE columns ADD COLUMN card_count INT NOT NULL DEFAULT 0;
+ALTER TABLE columns ADD COLUMN blocked_count INT NOT NULL DEFAULT 0;
+
+UPDATE columns SET
+    card_count = (SELECT COUNT(*) FROM cards c WHERE c.column_id = columns.id),
+    blocked_count = (SELECT COUNT(*) FROM cards c WHERE c.column_id = columns.id AND c.is_blocked = TRUE);
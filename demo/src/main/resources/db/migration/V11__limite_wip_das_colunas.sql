@@ -0,0 +1,4 @@
+-- Limite WIP (máximo de cards) de cada coluna; NULL = sem limite. O CardDAO só aumenta
+-- card_count com um UPDATE condicional (card_count + n <= wip_limit), na transação da
+-- criação ou da movimentação, então o limite vale mesmo com muitas movimentações simultâneas.
+ALTER TABLE columns ADD COLUMN wip_limit INT NULL;
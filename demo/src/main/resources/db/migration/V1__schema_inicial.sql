@@ -0,0 +1,50 @@
+-- Esquema inicial (o mesmo do script do README), idempotente para bancos já criados por ele.
+
+-- Tabela para armazenar os Boards (Quadros).
+CREATE TABLE IF NOT EXISTS boards (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
+);
+
+-- Tabela para armazenar as Colunas de cada Board.
+CREATE TABLE IF NOT EXISTS columns (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    board_id INT NOT NULL,
+    column_order INT NOT NULL,
+    type ENUM('INICIAL', 'PENDENTE', 'FINAL', 'CANCELAMENTO') NOT NULL,
+    FOREIGN KEY (board_id) REFERENCES boards(id) ON DELETE CASCADE
+);
+
+-- Tabela para armazenar os Cards (Tarefas).
+CREATE TABLE IF NOT EXISTS cards (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    creation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    is_blocked BOOLEAN DEFAULT FALSE,
+    column_id INT NOT NULL,
+    FOREIGN KEY (column_id) REFERENCES columns(id) ON DELETE CASCADE
+);
+
+-- Tabela para o Histórico de Movimentação dos Cards
+CREATE TABLE IF NOT EXISTS card_movement_history (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    card_id INT NOT NULL,
+    column_id INT NOT NULL,
+    entry_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    exit_time TIMESTAMP NULL,
+    FOREIGN KEY (card_id) REFERENCES cards(id) ON DELETE CASCADE,
+    FOREIGN KEY (column_id) REFERENCES columns(id) ON DELETE CASCADE
+);
+
+-- Tabela para o Histórico de Bloqueio dos Cards
+CREATE TABLE IF NOT EXISTS card_block_history (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    card_id INT NOT NULL,
+    block_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    unblock_time TIMESTAMP NULL,
+    block_reason TEXT NOT NULL,
+    unblock_reason TEXT,
+    FOREIGN KEY (card_id) REFERENCES cards(id) ON DELETE CASCADE
+);
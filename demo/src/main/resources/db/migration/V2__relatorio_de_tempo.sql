@@ -0,0 +1,20 @@
+-- Resumo incremental do tempo de cada card em cada coluna (intervalos encerrados).
+CREATE TABLE IF NOT EXISTS report_card_column_time (
+    card_id INT NOT NULL,
+    column_id INT NOT NULL,
+    board_id INT NOT NULL,
+    total_seconds BIGINT NOT NULL DEFAULT 0,
+    visits INT NOT NULL DEFAULT 0,
+    first_entry TIMESTAMP NULL,
+    last_exit TIMESTAMP NULL,
+    PRIMARY KEY (card_id, column_id),
+    INDEX idx_report_board_column (board_id, column_id),
+    FOREIGN KEY (card_id) REFERENCES cards(id) ON DELETE CASCADE,
+    FOREIGN KEY (column_id) REFERENCES columns(id) ON DELETE CASCADE
+);
+
+-- Até onde o histórico já foi somado no resumo.
+CREATE TABLE IF NOT EXISTS report_watermark (
+    name VARCHAR(64) PRIMARY KEY,
+    last_exit_time TIMESTAMP NOT NULL
+);
@@ -0,0 +1,14 @@
+-- CardDAO.findByColumnId / findPageByColumnId e a tela do board: filtro por coluna, ordenação por data.
+CREATE INDEX idx_cards_column_creation ON cards (column_id, creation_date, id);
+
+-- ColumnDAO.findByBoardId: filtro por board, ordenação por column_order.
+CREATE INDEX idx_columns_board_order ON columns (board_id, column_order);
+
+-- CardDAO.updateColumn: fecha o intervalo aberto (exit_time IS NULL) do card na coluna.
+CREATE INDEX idx_movement_card_column_exit ON card_movement_history (card_id, column_id, exit_time);
+
+-- ReportDAO.refreshColumnTimes: intervalos encerrados depois da marca d'água.
+CREATE INDEX idx_movement_exit ON card_movement_history (exit_time);
+
+-- CardDAO.updateBlockStatus: fecha o bloqueio aberto (unblock_time IS NULL) do card.
+CREATE INDEX idx_block_card_unblock ON card_block_history (card_id, unblock_time);
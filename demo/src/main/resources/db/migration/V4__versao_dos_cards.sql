@@ -0,0 +1,4 @@
+-- Versão do card para controle de concorrência otimista: toda alteração de
+-- coluna ou de bloqueio incrementa a versão, e a movimentação só é aplicada
+-- se a versão lida ainda for a atual.
+ALTER TABLE cards ADD COLUMN version INT NOT NULL DEFAULT 0;
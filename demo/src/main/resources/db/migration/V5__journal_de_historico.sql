@@ -0,0 +1,8 @@
+-- Checkpoint do journal de histórico (history.journal.enabled): sequência do
+-- último evento do journal já gravado em card_movement_history/card_block_history.
+CREATE TABLE IF NOT EXISTS history_journal_checkpoint (
+    name VARCHAR(64) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
+
+INSERT INTO history_journal_checkpoint (name, last_sequence) VALUES ('history', 0);
@@ -0,0 +1,23 @@
+-- Ordem das colunas com intervalos (ColumnDAO.ORDER_GAP = 1024): mover uma coluna grava só a linha dela.
+-- Renumera cada board na ordem atual; empates (deixados pelo antigo updateOrder) são desfeitos pelo id.
+CREATE TABLE column_order_rank (
+    id INT PRIMARY KEY,
+    board_position INT NOT NULL
+);
+
+INSERT INTO column_order_rank (id, board_position)
+SELECT c.id,
+       (SELECT COUNT(*) FROM columns c2
+         WHERE c2.board_id = c.board_id
+           AND (c2.column_order < c.column_order OR (c2.column_order = c.column_order AND c2.id <= c.id)))
+FROM columns c;
+
+UPDATE columns SET column_order = (SELECT r.board_position FROM column_order_rank r WHERE r.id = columns.id) * 1024;
+
+DROP TABLE column_order_rank;
+
+-- Duas colunas do mesmo board nunca ficam na mesma posição, mesmo com reordenações concorrentes.
+CREATE UNIQUE INDEX ux_columns_board_order ON columns (board_id, column_order);
+
+-- Substituído pelo índice único acima.
+DROP INDEX idx_columns_board_order ON columns;
@@ -0,0 +1,12 @@
+-- Exclusão de boards em segundo plano (BoardPurger): o board é marcado com deleted_at na hora e
+-- os dados são removidos aos poucos. O nome vira NULL para poder ser reutilizado enquanto isso.
+ALTER TABLE boards ADD COLUMN deleted_at TIMESTAMP NULL;
+ALTER TABLE boards MODIFY name VARCHAR(255) NULL;
+
+-- Uma linha por board aguardando remoção; some junto com o board no fim da remoção.
+CREATE TABLE IF NOT EXISTS board_purge (
+    board_id INT PRIMARY KEY,
+    board_name VARCHAR(255) NOT NULL,
+    requested_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    rows_deleted BIGINT NOT NULL DEFAULT 0
+);
@@ -0,0 +1,12 @@
+-- Intervalos encerrados há mais de history.archive.days dias saem de card_movement_history
+-- (HistoryArchiver) e vêm para cá, com o mesmo id. Sem chaves estrangeiras e só com os índices
+-- das consultas por período e da exclusão de cards, para ocupar o mínimo.
+CREATE TABLE IF NOT EXISTS card_movement_archive (
+    id INT PRIMARY KEY,
+    card_id INT NOT NULL,
+    column_id INT NOT NULL,
+    entry_time TIMESTAMP NOT NULL,
+    exit_time TIMESTAMP NOT NULL,
+    INDEX idx_archive_column_exit (column_id, exit_time),
+    INDEX idx_archive_card (card_id)
+);
@@ -0,0 +1,12 @@
+-- Id da linha de card_movement_history (e de card_block_history) ainda aberta de cada card,
+-- gravado na mesma transação que a abre: fechar o intervalo vira um UPDATE pela chave primária.
+-- Sem chave estrangeira: o arquivamento e a exclusão de boards apagam linhas de histórico antes
+-- dos cards, e um ponteiro para uma linha que já não está aberta só faz o DAO cair na busca por card.
+ALTER TABLE cards ADD COLUMN open_movement_id INT NULL;
+ALTER TABLE cards ADD COLUMN open_block_id INT NULL;
+
+UPDATE cards SET open_movement_id = (SELECT MAX(h.id) FROM card_movement_history h
+    WHERE h.card_id = cards.id AND h.exit_time IS NULL);
+
+UPDATE cards SET open_block_id = (SELECT MAX(b.id) FROM card_block_history b
+    WHERE b.card_id = cards.id AND b.unblock_time IS NULL);